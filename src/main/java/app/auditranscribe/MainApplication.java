@@ -26,6 +26,8 @@ import app.auditranscribe.io.PropertyFile;
 import app.auditranscribe.io.data_files.DataFiles;
 import app.auditranscribe.misc.CustomLogger;
 import app.auditranscribe.misc.ExcludeFromGeneratedCoverageReport;
+import app.auditranscribe.signal.SignalProcessingPool;
+import app.auditranscribe.signal.representations.FilterBasisCache;
 import javafx.application.Application;
 import javafx.stage.Stage;
 
@@ -43,7 +45,8 @@ public class MainApplication extends Application {
         String[] neededFolders = new String[]{
                 IOConstants.APP_DATA_FOLDER_PATH,
                 IOConstants.PROJECT_BACKUPS_FOLDER_PATH,
-                IOConstants.OTHER_RESOURCES_DATA_FOLDER_PATH
+                IOConstants.OTHER_RESOURCES_DATA_FOLDER_PATH,
+                IOConstants.FILTER_BASES_FOLDER_PATH
         };
         for (String path : neededFolders) {
             IOMethods.createFolder(path);
@@ -68,6 +71,12 @@ public class MainApplication extends Application {
         // Clear any old logs
         CustomLogger.clearOldLogs(DataFiles.SETTINGS_DATA_FILE.data.logFilePersistence);
 
+        // Set the number of threads used for signal processing
+        SignalProcessingPool.setParallelism(DataFiles.SETTINGS_DATA_FILE.data.signalProcessingThreads);
+
+        // Save the Q-Transform filter bases, so that they can be reused across runs
+        FilterBasisCache.setPersistenceFolder(IOConstants.FILTER_BASES_FOLDER_PATH);
+
         // Run setup wizard if setup is not complete
         if (!DataFiles.PERSISTENT_DATA_FILE.data.isSetupComplete) {
             SetupWizard setupWizard = new SetupWizard(currentVersion);
@@ -26,16 +26,12 @@ import app.auditranscribe.io.IOMethods;
 import app.auditranscribe.io.data_files.DataFiles;
 import app.auditranscribe.misc.*;
 import app.auditranscribe.signal.windowing.SignalWindow;
-import app.auditranscribe.utils.MathUtils;
-import app.auditranscribe.utils.TypeConversionUtils;
 
 import javax.sound.sampled.*;
 import java.io.*;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.*;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.logging.Level;
 
 /**
@@ -51,7 +47,7 @@ public class Audio extends LoggableClass {
     public static final int SLOWDOWN_ANALYSIS_LENGTH = 512;
     public static final SignalWindow SLOWDOWN_WINDOW = SignalWindow.HANN_WINDOW;
 
-    final int OUT_CHANNEL_CAPACITY = 8192;  // In number of samples
+    final int OUT_CHANNEL_CAPACITY = 16384;  // In number of samples; fits a segment plus a full operator output
     final int OUT_SEGMENT_LENGTH = 1024;  // In number of samples
 
     final int MAX_AUDIO_DURATION = 5;  // In minutes
@@ -59,7 +55,7 @@ public class Audio extends LoggableClass {
     // Attributes
     private final File wavFile;
 
-    private AudioInputStream audioStream;
+    private final AudioSource audioSource;
     private final AudioFormat audioFormat;
 
     private final int numChannels;
@@ -76,8 +72,10 @@ public class Audio extends LoggableClass {
     private double prevCurrTime;     // Last updated current time (in seconds) before a toggling of the audio speed
 
     private double volume = 1;
-    private boolean paused = false;
+    private volatile boolean paused = false;
+    private volatile boolean clearRequested = false;  // Whether the playback thread should clear the channels' buffers
     private boolean slowed = false;
+    private final Object pauseLock = new Object();
 
     private boolean withPlayback = false;
     private SourceDataLine sourceDataLine;
@@ -88,7 +86,7 @@ public class Audio extends LoggableClass {
     private double[] rawSamples;
     private double[] monoSamples;
 
-    private final Vector<BlockingQueue<Byte>> outChannels = new Vector<>();
+    private final Vector<ByteRingBuffer> outChannels = new Vector<>();
     private final Vector<TimeStretchOperator> channelOperators = new Vector<>();
 
     private byte[] rawMP3Bytes;
@@ -118,12 +116,17 @@ public class Audio extends LoggableClass {
         // Convert the given processing modes as a list
         List<ProcessingMode> modes = List.of(processingModes);
 
-        // Attempt to convert the input stream into an audio input stream
+        // Attempt to convert the input stream into an audio input stream, to get the audio format
         this.wavFile = wavFile;
-        audioStream = AudioSystem.getAudioInputStream(new BufferedInputStream(new FileInputStream(wavFile)));
+        long frames;
+        try (AudioInputStream audioStream = AudioSystem.getAudioInputStream(
+                new BufferedInputStream(new FileInputStream(wavFile))
+        )) {
+            audioFormat = audioStream.getFormat();
+            frames = audioStream.getFrameLength();
+        }
 
-        // Get the audio file's audio format, and get the format's properties
-        audioFormat = audioStream.getFormat();
+        // Get the audio format's properties
 
         numChannels = audioFormat.getChannels();
         frameSize = audioFormat.getFrameSize();
@@ -135,7 +138,6 @@ public class Audio extends LoggableClass {
         bytesPerSample = AudioHelpers.numBytesForNumBits(bitsPerSample);
 
         // Compute the duration of the audio file
-        long frames = audioStream.getFrameLength();
         duration = frames / frameRate;  // In seconds
 
         // Check if duration is too long
@@ -148,8 +150,11 @@ public class Audio extends LoggableClass {
             );
         }
 
+        // Map the audio frames, so that they can be read from any position
+        audioSource = new AudioSource(wavFile, frameSize);
+
         // Do a pre-check on whether playback is allowed
-        // (This is to prevent the setup of operators in the `resetAudioStream()` method in `generateSamples()` when it
+        // (This is to allow the setup of operators in the `resetAudioSource()` method in `generateSamples()` when it
         // is called)
         if (modes.contains(ProcessingMode.WITH_PLAYBACK)) withPlayback = true;
 
@@ -164,7 +169,7 @@ public class Audio extends LoggableClass {
 
             // Update out channels
             for (int i = 0; i < numChannels; i++) {
-                outChannels.add(new LinkedBlockingQueue<>(OUT_CHANNEL_CAPACITY * bytesPerSample));
+                outChannels.add(new ByteRingBuffer(OUT_CHANNEL_CAPACITY * bytesPerSample));
             }
         } else {
             sourceDataLine = null;
@@ -214,7 +219,10 @@ public class Audio extends LoggableClass {
 
         if (audioPlaybackThread.isStarted()) {
             seekToTime(timeToResumeAt);
-            paused = false;
+            synchronized (pauseLock) {
+                paused = false;
+                pauseLock.notifyAll();  // Wake up the playback thread
+            }
         } else {
             updatePlaybackVolume(volume);
             sourceDataLine.start();
@@ -229,8 +237,8 @@ public class Audio extends LoggableClass {
         timeToResumeAt = getCurrentTime();
 
         paused = true;
+        clearRequested = true;  // Cleared by the playback thread, since it owns the operators
         sourceDataLine.flush();
-        clearChannelsBuffers();
     }
 
     /**
@@ -238,38 +246,37 @@ public class Audio extends LoggableClass {
      */
     public void stop() {
         if (!withPlayback) throw new PlaybackNotSupportedException();
-        try {
-            // Halt all threads
-            audioPlaybackThread.interrupt();
-            if (sourceDataLine != null) {
-                sourceDataLine.drain();
-                sourceDataLine.close();
-            }
-            if (audioStream != null) audioStream.close();
-            paused = false;
 
-            // Stop and clear all operators' stuff
-            resetOperators();
-            clearChannelsBuffers();
+        // Halt the playback thread, and wait for it to finish so that it no longer uses the operators
+        audioPlaybackThread.interrupt();
+        if (audioPlaybackThread.isStarted()) {
+            try {
+                audioPlaybackThread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
 
-        } catch (IOException e) {
-            throw new RuntimeException(e);
+        if (sourceDataLine != null) {
+            sourceDataLine.drain();
+            sourceDataLine.close();
         }
+        paused = false;
+
+        // Stop and clear all operators' stuff
+        resetOperators();
+        clearChannelsBuffers();
     }
 
     /**
-     * Method that seeks the audio to the new time.
+     * Method that seeks the audio to the new time.<br>
+     * The audio frames are read directly from the new position, so this takes the same time
+     * wherever the new time is.
      *
      * @param seekTime Time to seek the audio to.
      */
     public void seekToTime(double seekTime) {
-        // If the current time is earlier than the seek time, we want to seek forwards
-        double currTime = getCurrentTime();
-        if (currTime < seekTime) {
-            seekForwards(seekTime - currTime);
-        } else {  // Want to seek to earlier part of audio; seek backwards
-            seekBackwards(seekTime);
-        }
+        audioSource.setFramePosition((long) (seekTime * frameRate));
 
         // Update times
         prevCurrTime = seekTime;
@@ -311,7 +318,7 @@ public class Audio extends LoggableClass {
         prevCurrTime = 0;
         prevElapsedTime = 0;
         setupSourceDataLine();
-        resetAudioStream();
+        resetAudioSource();
         setAudioPlaybackThread();
     }
 
@@ -462,26 +469,6 @@ public class Audio extends LoggableClass {
         return smallSample;
     }
 
-    /**
-     * Method that operators are to answer to, once they have processed the required data.
-     *
-     * @param channelNum Audio channel number.
-     * @param reply      Reply from the operator.
-     */
-    public void answer(int channelNum, double[] reply) {
-        BlockingQueue<Byte> queue = outChannels.get(channelNum);
-        try {
-            byte[] replyBytes = AudioHelpers.packBytes(
-                    TypeConversionUtils.doubleArrayToFloatArray(reply), bitsPerSample, audioFormat
-            );
-            for (Byte b : replyBytes) {
-                queue.put(b);
-            }
-        } catch (InterruptedException e) {
-            logException(e);
-        }
-    }
-
     // Private methods
 
     /**
@@ -512,18 +499,11 @@ public class Audio extends LoggableClass {
     }
 
     /**
-     * Helper method that resets the audio stream to the beginning.
+     * Helper method that resets the audio source to the beginning.
      */
-    private void resetAudioStream() {
-        if (audioStream != null) {
-            try {
-                audioStream.close();
-                audioStream = AudioSystem.getAudioInputStream(new BufferedInputStream(new FileInputStream(wavFile)));
-                if (withPlayback) setupOperators();
-            } catch (Exception e) {
-                e.printStackTrace();
-            }
-        }
+    private void resetAudioSource() {
+        audioSource.setFramePosition(0);
+        if (withPlayback) setupOperators();
     }
 
     /**
@@ -543,138 +523,173 @@ public class Audio extends LoggableClass {
     }
 
     /**
-     * Helper method that sets the audio playback thread.
+     * Helper method that sets the audio playback thread.<br>
+     * The playback thread drives the whole processing graph: it reads blocks of audio, inputs each
+     * channel's samples to that channel's operator, pulls the processed samples out of the
+     * operators, and writes them to the source data line. Writing to the source data line blocks
+     * until it has room, which paces the thread; while the audio is paused, the thread waits
+     * without using the CPU.
      */
     private void setAudioPlaybackThread() {
-        Audio audio = this;
-
         audioPlaybackThread = new StoppableThread() {
             // Get playback buffer size
             final int playbackBufferSize = DataFiles.SETTINGS_DATA_FILE.data.playbackBufferSize;
             final byte[] bufferBytes = new byte[playbackBufferSize * bytesPerSample];
             int numBytesRead;
 
+            // Buffers that the processed samples of each channel are placed in
+            final float[] channelSamples = new float[playbackBufferSize];
+            final float[] processedSamples = new float[Operator.OUTPUT_BUFFER_CAPACITY];
+            final byte[] processedBytes = new byte[Operator.OUTPUT_BUFFER_CAPACITY * bytesPerSample];
+            final int outSegmentLength = OUT_SEGMENT_LENGTH * bytesPerSample;
+            final ArrayList<byte[]> outputSegments = new ArrayList<>();
+
             @Override
             public void runner() {
                 try {
-                    boolean readThisIteration = true;
                     while (running.get()) {
-                        if (!paused) {
-                            if (readThisIteration) {
-                                // Read bytes from audio stream
-                                if (numBytesRead != -1) numBytesRead = audioStream.read(bufferBytes);
-
-                                // Separate into channels
-                                ArrayList<byte[]> channels = new ArrayList<>();
-                                for (int i = 0; i < numChannels; i++) {
-                                    channels.add(extractChannel(bufferBytes, i));
-                                }
-
-                                // Call operators to work on the channels' data
-                                for (int i = numChannels - 1; i >= 0; i--) {
-                                    byte[] data = channels.get(i);
-                                    float[] samplesAsFloats = AudioHelpers.unpackBytes(
-                                            data,
-                                            numBytesRead / numChannels,
-                                            bitsPerSample,
-                                            audioFormat
-                                    );
-                                    channelOperators.get(i).call(
-                                            audio, i, TypeConversionUtils.floatArrayToDoubleArray(samplesAsFloats)
-                                    );
-                                }
-                            }
-
-                            // Check if enough data is in `outChannels`
-                            int outSegmentLength = OUT_SEGMENT_LENGTH * bytesPerSample;
-                            boolean enoughData = true;
-                            for (BlockingQueue<Byte> bq : outChannels) {
-                                if (bq.size() < outSegmentLength) {
-                                    enoughData = false;
-                                    break;
-                                }
+                        // Wait until the audio is resumed
+                        if (paused) {
+                            synchronized (pauseLock) {
+                                while (paused && running.get()) pauseLock.wait();
                             }
+                            continue;
+                        }
 
-                            // If enough, interleave processed samples and write to source data line
-                            if (enoughData) {
-                                ArrayList<byte[]> outputSegments = new ArrayList<>();
-                                for (BlockingQueue<Byte> bq : outChannels) {
-                                    byte[] segment = new byte[outSegmentLength];
-                                    for (int i = 0; i < segment.length; i++) {
-                                        segment[i] = bq.take();
-                                    }
-                                    outputSegments.add(segment);
-                                }
-                                byte[] interleavedChannels = interleaveChannels(outputSegments);
-                                sourceDataLine.write(interleavedChannels, 0, interleavedChannels.length);
-                            }
+                        if (clearRequested) {
+                            clearRequested = false;
+                            clearChannelsBuffers();
+                        }
 
-                            // Determine if we read this iteration
-                            readThisIteration = true;
-                            for (Operator op : channelOperators) {
-                                if (op.remainingCapacity() < bufferBytes.length / bytesPerSample / numChannels) {
-                                    readThisIteration = false;
-                                    break;
-                                }
-                            }
+                        // Render the next segment of each channel, halting once all the audio is played
+                        if (!renderSegments()) break;
+                        if (paused) continue;  // Segments are out of date
 
-                            // Halt if we read no more bytes and there is no more bytes to process
-                            if (numBytesRead == -1 && !enoughData && !readThisIteration) break;
-                        }
+                        // Interleave the segments and write them to the source data line
+                        byte[] interleavedChannels = interleaveChannels(outputSegments);
+                        sourceDataLine.write(interleavedChannels, 0, interleavedChannels.length);
                     }
                 } catch (InterruptedException e) {
                     Thread.currentThread().interrupt();
-                } catch (IOException e) {
-                    logException(e);
                 }
             }
-        };
-    }
 
-    /**
-     * Generates the audio sample data from the provided audio file.
-     */
-    private void generateSamples() {
-        try {
-            // Get the number of bytes that corresponds to each sample
-            final int bytesPerSample = AudioHelpers.numBytesForNumBits(audioFormat.getSampleSizeInBits());
-
-            // Get the total number of samples
-            numRawSamples = audioStream.available() / bytesPerSample;
-
-            // Calculate the number of samples needed for each window
-            int numSamplesPerBuffer = SAMPLES_BUFFER_SIZE * numChannels;
-            int numBuffers = MathUtils.ceilDiv(numRawSamples, numSamplesPerBuffer);
+            /**
+             * Pulls samples through the channel operators until every out channel holds a full
+             * segment, and then reads one segment of each out channel into
+             * <code>outputSegments</code>.
+             *
+             * @return <code>false</code> if the audio ended before a full segment of each channel
+             * could be rendered.
+             */
+            private boolean renderSegments() {
+                while (!hasSegmentInAllChannels()) {
+                    // Only read more audio once the operators cannot produce anything else
+                    if (processChannels()) continue;
+                    if (numBytesRead == -1) return false;
+                    readBlock();
+                }
 
-            // Define helper arrays
-            byte[] bytes = new byte[numSamplesPerBuffer * bytesPerSample];
-            float[] finalSamples = new float[numBuffers * numSamplesPerBuffer];  // Stores the final samples
+                while (outputSegments.size() < outChannels.size()) {
+                    outputSegments.add(new byte[outSegmentLength]);
+                }
+                for (int i = 0; i < outChannels.size(); i++) {
+                    byte[] segment = outputSegments.get(i);
+                    int numSegmentBytesRead = outChannels.get(i).read(segment, 0, outSegmentLength);
+                    Arrays.fill(segment, numSegmentBytesRead, outSegmentLength, (byte) 0);  // If cleared
+                }
+                return true;
+            }
 
-            // Get samples
-            int numBytesRead;
-            int cycleNum = 0;  // Number of times we read from the audio stream
-            while ((numBytesRead = audioStream.read(bytes)) != -1) {
-                // Unpack the bytes into samples
-                float[] samples = AudioHelpers.unpackBytes(bytes, numBytesRead, bitsPerSample, audioFormat);
+            /**
+             * Checks if every out channel holds at least a full segment.
+             *
+             * @return Whether every out channel holds a segment.
+             */
+            private boolean hasSegmentInAllChannels() {
+                for (ByteRingBuffer outChannel : outChannels) {
+                    if (outChannel.size() < outSegmentLength) return false;
+                }
+                return true;
+            }
 
-                // Add it to the master list of samples
-                if (numBytesRead / bytesPerSample >= 0) {
-                    System.arraycopy(samples, 0, finalSamples, cycleNum * numSamplesPerBuffer,
-                            numBytesRead / bytesPerSample);
+            /**
+             * Processes one block of each channel, and writes the processed samples to the
+             * channel's out channel.<br>
+             * All channels are processed in lockstep, so their out channels hold the same number of
+             * samples.
+             *
+             * @return Whether any channel produced processed samples.
+             */
+            private boolean processChannels() {
+                boolean producedSamples = false;
+                for (int i = 0; i < numChannels; i++) {
+                    int numProcessedSamples = channelOperators.get(i).process(processedSamples);
+                    if (numProcessedSamples > 0) {
+                        AudioHelpers.packBytes(
+                                processedSamples, 0, numProcessedSamples, processedBytes, 0, bytesPerSample,
+                                bitsPerSample, audioFormat
+                        );
+                        outChannels.get(i).write(processedBytes, 0, numProcessedSamples * bytesPerSample);
+                        producedSamples = true;
+                    }
                 }
+                return producedSamples;
+            }
 
-                cycleNum++;
+            /**
+             * Reads the next block of audio, and inputs each channel's samples to its operator.<br>
+             * Each channel's samples are unpacked directly from the interleaved frames.<br>
+             * This is only called once the operators cannot produce anything else, at which point
+             * their input buffers have space for a whole block.
+             */
+            private void readBlock() {
+                numBytesRead = audioSource.read(bufferBytes);
+                if (numBytesRead <= 0) return;
+
+                int numFramesRead = numBytesRead / frameSize;
+                for (int i = 0; i < numChannels; i++) {
+                    AudioHelpers.unpackBytes(
+                            bufferBytes, i * bytesPerSample, frameSize, channelSamples, 0, numFramesRead,
+                            bitsPerSample, audioFormat
+                    );
+                    channelOperators.get(i).call(channelSamples, numFramesRead);
+                }
             }
+        };
+    }
 
-            // Shorten the `finalSamples` array to fit the required size
-            finalSamples = Arrays.copyOf(finalSamples, numRawSamples);
+    /**
+     * Generates the audio sample data from the provided audio file.<br>
+     * The frames are read directly from the audio source, one buffer at a time, and unpacked
+     * straight into the raw audio samples array.
+     */
+    private void generateSamples() {
+        try {
+            // Get the total number of samples
+            long numFrames = audioSource.getNumFrames();
+            numRawSamples = (int) (numFrames * numChannels);
 
             // Convert everything to double and place it into the raw audio samples array
             // (We convert to double because most signal processing algorithms here use doubles)
             rawSamples = new double[numRawSamples];
 
-            for (int i = 0; i < numRawSamples; i++) {
-                rawSamples[i] = finalSamples[i];
+            byte[] bytes = new byte[SAMPLES_BUFFER_SIZE * frameSize];
+            float[] samples = new float[SAMPLES_BUFFER_SIZE * numChannels];
+            int numFramesRead;
+            for (long frame = 0; frame < numFrames; frame += numFramesRead) {
+                // Unpack the bytes into samples, keeping the channels interleaved
+                numFramesRead = audioSource.readFrames(frame, bytes, 0, SAMPLES_BUFFER_SIZE);
+                int numSamplesRead = numFramesRead * numChannels;
+                AudioHelpers.unpackBytes(
+                        bytes, 0, bytesPerSample, samples, 0, numSamplesRead, bitsPerSample, audioFormat
+                );
+
+                // Add it to the master list of samples
+                int offset = (int) (frame * numChannels);
+                for (int i = 0; i < numSamplesRead; i++) {
+                    rawSamples[offset + i] = samples[i];
+                }
             }
         } catch (Exception e) {
             e.printStackTrace();
@@ -698,69 +713,10 @@ public class Audio extends LoggableClass {
                 System.arraycopy(rawSamples, 0, monoSamples, 0, numRawSamples);
             }
 
-            resetAudioStream();
+            resetAudioSource();
         }
     }
 
-    /**
-     * Helper method that assists with skipping forwards in the audio.
-     *
-     * @param secondsToSkip Number of seconds to skip forwards from the current position.
-     * @implNote Adapted from <a href="https://stackoverflow.com/a/52596824">this StackOverflow
-     * answer</a>.
-     */
-    private void seekForwards(double secondsToSkip) {
-        // Compute the number of bytes to skip
-        long bytesToSkip = (long) (frameSize * frameRate * secondsToSkip);
-
-        // Now skip until the correct number of bytes have been skipped
-        try {
-            long justSkipped;
-            while (bytesToSkip > 0 && (justSkipped = audioStream.skip(bytesToSkip)) > 0) {
-                bytesToSkip -= justSkipped;
-            }
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
-    }
-
-    /**
-     * Helper method that assists with seeking backwards in the audio.
-     *
-     * @param timeToSeekTo Time to seek to in the audio.
-     */
-    private void seekBackwards(double timeToSeekTo) {
-        resetAudioStream();
-        seekForwards(timeToSeekTo);
-    }
-
-    /**
-     * Helper method that extracts the bytes for a specific channel.
-     *
-     * @param rawBytes   The raw bytes that were read from the audio stream.
-     * @param channelNum The channel number to extract.
-     * @return Bytes belonging to that channel.
-     */
-    private byte[] extractChannel(byte[] rawBytes, int channelNum) {
-        if (numChannels == 1) return rawBytes;
-
-        byte[] output = new byte[rawBytes.length / numChannels];
-        int bytePosition = 0;
-        int outIndex = 0;
-        for (byte datum : rawBytes) {
-            if (bytePosition >= channelNum * bytesPerSample &&
-                    bytePosition < (channelNum + numChannels - 1) * bytesPerSample) {
-                output[outIndex] = datum;
-                outIndex++;
-            }
-            bytePosition++;
-            if (bytePosition == numChannels * bytesPerSample) {
-                bytePosition = 0;
-            }
-        }
-        return output;
-    }
-
     /**
      * Interleave the different channels' bytes into one singular byte array.
      *
@@ -800,7 +756,6 @@ public class Audio extends LoggableClass {
                         1., SLOWDOWN_PROCESSING_LENGTH, SLOWDOWN_ANALYSIS_LENGTH, SLOWDOWN_WINDOW
                 );
                 channelOperators.add(op);
-                new Thread(op).start();
             }
         }
     }
@@ -809,7 +764,6 @@ public class Audio extends LoggableClass {
      * Helper method that resets all the operators.
      */
     private void resetOperators() {
-        for (Operator op : channelOperators) op.stop();
         channelOperators.clear();
     }
 
@@ -818,7 +772,7 @@ public class Audio extends LoggableClass {
      * This clears both the out channels' queues as well as the channel operators' buffers.
      */
     private void clearChannelsBuffers() {
-        for (BlockingQueue<Byte> bq : outChannels) bq.clear();
+        for (ByteRingBuffer outChannel : outChannels) outChannel.clear();
         for (Operator op : channelOperators) op.clearBuffers();
     }
 
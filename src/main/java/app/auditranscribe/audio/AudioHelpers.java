@@ -23,13 +23,25 @@ import app.auditranscribe.misc.ExcludeFromGeneratedCoverageReport;
 import app.auditranscribe.signal.resampling_filters.Filter;
 
 import javax.sound.sampled.AudioFormat;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
 import java.security.InvalidParameterException;
+import java.util.Arrays;
 
 /**
  * Helper methods used in the <code>audio</code> package.
  */
 @ExcludeFromGeneratedCoverageReport
 public final class AudioHelpers {
+    // Constants
+    private static final VarHandle SHORT_LE = MethodHandles.byteArrayViewVarHandle(
+            short[].class, ByteOrder.LITTLE_ENDIAN
+    );
+    private static final VarHandle SHORT_BE = MethodHandles.byteArrayViewVarHandle(short[].class, ByteOrder.BIG_ENDIAN);
+    private static final VarHandle INT_LE = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle INT_BE = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+
     private AudioHelpers() {
         // Private constructor to signal this is a utility class
     }
@@ -127,109 +139,92 @@ public final class AudioHelpers {
      * @param bitsPerSample Sample size in bits.
      * @param audioFormat   Format of the audio.
      * @return Array that stores the audio samples.
-     * @implNote See the <a href="https://tinyurl.com/stefanSpectrogramOriginal">original
-     * implementation on GitHub</a>. This code was largely adapted from that source.
      */
     public static float[] unpackBytes(
             byte[] bytes, int numValidBytes, int bitsPerSample, AudioFormat audioFormat
     ) {
-        // Calculate the number of bytes needed to store each sample
         int bytesPerSample = numBytesForNumBits(bitsPerSample);
-
-        // Declare the samples array
         float[] samples = new float[bytes.length / bytesPerSample];
+        unpackBytes(
+                bytes, 0, bytesPerSample, samples, 0, numValidBytes / bytesPerSample, bitsPerSample, audioFormat
+        );
+        return samples;
+    }
 
-        // Check if we need to process the `samples` array
+    /**
+     * Unpacks raw audio bytes into audio sample data, normalised to the interval [-1, 1].<br>
+     * The samples are read <code>stride</code> bytes apart, so one channel of interleaved audio can
+     * be unpacked directly by starting at that channel's offset in the first frame and using the
+     * frame size as the stride.<br>
+     * Each common sample format (8, 16, 24 and 32 bits; signed or unsigned; little- or big-endian)
+     * is unpacked by its own loop, which reads each sample in one go.
+     *
+     * @param bytes         Array of bytes that is read in from the audio file.
+     * @param offset        Index of the first byte of the first sample.
+     * @param stride        Number of bytes from the start of one sample to the start of the next.
+     * @param samples       Array to place the audio samples in.
+     * @param samplesOffset Index of <code>samples</code> to place the first sample at.
+     * @param numSamples    Number of samples to unpack.
+     * @param bitsPerSample Sample size in bits.
+     * @param audioFormat   Format of the audio. If the encoding is not PCM, the samples are set
+     *                      to zero.
+     * @implNote See the <a href="https://tinyurl.com/stefanSpectrogramOriginal">original
+     * implementation on GitHub</a>, which the general method for other sample sizes was adapted
+     * from.
+     */
+    public static void unpackBytes(
+            byte[] bytes, int offset, int stride, float[] samples, int samplesOffset, int numSamples,
+            int bitsPerSample, AudioFormat audioFormat
+    ) {
+        // Check if the samples can be unpacked
         AudioFormat.Encoding encoding = audioFormat.getEncoding();
         if (encoding != AudioFormat.Encoding.PCM_SIGNED && encoding != AudioFormat.Encoding.PCM_UNSIGNED) {
-            // `samples` is already good; no need to process
-            return samples;
+            Arrays.fill(samples, samplesOffset, samplesOffset + numSamples, 0);
+            return;
         }
 
-        // Declare a transfer array for moving data within the function
-        long[] transfer = new long[samples.length];
-
-        /*
-         * This isn't the most DRY way to do this, but it's more efficient. The helper array `transfer` allows the logic
-         * to be split up without being too repetitive.
-         *
-         * There are two loops converting bytes to raw long samples. Integral primitives in Java get sign extended when
-         * they are promoted to a larger type, so the `& 0xffL` mask keeps them intact.
-         */
-        if (audioFormat.isBigEndian()) {
-            for (int i = 0, k = 0, b; i < numValidBytes; i += bytesPerSample, k++) {
-                // Reset the current element's value to zero, so what was originally in `transfer` doesn't matter
-                transfer[k] = 0L;
-
-                // Update transfer
-                int least = i + bytesPerSample - 1;
-                for (b = 0; b < bytesPerSample; b++) {
-                    transfer[k] |= (bytes[least - b] & 0xffL) << (8 * b);
+        // Unsigned samples are converted to signed samples by flipping their most significant bit
+        boolean isSigned = encoding == AudioFormat.Encoding.PCM_SIGNED;
+        int signFlip = isSigned ? 0 : 1 << (bitsPerSample - 1);
+
+        // Calculate scaling factor to normalize the samples to the interval [-1, 1]
+        float scale = 1f / (1L << (bitsPerSample - 1));
+
+        boolean isBigEndian = audioFormat.isBigEndian();
+        int end = samplesOffset + numSamples;
+
+        switch (bitsPerSample) {
+            case 8 -> {
+                for (int i = offset, k = samplesOffset; k < end; i += stride, k++) {
+                    samples[k] = (byte) (bytes[i] ^ signFlip) * scale;
                 }
             }
-        } else {
-            for (int i = 0, k = 0, b; i < numValidBytes; i += bytesPerSample, k++) {
-                // Reset the current element's value to zero, so what was originally in `transfer` doesn't matter
-                transfer[k] = 0L;
-
-                // Update transfer
-                for (b = 0; b < bytesPerSample; b++) {
-                    transfer[k] |= (bytes[i + b] & 0xffL) << (8 * b);
+            case 16 -> {
+                VarHandle view = isBigEndian ? SHORT_BE : SHORT_LE;
+                for (int i = offset, k = samplesOffset; k < end; i += stride, k++) {
+                    samples[k] = (short) ((short) view.get(bytes, i) ^ signFlip) * scale;
                 }
             }
-        }
-
-        // Calculate scaling factor to normalize the samples to the interval [-1, 1]
-        long fullScale = (long) Math.pow(2., bitsPerSample - 1);
-
-        // The OR is not quite enough to convert; signage needs to be corrected
-        if (encoding == AudioFormat.Encoding.PCM_SIGNED) {
-            /*
-             * If the samples were signed, they must be extended to the 64-bit long.
-             *
-             * The arithmetic right shift in Java will fill the left bits with 1's if the Most Significant Bit (MSB) is
-             * set, so sign extend by first shifting left so that if the sample is supposed to be negative, it will
-             * shift the sign bit in to the 64-bit MSB then shift back and fill with 1's.
-             *
-             * As an example, imagine these were 4-bit samples originally and the destination is 8-bit. If we have a
-             * hypothetical sample -5 that ought to be negative, the left shift looks like this:
-             *
-             *    00001011
-             * <<  (8 - 4)
-             * ===========
-             *    10110000
-             *
-             * (Except the destination is 64-bit and the original bit depth from the file could be anything.)
-             *
-             * And the right shift now fills with 1's:
-             *
-             *    10110000
-             * >>  (8 - 4)
-             * ===========
-             *    11111011
-             */
-
-            long signShift = 64L - bitsPerSample;
-            for (int i = 0; i < transfer.length; i++) {
-                transfer[i] = ((transfer[i] << signShift) >> signShift);
+            case 24 -> {
+                // Place the three bytes in the top of an integer, so that shifting back sign-extends it
+                int first = isBigEndian ? 0 : 2;
+                int last = 2 - first;
+                for (int i = offset, k = samplesOffset; k < end; i += stride, k++) {
+                    int sample = (bytes[i + first] << 24) | ((bytes[i + 1] & 0xff) << 16) |
+                            ((bytes[i + last] & 0xff) << 8);
+                    samples[k] = ((sample ^ (signFlip << 8)) >> 8) * scale;
+                }
             }
-        } else {
-            /*
-             * Unsigned samples are easier since they will be read correctly in to the long. So just sign them by
-             * subtracting `fullScale` (which equals `Math.pow(2., bitsPerSample - 1)`) so the center is 0.
-             */
-
-            for (int i = 0; i < transfer.length; i++) {
-                transfer[i] -= fullScale;
+            case 32 -> {
+                VarHandle view = isBigEndian ? INT_BE : INT_LE;
+                for (int i = offset, k = samplesOffset; k < end; i += stride, k++) {
+                    samples[k] = ((int) view.get(bytes, i) ^ signFlip) * scale;
+                }
             }
+            default -> unpackOtherBytes(
+                    bytes, offset, stride, samples, samplesOffset, numSamples, bitsPerSample, isSigned, isBigEndian
+            );
         }
-
-        // Finally, normalise range to [-1, 1]
-        for (int i = 0; i < transfer.length; i++) {
-            samples[i] = (float) transfer[i] / fullScale;
-        }
-
-        return samples;
     }
 
     /**
@@ -241,76 +236,79 @@ public final class AudioHelpers {
      * @return Audio bytes.
      */
     public static byte[] packBytes(float[] samples, int bitsPerSample, AudioFormat audioFormat) {
-        // Calculate the number of bytes needed to store each sample
         int bytesPerSample = numBytesForNumBits(bitsPerSample);
+        byte[] bytes = new byte[samples.length * bytesPerSample];
+        packBytes(samples, 0, samples.length, bytes, 0, bytesPerSample, bitsPerSample, audioFormat);
+        return bytes;
+    }
 
-        // Declare a transfer array for moving data within the function
-        long[] transfer = new long[samples.length];
-
-        // Calculate scaling factor to normalize the samples to the interval [-1, 1]
-        long fullScale = (long) Math.pow(2., bitsPerSample - 1);
-
-        // Un-normalize samples
-        for (int i = 0; i < transfer.length; i++) {
-            transfer[i] = (long) (samples[i] * fullScale);
-        }
-
-        // Fix signing
-        AudioFormat.Encoding encoding = audioFormat.getEncoding();
-
-        if (encoding == AudioFormat.Encoding.PCM_SIGNED) {
-            /*
-             * De-extend the samples by truncating the extension from the 64-bit long.
-             *
-             * The number of bits that were extended is `64L - bitsPerSample`. So there are that many unused bytes
-             * before the actual sample value. Hence, a bitwise 'and' with the number with `bitsPerSample` 1s at the end
-             * should yield the original sample.
-             *
-             * As an example, imagine these were 4-bit samples originally and the destination is 8-bit. If we have a
-             * hypothetical sample -5, the 'unpacked' value would be
-             *      11111011
-             *
-             * The mask that we will be considering has four 1's at the end
-             *      00001111
-             *
-             * so the original sample can be retrieved by performing a bitwise 'and':
-             *      11111011
-             *    & 00001111
-             * =============
-             *      00001011
-             */
-
-            long bitmask = (1L << bitsPerSample) - 1;  // Generate `bitsPerSample` 1s
-
-            for (int i = 0; i < transfer.length; i++) {
-                transfer[i] &= bitmask;  // Apply bitmask to each
+    /**
+     * Packs the provided samples into raw byte data.<br>
+     * This is the reverse of
+     * {@link #unpackBytes(byte[], int, int, float[], int, int, int, AudioFormat)}. Samples outside
+     * the interval [-1, 1] are clipped to the largest value that the sample size can hold.
+     *
+     * @param samples       Samples to pack into byte data.
+     * @param samplesOffset Index of the first sample to pack.
+     * @param numSamples    Number of samples to pack.
+     * @param bytes         Array to place the audio bytes in.
+     * @param offset        Index of <code>bytes</code> to place the first sample at.
+     * @param stride        Number of bytes from the start of one sample to the start of the next.
+     * @param bitsPerSample Sample size in bits.
+     * @param audioFormat   Format of the audio.
+     */
+    public static void packBytes(
+            float[] samples, int samplesOffset, int numSamples, byte[] bytes, int offset, int stride,
+            int bitsPerSample, AudioFormat audioFormat
+    ) {
+        // Signed samples are converted to unsigned samples by flipping their most significant bit
+        boolean isSigned = audioFormat.getEncoding() == AudioFormat.Encoding.PCM_SIGNED;
+        int signFlip = isSigned ? 0 : 1 << (bitsPerSample - 1);
+
+        // Calculate scaling factor to un-normalize the samples, and the range of the un-normalized samples
+        long fullScale = 1L << (bitsPerSample - 1);
+        float scale = fullScale;
+        int minValue = (int) Math.max(-fullScale, Integer.MIN_VALUE);
+        int maxValue = (int) Math.min(fullScale - 1, Integer.MAX_VALUE);
+
+        boolean isBigEndian = audioFormat.isBigEndian();
+        int end = samplesOffset + numSamples;
+
+        switch (bitsPerSample) {
+            case 8 -> {
+                for (int i = offset, k = samplesOffset; k < end; i += stride, k++) {
+                    int sample = Math.min(Math.max((int) (samples[k] * scale), minValue), maxValue);
+                    bytes[i] = (byte) (sample ^ signFlip);
+                }
             }
-        } else {
-            // Convert the signed values to unsigned values by adding the `fullScale` value
-            for (int i = 0; i < transfer.length; i++) {
-                transfer[i] += fullScale;
+            case 16 -> {
+                VarHandle view = isBigEndian ? SHORT_BE : SHORT_LE;
+                for (int i = offset, k = samplesOffset; k < end; i += stride, k++) {
+                    int sample = Math.min(Math.max((int) (samples[k] * scale), minValue), maxValue);
+                    view.set(bytes, i, (short) (sample ^ signFlip));
+                }
             }
-        }
-
-        // Convert the long values back into bytes
-        byte[] bytes = new byte[transfer.length * bytesPerSample];
-
-        if (audioFormat.isBigEndian()) {
-            for (int i = 0, k = 0, b; i < bytes.length; i += bytesPerSample, k++) {
-                int least = i + bytesPerSample - 1;
-                for (b = 0; b < bytesPerSample; b++) {
-                    bytes[least - b] = (byte) ((transfer[k] >> (8 * b)) & 0xffL);  // `0xffL` removes 'higher' values
+            case 24 -> {
+                int first = isBigEndian ? 0 : 2;
+                int last = 2 - first;
+                for (int i = offset, k = samplesOffset; k < end; i += stride, k++) {
+                    int sample = Math.min(Math.max((int) (samples[k] * scale), minValue), maxValue) ^ signFlip;
+                    bytes[i + first] = (byte) (sample >> 16);
+                    bytes[i + 1] = (byte) (sample >> 8);
+                    bytes[i + last] = (byte) sample;
                 }
             }
-        } else {
-            for (int i = 0, k = 0, b; i < bytes.length; i += bytesPerSample, k++) {
-                for (b = 0; b < bytesPerSample; b++) {
-                    bytes[i + b] = (byte) ((transfer[k] >> (8 * b)) & 0xffL);  // `0xffL` removes 'higher' values
+            case 32 -> {
+                // Casting to an integer already clips the sample to the integer range
+                VarHandle view = isBigEndian ? INT_BE : INT_LE;
+                for (int i = offset, k = samplesOffset; k < end; i += stride, k++) {
+                    view.set(bytes, i, (int) (samples[k] * scale) ^ signFlip);
                 }
             }
+            default -> packOtherBytes(
+                    samples, samplesOffset, numSamples, bytes, offset, stride, bitsPerSample, isSigned, isBigEndian
+            );
         }
-
-        return bytes;
     }
 
     // Miscellaneous public methods
@@ -404,4 +402,79 @@ public final class AudioHelpers {
             timeRegister += timeIncrement;
         }
     }
+
+    /**
+     * Helper method that unpacks samples whose size is not 8, 16, 24 or 32 bits.<br>
+     * The bytes of each sample are combined into a long, which is then sign-extended (for signed
+     * samples) or centred on zero (for unsigned samples).
+     *
+     * @param bytes         Array of bytes that is read in from the audio file.
+     * @param offset        Index of the first byte of the first sample.
+     * @param stride        Number of bytes from the start of one sample to the start of the next.
+     * @param samples       Array to place the audio samples in.
+     * @param samplesOffset Index of <code>samples</code> to place the first sample at.
+     * @param numSamples    Number of samples to unpack.
+     * @param bitsPerSample Sample size in bits.
+     * @param isSigned      Whether the samples are signed.
+     * @param isBigEndian   Whether the bytes of each sample are in big-endian order.
+     */
+    private static void unpackOtherBytes(
+            byte[] bytes, int offset, int stride, float[] samples, int samplesOffset, int numSamples,
+            int bitsPerSample, boolean isSigned, boolean isBigEndian
+    ) {
+        int bytesPerSample = numBytesForNumBits(bitsPerSample);
+        long fullScale = 1L << (bitsPerSample - 1);
+        long signShift = 64L - bitsPerSample;
+
+        for (int i = offset, k = samplesOffset; k < samplesOffset + numSamples; i += stride, k++) {
+            // Combine the bytes; the `& 0xffL` mask stops each byte from being sign-extended
+            long sample = 0L;
+            for (int b = 0; b < bytesPerSample; b++) {
+                int index = isBigEndian ? i + bytesPerSample - 1 - b : i + b;
+                sample |= (bytes[index] & 0xffL) << (8 * b);
+            }
+
+            // Shifting the sign bit to the top of the long and back fills the upper bits with it
+            if (isSigned) {
+                sample = (sample << signShift) >> signShift;
+            } else {
+                sample -= fullScale;
+            }
+
+            samples[k] = (float) sample / fullScale;
+        }
+    }
+
+    /**
+     * Helper method that packs samples whose size is not 8, 16, 24 or 32 bits.
+     *
+     * @param samples       Samples to pack into byte data.
+     * @param samplesOffset Index of the first sample to pack.
+     * @param numSamples    Number of samples to pack.
+     * @param bytes         Array to place the audio bytes in.
+     * @param offset        Index of <code>bytes</code> to place the first sample at.
+     * @param stride        Number of bytes from the start of one sample to the start of the next.
+     * @param bitsPerSample Sample size in bits.
+     * @param isSigned      Whether the samples are signed.
+     * @param isBigEndian   Whether the bytes of each sample are in big-endian order.
+     */
+    private static void packOtherBytes(
+            float[] samples, int samplesOffset, int numSamples, byte[] bytes, int offset, int stride,
+            int bitsPerSample, boolean isSigned, boolean isBigEndian
+    ) {
+        int bytesPerSample = numBytesForNumBits(bitsPerSample);
+        long fullScale = 1L << (bitsPerSample - 1);
+        long bitmask = (1L << bitsPerSample) - 1;  // Generate `bitsPerSample` 1s
+
+        for (int i = offset, k = samplesOffset; k < samplesOffset + numSamples; i += stride, k++) {
+            // Un-normalize the sample, and remove the sign extension (or offset unsigned samples)
+            long sample = Math.min(Math.max((long) (samples[k] * fullScale), -fullScale), fullScale - 1);
+            sample = isSigned ? sample & bitmask : sample + fullScale;
+
+            for (int b = 0; b < bytesPerSample; b++) {
+                int index = isBigEndian ? i + bytesPerSample - 1 - b : i + b;
+                bytes[index] = (byte) (sample >> (8 * b));
+            }
+        }
+    }
 }
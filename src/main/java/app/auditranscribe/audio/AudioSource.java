@@ -0,0 +1,194 @@
+/*
+ * AudioSource.java
+ * Description: Random-access source of PCM audio frames, backed by a memory-mapped WAV file.
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public Licence as published by the Free Software Foundation, either version 3 of the
+ * Licence, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public Licence for more details.
+ *
+ * You should have received a copy of the GNU General Public Licence along with this program. If
+ * not, see <https://www.gnu.org/licenses/>
+ *
+ * Copyright © AudiTranscribe Team
+ */
+
+package app.auditranscribe.audio;
+
+import javax.sound.sampled.UnsupportedAudioFileException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Random-access source of the PCM audio frames of a WAV file.<br>
+ * The data chunk of the WAV file is memory-mapped, so any frame can be read directly by its index
+ * without reading the frames before it. Seeking is therefore a constant-time operation.<br>
+ * The source also keeps a frame position for sequential reads (e.g., for playback). The position
+ * may be set from one thread while another thread reads sequentially.
+ */
+public class AudioSource {
+    // Constants
+    static final int RIFF_HEADER_LENGTH = 12;  // "RIFF", file size, "WAVE"
+    static final int CHUNK_HEADER_LENGTH = 8;  // Chunk ID, chunk size
+
+    // Attributes
+    private final MappedByteBuffer data;  // The data chunk, which holds the interleaved frames
+    private final int frameSize;
+    private final long numFrames;
+
+    private final AtomicLong framePosition = new AtomicLong(0);
+
+    /**
+     * Initializes a new <code>AudioSource</code> by memory-mapping the data chunk of a WAV file.
+     *
+     * @param wavFile   The WAV file.
+     * @param frameSize Number of bytes in each frame (i.e., one sample of every channel).
+     * @throws IOException                   If the file could not be read or mapped.
+     * @throws UnsupportedAudioFileException If the file is not a RIFF WAVE file, or if it has no
+     *                                       data chunk.
+     */
+    public AudioSource(File wavFile, int frameSize) throws IOException, UnsupportedAudioFileException {
+        this.frameSize = frameSize;
+
+        try (FileChannel channel = FileChannel.open(wavFile.toPath(), StandardOpenOption.READ)) {
+            // Check the RIFF header
+            ByteBuffer header = ByteBuffer.allocate(RIFF_HEADER_LENGTH).order(ByteOrder.LITTLE_ENDIAN);
+            channel.read(header, 0);
+            if (header.position() < RIFF_HEADER_LENGTH || header.getInt(0) != chunkID("RIFF") ||
+                    header.getInt(8) != chunkID("WAVE")) {
+                throw new UnsupportedAudioFileException("'" + wavFile + "' is not a RIFF WAVE file");
+            }
+
+            // Find the data chunk, and map it (as the mapping outlives the channel)
+            long[] dataChunk = findDataChunk(channel);
+            if (dataChunk == null) {
+                throw new UnsupportedAudioFileException("'" + wavFile + "' has no data chunk");
+            }
+            if (dataChunk[1] > Integer.MAX_VALUE) {
+                throw new IOException("Data chunk of '" + wavFile + "' is too large to be mapped");
+            }
+
+            numFrames = dataChunk[1] / frameSize;
+            data = channel.map(FileChannel.MapMode.READ_ONLY, dataChunk[0], numFrames * frameSize);
+        }
+    }
+
+    // Getter/setter methods
+
+    public int getFrameSize() {
+        return frameSize;
+    }
+
+    public long getNumFrames() {
+        return numFrames;
+    }
+
+    public long getFramePosition() {
+        return framePosition.get();
+    }
+
+    /**
+     * Sets the frame that the next sequential read starts from.
+     *
+     * @param framePosition Index of the frame. It is clamped to the interval
+     *                      <code>[0, numFrames]</code>.
+     */
+    public void setFramePosition(long framePosition) {
+        this.framePosition.set(Math.min(Math.max(framePosition, 0), numFrames));
+    }
+
+    // Public methods
+
+    /**
+     * Reads frames starting from the given frame index, without changing the frame position.
+     *
+     * @param startFrame Index of the first frame to read.
+     * @param dst        Array to copy the frames' bytes into.
+     * @param off        Index of <code>dst</code> to place the first byte at.
+     * @param maxFrames  Maximum number of frames to read.
+     * @return Number of frames that were read. This is less than <code>maxFrames</code> if the end
+     * of the audio is reached.
+     * @throws IndexOutOfBoundsException If <code>startFrame</code> is negative, or if
+     *                                   <code>dst</code> is too short.
+     */
+    public int readFrames(long startFrame, byte[] dst, int off, int maxFrames) {
+        if (startFrame < 0) throw new IndexOutOfBoundsException("Frame index " + startFrame + " is negative");
+
+        int numFramesToRead = (int) Math.max(0, Math.min(maxFrames, numFrames - startFrame));
+        data.get((int) (startFrame * frameSize), dst, off, numFramesToRead * frameSize);
+        return numFramesToRead;
+    }
+
+    /**
+     * Reads whole frames from the frame position into the array, and advances the frame position.
+     * <br>
+     * This mirrors {@link java.io.InputStream#read(byte[])}.
+     *
+     * @param dst Array to copy the frames' bytes into. As many whole frames as fit are read.
+     * @return Number of bytes read, or <code>-1</code> if the frame position is at the end of the
+     * audio.
+     */
+    public int read(byte[] dst) {
+        long startFrame = framePosition.get();
+        if (startFrame >= numFrames) return -1;
+
+        int numFramesRead = readFrames(startFrame, dst, 0, dst.length / frameSize);
+
+        // Only advance if the position was not changed (i.e., by a seek) during the read
+        framePosition.compareAndSet(startFrame, startFrame + numFramesRead);
+        return numFramesRead * frameSize;
+    }
+
+    // Private methods
+
+    /**
+     * Helper method that finds the data chunk of the WAV file.
+     *
+     * @param channel Channel to read the WAV file from.
+     * @return Array with the offset of the data chunk's contents in the file, followed by the
+     * length of those contents (excluding any part that is missing from the file). Returns
+     * <code>null</code> if there is no data chunk.
+     * @throws IOException If the file could not be read.
+     */
+    private static long[] findDataChunk(FileChannel channel) throws IOException {
+        long fileSize = channel.size();
+        ByteBuffer chunkHeader = ByteBuffer.allocate(CHUNK_HEADER_LENGTH).order(ByteOrder.LITTLE_ENDIAN);
+
+        long offset = RIFF_HEADER_LENGTH;
+        while (offset + CHUNK_HEADER_LENGTH <= fileSize) {
+            chunkHeader.clear();
+            channel.read(chunkHeader, offset);
+            if (chunkHeader.position() < CHUNK_HEADER_LENGTH) return null;
+
+            long chunkSize = Integer.toUnsignedLong(chunkHeader.getInt(4));
+            long contentsOffset = offset + CHUNK_HEADER_LENGTH;
+
+            if (chunkHeader.getInt(0) == chunkID("data")) {
+                return new long[]{contentsOffset, Math.min(chunkSize, fileSize - contentsOffset)};
+            }
+
+            offset = contentsOffset + chunkSize + (chunkSize & 1);  // Chunks are padded to an even length
+        }
+        return null;
+    }
+
+    /**
+     * Helper method that converts a four-character chunk ID into the integer that is read when the
+     * ID is read as a little-endian integer.
+     *
+     * @param id The chunk ID.
+     * @return Integer value of the chunk ID.
+     */
+    private static int chunkID(String id) {
+        return id.charAt(0) | (id.charAt(1) << 8) | (id.charAt(2) << 16) | (id.charAt(3) << 24);
+    }
+}
@@ -34,11 +34,7 @@ public class IdentityOperator extends TimeStretchOperator {
 
     // Public methods
     @Override
-    public double[] process() throws InterruptedException {
-        double[] output = new double[inputBuffer.size()];
-        for (int i = 0; i < output.length; i++) {
-            output[i] = inputBuffer.take();
-        }
-        return output;
+    public int process(float[] output) {
+        return inputBuffer.read(output, 0, output.length);
     }
 }
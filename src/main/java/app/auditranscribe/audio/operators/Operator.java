@@ -1,6 +1,6 @@
 /*
  * Operator.java
- * Description: An abstract thread that operates on streams of bytes.
+ * Description: An abstract processing node that operates on a stream of samples.
  *
  * This program is free software: you can redistribute it and/or modify it under the terms of the
  * GNU General Public Licence as published by the Free Software Foundation, either version 3 of the
@@ -18,70 +18,66 @@
 
 package app.auditranscribe.audio.operators;
 
-import app.auditranscribe.audio.Audio;
+import app.auditranscribe.generic.LoggableClass;
 import app.auditranscribe.misc.ExcludeFromGeneratedCoverageReport;
-import app.auditranscribe.misc.StoppableThread;
-
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
+import app.auditranscribe.misc.FloatRingBuffer;
 
 /**
- * An abstract thread that operates on streams of bytes.
+ * An abstract processing node that operates on a stream of samples.<br>
+ * Operators do not have threads of their own. The thread that renders the audio inputs samples to
+ * each operator using {@link #call(float[])}, and then pulls the processed samples out using
+ * {@link #process(float[])}, one block at a time. All the operator's methods should be called from
+ * that thread.
  */
 @ExcludeFromGeneratedCoverageReport
-public abstract class Operator extends StoppableThread {
-    // Attributes
-    protected BlockingQueue<Double> inputBuffer = new LinkedBlockingQueue<>(8192);
+public abstract class Operator extends LoggableClass {
+    // Constants
+    public static final int INPUT_BUFFER_CAPACITY = 8192;  // In number of samples
+    public static final int OUTPUT_BUFFER_CAPACITY = 8192;  // In number of samples
 
-    private volatile Audio caller = null;
-    private volatile int channelNum;
+    // Attributes
+    protected final FloatRingBuffer inputBuffer = new FloatRingBuffer(INPUT_BUFFER_CAPACITY);
 
     // Public methods
 
     /**
      * Method that processes the data.
      *
-     * @return Processed data.
+     * @param output Array to place the processed data in. It should have length
+     *               {@link #OUTPUT_BUFFER_CAPACITY}.
+     * @return Number of processed samples that were placed at the start of <code>output</code>.
+     * Returns 0 if more data needs to be input before anything can be processed.
      */
-    public abstract double[] process() throws InterruptedException;
+    public abstract int process(float[] output);
 
     /**
      * Inputs data to be processed.<br>
-     * If the operator's buffer is full, this will block the thread until space is available.
+     * This does not block. If the operator's buffer does not have enough space for all the data,
+     * only the data that fits is input; use {@link #remainingCapacity()} to check beforehand.
      *
-     * @param audio      Audio object to return the data to.
-     * @param channelNum Integer identifying the audio channel that the data came from.
-     * @param data       Data to be processed.
-     * @throws InterruptedException If the operator was interrupted.
+     * @param data Data to be processed.
+     * @return Number of samples that were input.
      */
-    public void call(Audio audio, int channelNum, double[] data) throws InterruptedException {
-        this.caller = audio;
-        this.channelNum = channelNum;
-        for (double f : data) {
-            inputBuffer.put(f);
-        }
+    public int call(float[] data) {
+        return call(data, data.length);
     }
 
-    @Override
-    public void runner() {
-        while (running.get()) {
-            if (caller != null) {
-                double[] output;
-                try {
-                    output = process();
-                    caller.answer(channelNum, output);
-                } catch (InterruptedException e) {
-                    logException(e);
-                    Thread.currentThread().interrupt();
-                }
-            }
-        }
+    /**
+     * Inputs the first <code>length</code> elements of <code>data</code> to be processed.<br>
+     * This does not block; see {@link #call(float[])}.
+     *
+     * @param data   Data to be processed.
+     * @param length Number of elements of <code>data</code> to input.
+     * @return Number of samples that were input.
+     */
+    public int call(float[] data, int length) {
+        return inputBuffer.write(data, 0, length);
     }
 
     /**
-     * Finds how many more elements could be added without blocking.
+     * Finds how many more elements could be input.
      *
-     * @return Capacity remaining before {@link #call(Audio, int, double[])} will block.
+     * @return Capacity remaining before {@link #call(float[])} will not accept all the data.
      */
     public int remainingCapacity() {
         return inputBuffer.remainingCapacity();
@@ -18,19 +18,19 @@
 
 package app.auditranscribe.audio.operators;
 
-import app.auditranscribe.misc.CapacityQueue;
-import app.auditranscribe.misc.Complex;
 import app.auditranscribe.misc.ExcludeFromGeneratedCoverageReport;
-import app.auditranscribe.signal.representations.FFT;
+import app.auditranscribe.signal.representations.FFTPlan;
 import app.auditranscribe.signal.windowing.SignalWindow;
 import app.auditranscribe.utils.ArrayUtils;
 import app.auditranscribe.utils.MathUtils;
 
 import java.util.Arrays;
-import java.util.LinkedList;
 
 /**
- * Phase vocoder operator that operates on audio bytes.
+ * Phase vocoder operator that operates on audio bytes.<br>
+ * All the buffers that the operator needs are allocated when it is created. The input samples and
+ * the overlap-added output samples are kept in circular buffers, and the FFTs are computed in-place
+ * on split real and imaginary arrays, so that processing a hop does not allocate any memory.
  *
  * @implNote Implementation largely adapted from Grant Oakley's
  * <code>TimeStretchOperator.java</code> file from the <code>phase-vocoder-java</code> project,
@@ -43,17 +43,30 @@ public class PhaseVocoderOperator extends TimeStretchOperator {
     // Attributes
     private final int processingLength;
     private final int analysisLength;
-    private final SignalWindow windowFunction;
 
     private int analysisOutputSize;
     private double samplesStretchFactor;  // Slightly different to `stretchFactor`; this is for discrete stretching
 
+    private final double[] window;
+    private final FFTPlan fftPlan;
+
     double[] prevPhases;
+    double[] currPhases;
     double[] phaseAdvance;  // Expected phase advance
     double[] principalAdjustedPhases;
 
-    private final CapacityQueue<Double> input;
-    private final CapacityQueue<Double> output;
+    private final float[] newSamples;  // Samples read from the input buffer in one hop
+    private final double[] input;      // Circular buffer of the last `processingLength` input samples
+    private int inputStart = 0;        // Index of the oldest sample in `input`
+    private int numInputSamples = 0;
+
+    private final double[] output;  // Circular buffer of the overlap-added output samples
+    private int outputStart = 0;    // Index of the next sample of `output` to be returned
+
+    private final double[] fftReal;
+    private final double[] fftImag;
+    private final double[] scratchReal;
+    private final double[] scratchImag;
 
     /**
      * Initializes a new phase vocoder operator.
@@ -69,115 +82,99 @@ public class PhaseVocoderOperator extends TimeStretchOperator {
         super(stretchFactor);
         this.processingLength = processingLength;
         this.analysisLength = analysisLength;
-        this.windowFunction = windowFunction;
+
+        window = windowFunction.window.generateWindow(processingLength, false);
+        fftPlan = FFTPlan.getPlan(processingLength);
 
         prevPhases = new double[processingLength];
+        currPhases = new double[processingLength];
         principalAdjustedPhases = new double[processingLength];
         phaseAdvance = ArrayUtils.linspace(0, analysisLength * Math.PI, processingLength);
 
-        input = new CapacityQueue<>(processingLength);
-        output = new CapacityQueue<>(processingLength);
+        newSamples = new float[processingLength];
+        input = new double[processingLength];
+        output = new double[processingLength];
 
-        // Fill in output buffer
-        for (int i = 0; i < output.getMaxSize(); i++) {
-            output.offer(0.);
-        }
+        fftReal = new double[processingLength];
+        fftImag = new double[processingLength];
+        scratchReal = new double[fftPlan.getScratchLength()];
+        scratchImag = new double[fftPlan.getScratchLength()];
     }
 
     // Public methods
     @Override
-    public double[] process() throws InterruptedException {
+    public int process(float[] processedSamples) {
         // Check that we have enough to process
         if (inputBuffer.size() < processingLength) {
-            return new double[0];
+            return 0;
         }
 
         // Update attributes for this loop
-        this.analysisOutputSize = (int) (stretchFactor * analysisLength);
+        // (The output of a hop cannot be longer than the overlap-add buffer)
+        this.analysisOutputSize = Math.min(
+                (int) (stretchFactor * analysisLength), Math.min(processingLength, processedSamples.length)
+        );
         this.samplesStretchFactor = (double) analysisOutputSize / analysisLength;
 
-        // Get the next set of samples
-        double[] rawSamples = getNextSample();
-        if (rawSamples == null) return new double[0];
-
-        // Window the samples
-        double[] windowedSamples = windowSamples(rawSamples);
+        // Get the next set of samples, and window them
+        if (!readNextSamples()) return 0;
+        windowInput();
 
         // Shift samples for the FFT so that FFT application would be 'smoother'
-        fftShift(windowedSamples);
+        fftShift(fftReal);
 
         // Time stretch the windowed samples
-        double[] stretchedSamples = timeStretchSamples(windowedSamples);
+        timeStretchSamples();
 
-        // Overlap-add and slide the samples
-        LinkedList<Double> finishedSamples = overlapAddAndSlide(stretchedSamples);
-
-        // Correct scaling due to overlap-add
-        double[] finalOutput = new double[finishedSamples.size()];
-        double overlapScaling = (double) processingLength / (analysisOutputSize * 2.);
-        for (int i = 0; i < finalOutput.length; i++) {
-            Double val = finishedSamples.poll();
-            finalOutput[i] = (val == null ? 0 : val) / overlapScaling;
-        }
-        return finalOutput;
+        // Overlap-add and slide the samples, correcting the scaling due to overlap-add
+        return overlapAddAndSlide(processedSamples);
     }
 
     @Override
     public void clearBuffers() {
         super.clearBuffers();
-        input.clear();
-        output.clear();
+        numInputSamples = 0;
+        Arrays.fill(output, 0);
     }
 
     // Private methods
 
     /**
-     * Obtains the next sample window from the <code>input</code> buffer.
+     * Reads the next samples from the input buffer into the <code>input</code> circular buffer.
      *
-     * @return An array of doubles, representing the sample window.
-     * @throws InterruptedException If the process was interrupted whilst reading from the input buffer.
+     * @return <code>true</code> if <code>input</code> now holds a full sample window, and
+     * <code>false</code> if the input buffer was cleared while it was being read.
      */
-    private double[] getNextSample() throws InterruptedException {
-        if (input.size() == 0) {
-            while (input.size() < processingLength) {
-                input.offer(inputBuffer.take());
-            }
-        } else {
-            // We take `analysisLength` more doubles because that's how many are being processed each shot
-            for (int i = 0; i < analysisLength; i++) {
-                input.offer(inputBuffer.take());
-            }
+    private boolean readNextSamples() {
+        // We take `analysisLength` more samples because that's how many are being processed each shot
+        int numNewSamples = numInputSamples == 0 ? processingLength : analysisLength;
+        if (inputBuffer.read(newSamples, 0, numNewSamples) != numNewSamples) {
+            numInputSamples = 0;
+            return false;
         }
 
-        // Just in case, make sure the input size is the correct length
-        if (input.size() != processingLength) return null;
-
-        // Convert the input list into an array
-        Double[] doubleSamples = input.toArray(new Double[0]);
-        double[] samples = new double[doubleSamples.length];
-        for (int i = 0; i < samples.length; i++) {
-            samples[i] = (doubleSamples[i] == null ? 0 : doubleSamples[i]);
+        // Overwrite the oldest samples with the new ones
+        for (int i = 0; i < numNewSamples; i++) {
+            input[inputStart] = newSamples[i];
+            inputStart = inputStart + 1 == processingLength ? 0 : inputStart + 1;
         }
-
-        return samples;
+        numInputSamples = processingLength;
+        return true;
     }
 
     /**
-     * Windows the samples using the operator's window function.
-     *
-     * @param samples The samples to window.
-     * @return Windowed samples.
+     * Windows the samples in the <code>input</code> circular buffer (oldest first) into the FFT
+     * arrays.
      */
-    private double[] windowSamples(double[] samples) {
-        // Generate the window array
-        double[] window = windowFunction.window.generateWindow(processingLength, false);
-
-        // Window the samples
-        double[] windowedSamples = new double[samples.length];
-        for (int i = 0; i < samples.length; i++) {
-            windowedSamples[i] = samples[i] * window[i];
+    private void windowInput() {
+        int numBeforeWrap = processingLength - inputStart;
+        for (int i = 0; i < numBeforeWrap; i++) {
+            fftReal[i] = input[inputStart + i] * window[i];
         }
-        return windowedSamples;
+        for (int i = numBeforeWrap; i < processingLength; i++) {
+            fftReal[i] = input[i - numBeforeWrap] * window[i];
+        }
+        Arrays.fill(fftImag, 0);
     }
 
     /**
@@ -210,82 +207,73 @@ public class PhaseVocoderOperator extends TimeStretchOperator {
     }
 
     /**
-     * Time stretches the input samples.
-     *
-     * @param samples Samples to time stretch.
-     * @return Time-stretched samples.
+     * Time stretches the windowed samples in the FFT arrays <b>in-place</b>.<br>
+     * Afterwards, <code>fftReal</code> holds the time-stretched samples.
      */
-    private double[] timeStretchSamples(double[] samples) {
+    private void timeStretchSamples() {
         // Apply FFT to samples
-        Complex[] complexes = new Complex[samples.length];
-        for (int i = 0; i < samples.length; i++) {
-            complexes[i] = new Complex(samples[i]);
-        }
-        Complex[] fftOut = FFT.fft(complexes);
-
-        // Obtain magnitudes and phases
-        double[] mags = new double[fftOut.length];
-        double[] phases = new double[fftOut.length];
+        fftPlan.transform(fftReal, fftImag, scratchReal, scratchImag);
 
-        for (int i = 0; i < fftOut.length; i++) {
-            mags[i] = fftOut[i].abs();
-            phases[i] = fftOut[i].phase();
-        }
-
-        // Compute change in phase
-        double[] phaseDelta = new double[processingLength];
+        // Obtain the phases, compute the change in phase, and update the phases of the elements
         for (int i = 0; i < processingLength; i++) {
-            double diff = phases[i] - prevPhases[i] - phaseAdvance[i];
-            phaseDelta[i] = phaseAdvance[i] + MathUtils.principalArg(diff);
+            double mag = Math.hypot(fftReal[i], fftImag[i]);
+            double phase = Math.atan2(fftImag[i], fftReal[i]);
+            currPhases[i] = phase;
+
+            double diff = phase - prevPhases[i] - phaseAdvance[i];
+            double phaseDelta = phaseAdvance[i] + MathUtils.principalArg(diff);
             principalAdjustedPhases[i] = MathUtils.principalArg(
-                    principalAdjustedPhases[i] + phaseDelta[i] * samplesStretchFactor
+                    principalAdjustedPhases[i] + phaseDelta * samplesStretchFactor
             );
-        }
 
-        // Update phases of the elements
-        for (int i = 0; i < fftOut.length; i++) {
-            fftOut[i] = Complex.fromMagnitudeAndPhase(mags[i], principalAdjustedPhases[i]);
+            fftReal[i] = mag * Math.cos(principalAdjustedPhases[i]);
+            fftImag[i] = mag * Math.sin(principalAdjustedPhases[i]);
         }
 
-        // Invert the FFT and retrieve real parts
-        complexes = FFT.ifft(fftOut);
-        double[] modified = new double[complexes.length];
-        for (int i = 0; i < modified.length; i++) {
-            modified[i] = complexes[i].re;
-        }
+        // Invert the FFT; only the real parts are used
+        fftPlan.inverseTransform(fftReal, fftImag, scratchReal, scratchImag);
 
         // Undo shift
-        fftShift(modified);
+        fftShift(fftReal);
 
         // Apply window on the samples again
-        modified = windowSamples(modified);
+        for (int i = 0; i < processingLength; i++) {
+            fftReal[i] *= window[i];
+        }
 
         // Update previous phases
-        prevPhases = Arrays.copyOf(phases, prevPhases.length);
-
-        return modified;
+        double[] temp = prevPhases;
+        prevPhases = currPhases;
+        currPhases = temp;
     }
 
     /**
-     * Perform overlap-add and sliding of the samples.
+     * Perform overlap-add and sliding of the time-stretched samples.<br>
+     * The first <code>analysisOutputSize</code> samples of the <code>output</code> circular buffer
+     * are finished, so they are returned and replaced with zeros. The time-stretched samples are
+     * then added onto the buffer, starting from the next sample.
      *
-     * @param stretchedSamples Samples to overlap-add and slide.
-     * @return Processed samples.
+     * @param processedSamples Array to place the finished samples in.
+     * @return Number of finished samples.
      */
-    private LinkedList<Double> overlapAddAndSlide(double[] stretchedSamples) {
-        LinkedList<Double> processedSamples = new LinkedList<>();
+    private int overlapAddAndSlide(float[] processedSamples) {
+        // Take out the finished samples, correcting the scaling due to overlap-add
+        double overlapScaling = (double) processingLength / (analysisOutputSize * 2.);
         for (int i = 0; i < analysisOutputSize; i++) {
-            Double val = output.poll();
-            processedSamples.add(val == null ? 0 : val);
-            output.offer(0.);
+            processedSamples[i] = (float) (output[outputStart] / overlapScaling);
+            output[outputStart] = 0;
+            outputStart = outputStart + 1 == processingLength ? 0 : outputStart + 1;
         }
-        Double[] resultingSamples = output.toArray(new Double[0]);
 
-        for (int i = 0; i < resultingSamples.length; i++) {
-            Double resultingSample = resultingSamples[i];
-            resultingSamples[i] = stretchedSamples[i] + (resultingSample == null ? 0 : resultingSample);
+        // Add the time-stretched samples
+        int numBeforeWrap = processingLength - outputStart;
+        for (int i = 0; i < numBeforeWrap; i++) {
+            output[outputStart + i] += fftReal[i];
+        }
+        for (int i = numBeforeWrap; i < processingLength; i++) {
+            output[i - numBeforeWrap] += fftReal[i];
         }
-        output.addAll(Arrays.asList(resultingSamples));
-        return processedSamples;
+
+        return analysisOutputSize;
     }
 }
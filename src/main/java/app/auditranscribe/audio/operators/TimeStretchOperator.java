@@ -26,7 +26,7 @@ import app.auditranscribe.misc.ExcludeFromGeneratedCoverageReport;
 @ExcludeFromGeneratedCoverageReport
 public abstract class TimeStretchOperator extends Operator {
     // Attributes
-    protected double stretchFactor;
+    protected volatile double stretchFactor;  // May be changed while the audio is being rendered
 
     /**
      * Initializes a new <code>TimeStretchOperator</code>.
@@ -0,0 +1,177 @@
+/*
+ * MagnitudePyramid.java
+ * Description: Multi-resolution pyramid of spectrogram magnitudes.
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public Licence as published by the Free Software Foundation, either version 3 of the
+ * Licence, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public Licence for more details.
+ *
+ * You should have received a copy of the GNU General Public Licence along with this program. If
+ * not, see <https://www.gnu.org/licenses/>
+ *
+ * Copyright © AudiTranscribe Team
+ */
+
+package app.auditranscribe.fxml.plotting;
+
+import app.auditranscribe.generic.exceptions.ValueException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Multi-resolution (mipmap-style) pyramid of spectrogram magnitudes.<br>
+ * Level 0 is the original magnitude matrix, with dimensions (Number of Bins, Number of Frames).
+ * Each subsequent level halves the number of frames by max-pooling pairs of adjacent frames, so
+ * that short transients stay visible when zoomed out. The number of bins is halved in the same way,
+ * but only while the level keeps at least the requested number of bins.<br>
+ * Cell <code>(i, j)</code> of a level covers the cells <code>(i * r, j * c)</code> to
+ * <code>((i + 1) * r - 1, (j + 1) * c - 1)</code> of level 0, where <code>r</code> and
+ * <code>c</code> are the level's row and column reduction factors.
+ */
+public class MagnitudePyramid {
+    // Attributes
+    private final List<float[][]> levels = new ArrayList<>();
+    private final List<Integer> rowReductionFactors = new ArrayList<>();
+
+    /**
+     * Initialization method for a new <code>MagnitudePyramid</code>.<br>
+     * Levels are added until a level has only one frame.
+     *
+     * @param magnitudes Magnitude matrix that forms level 0. It is not copied.
+     * @param minNumRows Minimum number of rows (i.e., bins) that a reduced level may have. Rows are
+     *                   only halved if the halved level has at least this many rows.
+     * @throws ValueException If <code>minNumRows</code> is not positive.
+     */
+    public MagnitudePyramid(float[][] magnitudes, int minNumRows) {
+        if (minNumRows <= 0) {
+            throw new ValueException("Minimum number of rows must be positive, but got " + minNumRows);
+        }
+
+        // Add the original magnitudes as the first level
+        float[][] level = magnitudes;
+        int rowReductionFactor = 1;
+
+        levels.add(level);
+        rowReductionFactors.add(rowReductionFactor);
+
+        // Keep halving the previous level
+        while (level[0].length > 1) {
+            boolean poolRows = (level.length + 1) / 2 >= minNumRows && level.length > 1;
+            level = maxPool(level, poolRows);
+            if (poolRows) rowReductionFactor *= 2;
+
+            levels.add(level);
+            rowReductionFactors.add(rowReductionFactor);
+        }
+    }
+
+    // Getter/setter methods
+
+    public int getNumLevels() {
+        return levels.size();
+    }
+
+    /**
+     * Returns the magnitudes of a level.
+     *
+     * @param level Index of the level.
+     * @return Magnitude matrix of the level. It must not be modified.
+     */
+    public float[][] getLevel(int level) {
+        return levels.get(level);
+    }
+
+    /**
+     * Returns the number of level 0 rows that each row of a level covers.
+     *
+     * @param level Index of the level.
+     * @return Row reduction factor of the level.
+     */
+    public int getRowReductionFactor(int level) {
+        return rowReductionFactors.get(level);
+    }
+
+    /**
+     * Returns the number of level 0 columns that each column of a level covers.
+     *
+     * @param level Index of the level.
+     * @return Column reduction factor of the level, which is <code>2^level</code>.
+     */
+    public int getColReductionFactor(int level) {
+        return 1 << level;
+    }
+
+    // Public methods
+
+    /**
+     * Selects the level to draw from when each pixel spans <code>colsPerPixel</code> columns of
+     * level 0.<br>
+     * This is the most reduced level whose columns are each no wider than a pixel.
+     *
+     * @param colsPerPixel Number of level 0 columns that each pixel spans.
+     * @return Index of the level to draw from.
+     */
+    public int selectLevel(double colsPerPixel) {
+        int level = 0;
+        while (level + 1 < levels.size() && getColReductionFactor(level + 1) <= colsPerPixel) level++;
+        return level;
+    }
+
+    /**
+     * Converts coordinates (i.e., fractional indices) along one axis of level 0 into coordinates
+     * along the same axis of a reduced level.
+     *
+     * @param coordinates     Coordinates in level 0.
+     * @param reductionFactor Reduction factor of the level along the axis.
+     * @param length          Length of the level along the axis.
+     * @return Coordinates in the reduced level, clamped to the level's bounds.
+     */
+    public static double[] toLevelCoordinates(double[] coordinates, int reductionFactor, int length) {
+        // The centre of cell `k` of the level is at `k * factor + (factor - 1) / 2` in level 0
+        double offset = (reductionFactor - 1) / 2.;
+
+        double[] levelCoordinates = new double[coordinates.length];
+        for (int i = 0; i < coordinates.length; i++) {
+            double coordinate = (coordinates[i] - offset) / reductionFactor;
+            levelCoordinates[i] = Math.min(Math.max(coordinate, 0), length - 1);
+        }
+        return levelCoordinates;
+    }
+
+    // Private methods
+
+    /**
+     * Helper method that halves the number of columns, and optionally rows, of a matrix by
+     * max-pooling.<br>
+     * If a dimension has an odd length, its last cell is pooled on its own.
+     *
+     * @param array    Matrix to pool.
+     * @param poolRows Whether to pool the rows as well as the columns.
+     * @return The pooled matrix.
+     */
+    private static float[][] maxPool(float[][] array, boolean poolRows) {
+        int numRows = array.length;
+        int numCols = array[0].length;
+        int numPooledRows = poolRows ? (numRows + 1) / 2 : numRows;
+        int numPooledCols = (numCols + 1) / 2;
+
+        float[][] pooled = new float[numPooledRows][numPooledCols];
+        for (int i = 0; i < numPooledRows; i++) {
+            // Get the rows that are pooled into this row
+            float[] row1 = poolRows ? array[2 * i] : array[i];
+            float[] row2 = poolRows && 2 * i + 1 < numRows ? array[2 * i + 1] : row1;
+
+            for (int j = 0; j < numPooledCols; j++) {
+                int j2 = Math.min(2 * j + 1, numCols - 1);
+                pooled[i][j] = Math.max(Math.max(row1[2 * j], row1[j2]), Math.max(row2[2 * j], row2[j2]));
+            }
+        }
+
+        return pooled;
+    }
+}
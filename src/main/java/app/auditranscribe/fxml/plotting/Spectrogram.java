@@ -22,23 +22,22 @@ import app.auditranscribe.audio.Audio;
 import app.auditranscribe.fxml.plotting.interpolation.AbstractInterpolation;
 import app.auditranscribe.generic.LoggableClass;
 import app.auditranscribe.generic.exceptions.ValueException;
+import app.auditranscribe.generic.tuples.Pair;
 import app.auditranscribe.io.audt_file.base.data_encapsulators.QTransformDataObject;
 import app.auditranscribe.io.audt_file.v0x000B00.data_encapsulators.QTransformDataObject0x000B00;
-import app.auditranscribe.misc.Complex;
 import app.auditranscribe.misc.CustomTask;
 import app.auditranscribe.misc.ExcludeFromGeneratedCoverageReport;
 import app.auditranscribe.signal.FrequencyRangeGeneration;
+import app.auditranscribe.signal.SignalProcessingPool;
 import app.auditranscribe.signal.representations.QTransform;
 import app.auditranscribe.signal.windowing.SignalWindow;
 import app.auditranscribe.utils.MathUtils;
-import app.auditranscribe.utils.MatrixUtils;
 import app.auditranscribe.utils.UnitConversionUtils;
-import javafx.embed.swing.SwingFXUtils;
-import javafx.scene.image.WritableImage;
 
-import java.awt.image.BufferedImage;
-import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+import java.util.function.ObjIntConsumer;
 import java.util.logging.Level;
+import java.util.stream.IntStream;
 
 /**
  * Class that handles the creation and plotting of the spectrogram image.
@@ -48,7 +47,17 @@ public class Spectrogram extends LoggableClass {
     // Constants
     final AbstractInterpolation INTERPOLATION_METHOD = Interpolation.BILINEAR.interpolation;
 
+    public static final int TILE_WIDTH = 256;  // In pixels
+
+    public static final int PREVIEW_TILE_VERSION = 0;
+    public static final int REFINED_TILE_VERSION = 1;
+    public static final int FULL_TILE_VERSION = 2;
+
     final double TOP_DB = 80;
+    final double CHUNK_DURATION = 30;  // In seconds; duration of audio whose VQT is computed at a time
+
+    final int PREVIEW_BINS_PER_OCTAVE = 12;
+    final int PREVIEW_HOP_LENGTH_MULTIPLIER = 4;
     final double INTENSITY_PRECISION = 1e-3;
     final double INVERSE_INTENSITY_PRECISION = 1 / INTENSITY_PRECISION;
 
@@ -78,6 +87,19 @@ public class Spectrogram extends LoggableClass {
     public QTransformDataObject qTransformDataObject;
     private CustomTask<?> task;
 
+    private ColourScale colourScale;
+    private volatile int[] colourMap;  // ARGB colour of each quantised intensity
+
+    private volatile float[][] previewMagnitudes;
+    private float[] previewMagnitudesRange;
+    private double previewMaxModulus = Double.NaN;
+
+    private volatile float[][] refiningModuli;  // Moduli of the full spectrogram while it is being computed
+    private volatile int numRefinedFrames = 0;
+
+    private volatile MagnitudePyramid magnitudePyramid;  // Pyramid of the full-resolution magnitudes
+    private float[] magnitudesRange;
+
     /**
      * Initialization method for a <code>Spectrogram</code> object.
      *
@@ -199,78 +221,343 @@ public class Spectrogram extends LoggableClass {
         this.task = task;
     }
 
+    public int[] getColourMap() {
+        return colourMap;
+    }
+
+    /**
+     * Sets the colour scale that new tiles are coloured with.<br>
+     * Existing tiles can be recoloured using {@link SpectrogramTile#recolour(int[])} with the new
+     * {@link #getColourMap() colour map}, without being generated again. The colour map is kept
+     * if the colour scale is unchanged.
+     *
+     * @param colourScale The colour scale to use for the spectrogram.
+     */
+    public synchronized void setColourScale(ColourScale colourScale) {
+        if (this.colourScale == colourScale) return;
+        this.colourScale = colourScale;
+        colourMap = generateColourMap(colourScale);
+    }
 
     // Public methods
 
     /**
-     * Generates the spectrogram image.<br>
+     * Returns the width of the spectrogram image at the given horizontal zoom.
+     *
+     * @param zoom Horizontal zoom factor. A zoom of 1 gives an image that is {@link #width}
+     *             pixels wide.
+     * @return Width of the image in pixels.
+     */
+    public int getImageWidth(double zoom) {
+        return Math.max(1, (int) Math.round(width * zoom));
+    }
+
+    /**
+     * Returns the number of tiles that the spectrogram image is split into.
+     *
+     * @param zoom Horizontal zoom factor.
+     * @return Number of tiles, each of which is at most {@link #TILE_WIDTH} pixels wide.
+     */
+    public int getNumTiles(double zoom) {
+        return (getImageWidth(zoom) + TILE_WIDTH - 1) / TILE_WIDTH;
+    }
+
+    /**
+     * Returns the version of the data that the tile would currently be generated from.<br>
+     * A tile that was generated at a lower version than the current one is out of date and should
+     * be generated again.
+     *
+     * @param tileIndex Index of the tile.
+     * @param zoom      Horizontal zoom factor.
+     * @return {@link #PREVIEW_TILE_VERSION}, {@link #REFINED_TILE_VERSION}, or
+     * {@link #FULL_TILE_VERSION}. Returns <code>-1</code> if there is no data to generate the tile
+     * from yet.
+     */
+    public int getTileVersion(int tileIndex, double zoom) {
+        if (magnitudePyramid != null) return FULL_TILE_VERSION;
+
+        float[][] moduli = refiningModuli;
+        if (moduli != null) {
+            // Check if all the frames that the tile needs have been refined
+            int imageWidth = getImageWidth(zoom);
+            int endX = Math.min(imageWidth, (tileIndex + 1) * TILE_WIDTH);
+            int lastFrame = (int) Math.ceil((endX - 1) * frameRatio(getNumFullFrames(), imageWidth));
+            if (lastFrame < numRefinedFrames) return REFINED_TILE_VERSION;
+        }
+
+        return previewMagnitudes != null ? PREVIEW_TILE_VERSION : -1;
+    }
+
+    /**
+     * Generates one tile of the spectrogram image.<br>
+     * The tile is generated from the most refined data that is currently available; see
+     * {@link #getTileVersion(int, double)}. Once the full spectrogram is available, the tile is
+     * drawn from the level of the magnitude pyramid that best matches the zoom, so zoomed-out
+     * tiles only need to interpolate a fraction of the magnitudes.
+     *
+     * @param tileIndex Index of the tile.
+     * @param zoom      Horizontal zoom factor.
+     * @return The tile, whose height is the spectrogram's height.
+     * @throws IllegalStateException If there is no data to generate the tile from yet.
+     */
+    public SpectrogramTile generateTile(int tileIndex, double zoom) {
+        int imageWidth = getImageWidth(zoom);
+        int startX = tileIndex * TILE_WIDTH;
+        int endX = Math.min(imageWidth, startX + TILE_WIDTH);
+
+        // Get the data to generate the tile from
+        // (The data may be refined by another thread, so each field is only read once)
+        int version = getTileVersion(tileIndex, zoom);
+        MagnitudePyramid pyramid = magnitudePyramid;
+        float[][] moduli = refiningModuli;
+        float[][] preview = previewMagnitudes;
+
+        if (version == REFINED_TILE_VERSION && moduli == null) {
+            version = pyramid != null ? FULL_TILE_VERSION : PREVIEW_TILE_VERSION;
+        }
+        if (version == PREVIEW_TILE_VERSION && preview == null) version = FULL_TILE_VERSION;
+
+        // Plot the tile's pixels
+        return switch (version) {
+            case FULL_TILE_VERSION -> {
+                // Choose the pyramid level based on how many frames each pixel spans
+                float[][] baseMagnitudes = pyramid.getLevel(0);
+                double ratio = frameRatio(baseMagnitudes[0].length, imageWidth);
+                int level = pyramid.selectLevel(ratio);
+                float[][] levelMagnitudes = pyramid.getLevel(level);
+
+                double[] rowCoordinates = MagnitudePyramid.toLevelCoordinates(
+                        generateRowCoordinates(baseMagnitudes.length), pyramid.getRowReductionFactor(level),
+                        levelMagnitudes.length
+                );
+                double[] colCoordinates = MagnitudePyramid.toLevelCoordinates(
+                        generateColCoordinates(startX, endX, ratio), pyramid.getColReductionFactor(level),
+                        levelMagnitudes[0].length
+                );
+                yield plot(levelMagnitudes, rowCoordinates, colCoordinates, magnitudesRange);
+            }
+            case REFINED_TILE_VERSION -> plot(
+                    moduli, generateRowCoordinates(moduli.length),
+                    generateColCoordinates(startX, endX, frameRatio(getNumFullFrames(), imageWidth)), null
+            );
+            case PREVIEW_TILE_VERSION -> plot(
+                    preview, generateRowCoordinates(preview.length),
+                    generateColCoordinates(startX, endX, frameRatio(preview[0].length, imageWidth)),
+                    previewMagnitudesRange
+            );
+            default -> throw new IllegalStateException("Spectrogram data has not been generated");
+        };
+    }
+
+    /**
+     * Generates the spectrogram magnitudes, from which the tiles are generated.<br>
      * Assumes an <code>Audio</code> object was provided in the constructor, as that object's data
-     * will be used to generate the magnitude data, before plotting the spectrogram.
+     * will be used to generate the magnitude data.
      *
      * @param windowFunction The signal window function to use on the signal data.
      * @param colourScale    The colour scale to use for the spectrogram.
-     * @return The spectrogram image.
      */
-    public WritableImage generateSpectrogram(SignalWindow windowFunction, ColourScale colourScale) {
-        double[][] magnitudes = generateMagnitudes(windowFunction);
+    public void generateSpectrogram(SignalWindow windowFunction, ColourScale colourScale) {
+        generateSpectrogram(windowFunction, colourScale, null);
+    }
+
+    /**
+     * Generates the spectrogram magnitudes, progressively refining a preview.<br>
+     * Assumes an <code>Audio</code> object was provided in the constructor. If a preview was
+     * generated by {@link #generatePreviewSpectrogram}, the tiles can be generated from the
+     * full-resolution data of each time region as soon as that region is computed.
+     *
+     * @param windowFunction  The signal window function to use on the signal data.
+     * @param colourScale     The colour scale to use for the spectrogram.
+     * @param refinedListener Called (on the generating thread) each time a time region is
+     *                        refined. Pass in <code>null</code> if no such listener is needed.
+     */
+    public void generateSpectrogram(SignalWindow windowFunction, ColourScale colourScale, Runnable refinedListener) {
+        setColourScale(colourScale);
+
+        // Allow tiles to use the full-resolution moduli of the regions that are computed
+        ObjIntConsumer<float[][]> chunkListener = null;
+        if (previewMagnitudes != null) {
+            chunkListener = (moduli, endFrame) -> {
+                refiningModuli = moduli;
+                numRefinedFrames = endFrame;
+                if (refinedListener != null) refinedListener.run();
+            };
+        }
+
+        Pair<float[][], Double> moduliResponse = generateModuli(windowFunction, binsPerOctave, hopLength, chunkListener);
+
+        float[][] moduli = moduliResponse.value0();
+
+        // Tiles that are being generated may still be reading the refining moduli, so convert a copy of them
+        if (chunkListener != null) {
+            float[][] refinedModuli = moduli;
+            moduli = new float[refinedModuli.length][];
+            for (int i = 0; i < refinedModuli.length; i++) moduli[i] = refinedModuli[i].clone();
+        }
+
+        float[][] fullMagnitudes = calculateMagnitudes(moduli, moduliResponse.value1());
 
         qTransformDataObject = new QTransformDataObject0x000B00();
-        qTransformDataObject.setDataUsingMagnitudes(magnitudes, task);
+        qTransformDataObject.setDataUsingMagnitudes(fullMagnitudes, task);
 
-        return plot(magnitudes, generateColourMap(colourScale));
+        // Tiles are now generated from the full magnitudes instead of the refining moduli
+        setMagnitudes(fullMagnitudes);
+        numRefinedFrames = 0;
+        refiningModuli = null;
     }
 
     /**
-     * Generates the spectrogram image.<br>
+     * Generates a coarse preview of the spectrogram magnitudes.<br>
+     * The preview uses fewer frequency bins per octave and a larger hop length, so it is much
+     * faster to compute than the full spectrogram. Its tiles have the same dimensions as the full
+     * spectrogram's tiles.
+     *
+     * @param windowFunction The signal window function to use on the signal data.
+     * @param colourScale    The colour scale to use for the spectrogram.
+     */
+    public void generatePreviewSpectrogram(SignalWindow windowFunction, ColourScale colourScale) {
+        setColourScale(colourScale);
+
+        Pair<float[][], Double> moduliResponse = generateModuli(
+                windowFunction, PREVIEW_BINS_PER_OCTAVE, hopLength * PREVIEW_HOP_LENGTH_MULTIPLIER, null
+        );
+        previewMaxModulus = moduliResponse.value1();
+
+        float[][] magnitudesResponse = calculateMagnitudes(moduliResponse.value0(), previewMaxModulus);
+        previewMagnitudesRange = findRange(magnitudesResponse);
+        previewMagnitudes = magnitudesResponse;
+    }
+
+    /**
+     * Generates the spectrogram magnitudes, from which the tiles are generated.<br>
      * Assumes that the attributes <code>qTransformBytes</code>, <code>minMagnitude</code>, and
      * <code>maxMagnitude</code> have been set. These values will be used to reconstruct the
-     * magnitude data, which will then be used to plot the spectrogram.
+     * magnitude data.
      *
      * @param colourScale The colour scale to use for the spectrogram.
-     * @return The spectrogram image.
      */
-    public WritableImage generateSpectrogram(ColourScale colourScale) {
-        double[][] magnitudes = qTransformDataObject.obtainMagnitudesFromData();
+    public void generateSpectrogram(ColourScale colourScale) {
+        setColourScale(colourScale);
+        float[][] loadedMagnitudes = qTransformDataObject.obtainMagnitudesFromDataAsFloats();
 
         // If `qTransformDataObject` is not latest we update it
         if (!(qTransformDataObject instanceof QTransformDataObject0x000B00)) {
             log("Q-Transform data object outdated; updating...");
             qTransformDataObject = new QTransformDataObject0x000B00();
-            qTransformDataObject.setDataUsingMagnitudes(magnitudes, task);
+            qTransformDataObject.setDataUsingMagnitudes(loadedMagnitudes, task);
             log("Updated Q-Transform data object to latest version");
         }
 
-        return plot(magnitudes, generateColourMap(colourScale));
+        setMagnitudes(loadedMagnitudes);
     }
 
     // Private methods
 
     /**
-     * Helper method that generates the spectrogram magnitudes for the given audio samples.
+     * Helper method that sets the full-resolution magnitudes, and drops the preview magnitudes.
      *
-     * @param windowFunction The signal window function to use.
-     * @return The spectrogram magnitudes.
-     * @throws NullPointerException If the maximum frequency value cannot be found in the computed
-     *                              Q-transform frequency bins.
+     * @param fullMagnitudes The full-resolution magnitudes.
      */
-    private double[][] generateMagnitudes(SignalWindow windowFunction) throws NullPointerException {
-        // Perform the spectrogram transform on the samples
-        log(Level.FINE, "Starting spectral matrix generation");
+    private void setMagnitudes(float[][] fullMagnitudes) {
+        magnitudesRange = findRange(fullMagnitudes);
+        magnitudePyramid = new MagnitudePyramid(fullMagnitudes, height);
 
-        Complex[][] QTMatrix;
-        if (IS_CQT) {
-            QTMatrix = QTransform.cqt(
-                    samples, sampleRate, hopLength, minFreq, numFreqBins, binsPerOctave, 0, windowFunction, task
-            );
-        } else {
-            QTMatrix = QTransform.vqt(
-                    samples, sampleRate, hopLength, minFreq, numFreqBins, binsPerOctave, 0, GAMMA,
-                    windowFunction, task
-            );
+        previewMagnitudes = null;
+    }
+
+    /**
+     * Helper method that gets the number of columns of the full-resolution spectrogram.
+     *
+     * @return Number of columns.
+     */
+    private int getNumFullFrames() {
+        return samples.length / hopLength + 1;
+    }
+
+    /**
+     * Helper method that gets the number of columns that each pixel of the image spans.
+     *
+     * @param numFrames  Number of columns of the data that the image is generated from.
+     * @param imageWidth Width of the image.
+     * @return Number of columns per pixel.
+     */
+    private static double frameRatio(int numFrames, int imageWidth) {
+        return imageWidth > 1 ? (double) (numFrames - 1) / (imageWidth - 1) : 0;
+    }
+
+    /**
+     * Helper method that generates the coordinates (i.e., fractional row indices) of the data
+     * that each row of pixels is interpolated at.
+     *
+     * @param numRows Number of rows of the data.
+     * @return Coordinates of each row of pixels, from the lowest frequency upwards.
+     */
+    private double[] generateRowCoordinates(int numRows) {
+        double rowRatio = height > 1 ? (double) (numRows - 1) / (height - 1) : 0;
+        double[] rowCoordinates = new double[height];
+        for (int h = 0; h < height; h++) rowCoordinates[h] = h * rowRatio;
+        return rowCoordinates;
+    }
+
+    /**
+     * Helper method that generates the coordinates (i.e., fractional column indices) of the data
+     * that each column of pixels in <code>[startX, endX)</code> is interpolated at.
+     *
+     * @param startX First column of pixels (inclusive).
+     * @param endX   Last column of pixels (exclusive).
+     * @param ratio  Number of columns of the data per pixel.
+     * @return Coordinates of each column of pixels.
+     */
+    private static double[] generateColCoordinates(int startX, int endX, double ratio) {
+        double[] colCoordinates = new double[endX - startX];
+        for (int w = 0; w < colCoordinates.length; w++) colCoordinates[w] = (startX + w) * ratio;
+        return colCoordinates;
+    }
+
+    /**
+     * Helper method that finds the minimum and maximum values of the given magnitudes.
+     *
+     * @param mags The magnitudes.
+     * @return Array with the minimum value, followed by the maximum value.
+     */
+    private static float[] findRange(float[][] mags) {
+        float min = Float.MAX_VALUE;
+        float max = -Float.MAX_VALUE;
+
+        for (float[] row : mags) {
+            for (float value : row) {
+                if (min > value) min = value;
+                if (max < value) max = value;
+            }
         }
 
-        // Get also the frequency bins of the VQT
+        return new float[]{min, max};
+    }
+
+    /**
+     * Helper method that generates the spectrogram moduli for the given audio samples.<br>
+     * The moduli are stored in single precision, which halves the memory needed to hold the
+     * spectrogram of long audio files.
+     *
+     * @param windowFunction The signal window function to use.
+     * @param binsPerOctave  Number of frequency bins per octave.
+     * @param hopLength      Number of samples between successive columns.
+     * @param chunkListener  Called each time a chunk of columns is computed, with the moduli
+     *                       matrix and the number of columns of it that have been computed so
+     *                       far.
+     *                       Pass in <code>null</code> if no such listener is needed.
+     * @return Pair of values. First value is the spectrogram moduli. Second value is the maximum
+     * modulus.
+     * @throws NullPointerException If the maximum frequency value cannot be found in the computed
+     *                              Q-transform frequency bins.
+     */
+    private Pair<float[][], Double> generateModuli(
+            SignalWindow windowFunction, int binsPerOctave, int hopLength, ObjIntConsumer<float[][]> chunkListener
+    ) throws NullPointerException {
+        // Get the frequency bins of the VQT
         // (Note that CQT and VQT frequency bins are the same)
+        int numFreqBins = numOctaves * binsPerOctave;
         double[] freqBins = FrequencyRangeGeneration.qTransformFreqBins(numFreqBins, binsPerOctave, minFreq);
 
         // Find the highest permitted frequency bin
@@ -286,76 +573,77 @@ public class Spectrogram extends LoggableClass {
             throw new NullPointerException("Highest frequency " + maxFreq + " cannot be found in frequency bins");
         }
 
-        // Keep only required frequency bins from the `QTMatrix`
-        Complex[][] QTMatrixFinal = new Complex[highestPermittedIndex + 1][QTMatrix[0].length];
-
-        for (int i = 0; i <= highestPermittedIndex; i++) {
-            System.arraycopy(QTMatrix[i], 0, QTMatrixFinal[i], 0, QTMatrix[0].length);
-        }
-
-        // Compute the magnitudes and return
-        log(Level.FINE, "Calculating magnitudes");
-        return calculateMagnitudes(QTMatrixFinal);
-    }
-
-    /**
-     * Helper method that calculates the decibel magnitudes of the spectral matrix.
-     *
-     * @param spectralMatrix The matrix containing the spectral data.
-     * @return Matrix containing decibel data.
-     */
-    private double[][] calculateMagnitudes(Complex[][] spectralMatrix) {
-        // Get dimensions of the spectral matrix
-        int numRows = spectralMatrix.length;
-        int numCols = spectralMatrix[0].length;
-
-        // Get the modulus of every complex number
-        double[][] moduli = new double[numRows][numCols];
-        double maxModulus = -Double.MAX_VALUE;
+        // Perform the spectrogram transform on the samples, one chunk at a time
+        log(Level.FINE, "Starting spectral matrix generation");
 
-        for (int i = 0; i < numRows; i++) {
-            for (int j = 0; j < numCols; j++) {
-                // Get current element's modulus
-                double modulus = spectralMatrix[i][j].abs();
+        int numKeptBins = highestPermittedIndex + 1;
+        int numFramesPerChunk = (int) Math.ceil(CHUNK_DURATION * sampleRate / hopLength);
 
-                // Set the element at that index
-                moduli[i][j] = modulus;
+        float[][] moduli = new float[numKeptBins][samples.length / hopLength + 1];
+        double[] maxModulus = {-Double.MAX_VALUE};
 
-                // Update `maxModulus`
-                if (maxModulus < modulus) maxModulus = modulus;
+        ObjIntConsumer<double[][]> sink = (chunkMagnitudes, startFrame) -> {
+            // Grow the moduli matrix if the chunk does not fit
+            int endFrame = startFrame + chunkMagnitudes[0].length;
+            if (endFrame > moduli[0].length) {
+                for (int i = 0; i < numKeptBins; i++) moduli[i] = Arrays.copyOf(moduli[i], endFrame);
             }
-        }
-
-        // Now convert all moduli into decibel numbers
-        double maxMagnitude = -Double.MAX_VALUE;
 
-        double[][] magnitudes = new double[numRows][numCols];
-        for (int i = 0; i < numRows; i++) {
-            for (int j = 0; j < numCols; j++) {
-                // Get the decibel value for this amplitude
-                double magnitudeVal = UnitConversionUtils.amplitudeToDecibel(moduli[i][j], maxModulus);
+            // Keep only the required frequency bins, and update the maximum modulus
+            for (int i = 0; i < numKeptBins; i++) {
+                double[] chunkRow = chunkMagnitudes[i];
+                float[] row = moduli[i];
+                for (int j = 0; j < chunkRow.length; j++) {
+                    row[startFrame + j] = (float) chunkRow[j];
+                    if (maxModulus[0] < chunkRow[j]) maxModulus[0] = chunkRow[j];
+                }
+            }
 
-                // Add it into the magnitudes array
-                magnitudes[i][j] = magnitudeVal;
+            if (chunkListener != null) chunkListener.accept(moduli, endFrame);
+        };
 
-                // Update maximum magnitude value as needed
-                if (maxMagnitude < magnitudeVal) maxMagnitude = magnitudeVal;
-            }
+        int numFrames;
+        if (IS_CQT) {
+            numFrames = QTransform.cqtChunked(
+                    samples, sampleRate, hopLength, minFreq, numFreqBins, binsPerOctave, 0, windowFunction,
+                    numFramesPerChunk, sink, task, true
+            );
+        } else {
+            numFrames = QTransform.vqtChunked(
+                    samples, sampleRate, hopLength, minFreq, numFreqBins, binsPerOctave, 0, GAMMA, windowFunction,
+                    numFramesPerChunk, sink, task, true
+            );
         }
 
-        // Now fix the magnitude values
-        for (int i = 0; i < numRows; i++) {
-            for (int j = 0; j < numCols; j++) {
-                magnitudes[i][j] = Math.max(magnitudes[i][j], maxMagnitude - TOP_DB);
-            }
+        // Trim the moduli matrix to the actual number of frames
+        if (numFrames != moduli[0].length) {
+            for (int i = 0; i < numKeptBins; i++) moduli[i] = Arrays.copyOf(moduli[i], numFrames);
         }
 
-        // Return the magnitudes array
-        return magnitudes;
+        return new Pair<>(moduli, maxModulus[0]);
+    }
+
+    /**
+     * Helper method that calculates the decibel magnitudes of the spectral matrix.<br>
+     * The moduli are converted into decibel magnitudes in place, with the rows converted in parallel.
+     *
+     * @param moduli     The moduli of the spectral matrix.
+     * @param maxModulus The maximum modulus in <code>moduli</code>.
+     * @return Matrix containing decibel data.
+     */
+    private float[][] calculateMagnitudes(float[][] moduli, double maxModulus) {
+        log(Level.FINE, "Calculating magnitudes");
+        SignalProcessingPool.getPool().submit(() -> IntStream.range(0, moduli.length).parallel().forEach(
+                i -> UnitConversionUtils.amplitudeToDecibel(moduli[i], maxModulus, maxModulus, TOP_DB)
+        )).join();
+        return moduli;
     }
 
     /**
-     * Helper method that generates the colour map for the spectrogram.
+     * Helper method that generates the colour map for the spectrogram.<br>
+     * The colour map is indexed directly by the quantised intensity (see
+     * {@link #quantiseIntensity}), and its colours are opaque ARGB values, so that plotting a pixel
+     * is a single lookup.
      *
      * @param colourScale The colour scale to use for plotting.
      * @return An array of integers, representing the color map generated from the provided colour
@@ -392,8 +680,8 @@ public class Spectrogram extends LoggableClass {
             // Compute the colour that should be defined at this height
             int color = lerpColour(colour1, colour2, x);
 
-            // Update the colourmap
-            colourMap[i] = color;
+            // Update the colourmap (in reverse intensity order, with full opacity)
+            colourMap[numDifferentColours - i - 1] = 0xFF000000 | color;
         }
 
         log(Level.FINE, "Colourmap generated");
@@ -421,72 +709,86 @@ public class Spectrogram extends LoggableClass {
     }
 
     /**
-     * Helper method that plots the given magnitudes on a <code>WritableImage</code>.
+     * Helper method that quantises an intensity into an index of the colour map.
      *
-     * @param magnitudes Magnitude data of the spectrogram as a 2D array. Dimensions of the array
-     *                   should be of the form (Number of VQT Bins, Number of Windows).
-     * @param colourMap  Colour map to use when plotting the spectrogram.
-     * @return Writable spectrogram image.
+     * @param intensity Intensity, which should be in the interval [0, 1].
+     * @return Index of the intensity's colour in the colour map. Intensities outside [0, 1] are
+     * clamped.
      */
-    private WritableImage plot(double[][] magnitudes, int[] colourMap) {
-        // Define the image that will show the spectrogram
-        BufferedImage bufferedImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
-        log(Level.FINE, "Defined buffer image");
+    private int quantiseIntensity(float intensity) {
+        int index = (int) Math.ceil(intensity * INVERSE_INTENSITY_PRECISION);
+        return Math.min(Math.max(index, 0), (int) INVERSE_INTENSITY_PRECISION);
+    }
 
-        // Get the pixels of the spectrogram image
-        int[] pixels = ((DataBufferInt) bufferedImage.getRaster().getDataBuffer()).getData();
-        log(Level.FINE, "Got pixels of buffer image");
+    /**
+     * Helper method that plots the pixels at the given coordinates of the data on a spectrogram
+     * tile.<br>
+     * Only the columns of the data that these pixels need are normalised and interpolated. Each
+     * interpolated row of intensities is quantised straight into the tile's intensity plane, which
+     * is then coloured using the current colour map.
+     *
+     * @param data           Data to generate the packets from, with dimensions (Number of Bins,
+     *                       Number of Frames).
+     * @param rowCoordinates Fractional row indices of the data to interpolate at.
+     * @param colCoordinates Fractional column indices of the data to interpolate at, in
+     *                       ascending order.
+     * @param range          Minimum and maximum decibel values of <code>data</code>, which are
+     *                       mapped to intensities 0 and 1. Pass in <code>null</code> if
+     *                       <code>data</code> holds moduli instead, which are then converted to
+     *                       decibels relative to the preview's maximum modulus.
+     * @return Spectrogram tile, with one row of pixels per row coordinate (in reverse order, so
+     * that the lowest frequency is at the bottom) and one column of pixels per column coordinate.
+     */
+    private SpectrogramTile plot(float[][] data, double[] rowCoordinates, double[] colCoordinates, float[] range) {
+        int numRows = data.length;
 
-        // Generate the values of each packet on the image
-        /*
-         * Note on terminology used here:
-         * - A packet represents the magnitude data for one pixel.
-         * - A packet does NOT contain the RGB values for a pixel. It only contains a `double` value
-         *   representing the relative 'intensity' that should be shown on the pixel.
-         */
-        double[][] packets = INTERPOLATION_METHOD.interpolate(magnitudes, height, width);
-        log(Level.FINE, "Interpolated spectrogram magnitudes");
-
-        // Transpose packets
-        // (Make dimensions (width, height) instead of (height, width) for easier indexing)
-        packets = MatrixUtils.transpose(packets);
-        log(Level.FINE, "Image packets generated");
-
-        // Get min and max of packet values
-        double minPacketVal = Double.MAX_VALUE;
-        double maxPacketVal = -Double.MAX_VALUE;
-
-        for (double[] row : packets) {
-            for (double packet : row) {
-                if (minPacketVal > packet) minPacketVal = packet;
-                if (maxPacketVal < packet) maxPacketVal = packet;
-            }
-        }
-        log(Level.FINE, "Got min and max packet values");
+        // Determine the columns of the data that are needed
+        int startFrame = (int) Math.floor(colCoordinates[0]);
+        int endFrame = Math.min(data[0].length - 1, (int) Math.ceil(colCoordinates[colCoordinates.length - 1]));
+        int numFramesNeeded = endFrame - startFrame + 1;
 
-        // Normalise packet values
-        for (int w = 0; w < width; w++) {
-            for (int h = 0; h < height; h++) {
-                packets[w][h] = MathUtils.normalize(packets[w][h], minPacketVal, maxPacketVal);
+        // Normalise the needed columns into intensities, one row at a time
+        float[][] intensities = new float[numRows][numFramesNeeded];
+        for (int i = 0; i < numRows; i++) {
+            float[] row = data[i];
+            float[] intensityRow = intensities[i];
+            for (int j = 0; j < numFramesNeeded; j++) {
+                double value = row[startFrame + j];
+                if (range != null) {
+                    intensityRow[j] = (float) MathUtils.normalize(value, range[0], range[1]);
+                } else {
+                    double magnitude = UnitConversionUtils.amplitudeToDecibel(value, previewMaxModulus);
+                    intensityRow[j] = (float) Math.min(Math.max((magnitude + TOP_DB) / TOP_DB, 0), 1);
+                }
             }
         }
-        log(Level.FINE, "Image packets normalised");
-
-        // Finally, modify the image according to the packet specifications
-        int numDifferentColours = colourMap.length;
 
-        for (int h = 0; h < height; h++) {
-            for (int w = 0; w < width; w++) {
-                // Calculate intensity of the frequency bin at that spot
-                int intensity = (int) Math.ceil(packets[w][height - h - 1] * INVERSE_INTENSITY_PRECISION);
+        // Interpolate at the coordinates, relative to the needed columns
+        double[] relativeColCoordinates = new double[colCoordinates.length];
+        for (int w = 0; w < colCoordinates.length; w++) {
+            relativeColCoordinates[w] = Math.min(colCoordinates[w] - startFrame, numFramesNeeded - 1);
+        }
 
-                // Set the pixel value
-                pixels[h * width + w] = colourMap[numDifferentColours - intensity - 1];  // Reverse intensity order
+        // Interpolate the packets of each row and quantise them
+        /*
+         * Note on terminology used here:
+         * - A packet represents the magnitude data for one pixel.
+         * - A packet does NOT contain the RGB values for a pixel. It only contains a `float` value
+         *   representing the relative 'intensity' that should be shown on the pixel.
+         */
+        int imageWidth = colCoordinates.length;
+        int imageHeight = rowCoordinates.length;
+        short[] quantisedIntensities = new short[imageHeight * imageWidth];
+
+        // (Tiles are small, so they are interpolated on the calling thread rather than in the signal processing pool)
+        INTERPOLATION_METHOD.interpolate(intensities, rowCoordinates, relativeColCoordinates, (packetRow, i) -> {
+            int offset = (imageHeight - i - 1) * imageWidth;
+            for (int w = 0; w < imageWidth; w++) {
+                quantisedIntensities[offset + w] = (short) quantiseIntensity(packetRow[w]);
             }
-        }
-        log(Level.FINE, "Image pixels set");
+        }, false);
 
-        // Return the writable image
-        return SwingFXUtils.toFXImage(bufferedImage, null);
+        // Colour the tile
+        return new SpectrogramTile(imageWidth, imageHeight, quantisedIntensities, colourMap);
     }
 }
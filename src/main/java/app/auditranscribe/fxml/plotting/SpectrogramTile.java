@@ -0,0 +1,84 @@
+/*
+ * SpectrogramTile.java
+ * Description: One tile of the spectrogram image, along with the intensities it was coloured from.
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public Licence as published by the Free Software Foundation, either version 3 of the
+ * Licence, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public Licence for more details.
+ *
+ * You should have received a copy of the GNU General Public Licence along with this program. If
+ * not, see <https://www.gnu.org/licenses/>
+ *
+ * Copyright © AudiTranscribe Team
+ */
+
+package app.auditranscribe.fxml.plotting;
+
+import app.auditranscribe.misc.ExcludeFromGeneratedCoverageReport;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+
+/**
+ * One tile of the spectrogram image.<br>
+ * The tile keeps the quantised intensity of each of its pixels (i.e., the index of the pixel's
+ * colour in the colour map). Changing the colour scale then only needs each intensity to be looked
+ * up in the new colour map; the spectrogram data does not need to be interpolated again.
+ */
+@ExcludeFromGeneratedCoverageReport
+public class SpectrogramTile {
+    // Attributes
+    public final int width;
+    public final int height;
+
+    private final short[] intensities;  // Row-major, with the top row of pixels first
+    private final WritableImage image;
+    private int[] colourMap;
+
+    /**
+     * Initialization method for a new <code>SpectrogramTile</code>.<br>
+     * The tile's image is coloured using the given colour map.
+     *
+     * @param width       Width of the tile, in pixels.
+     * @param height      Height of the tile, in pixels.
+     * @param intensities Quantised intensity of each pixel, in row-major order with the top row
+     *                    first. This array is kept by the tile and must not be modified afterwards.
+     * @param colourMap   ARGB colour of each quantised intensity.
+     */
+    public SpectrogramTile(int width, int height, short[] intensities, int[] colourMap) {
+        this.width = width;
+        this.height = height;
+        this.intensities = intensities;
+
+        image = new WritableImage(width, height);
+        recolour(colourMap);
+    }
+
+    // Getter/setter methods
+
+    public WritableImage getImage() {
+        return image;
+    }
+
+    // Public methods
+
+    /**
+     * Colours the tile's image using the given colour map.<br>
+     * The image is updated in place, so any view that shows it is updated too. Nothing is done if
+     * the tile is already coloured using this colour map.
+     *
+     * @param colourMap ARGB colour of each quantised intensity.
+     */
+    public void recolour(int[] colourMap) {
+        if (this.colourMap == colourMap) return;
+        this.colourMap = colourMap;
+
+        int[] pixels = new int[intensities.length];
+        for (int i = 0; i < intensities.length; i++) pixels[i] = colourMap[intensities[i]];
+
+        image.getPixelWriter().setPixels(0, 0, width, height, PixelFormat.getIntArgbInstance(), pixels, 0, width);
+    }
+}
@@ -0,0 +1,267 @@
+/*
+ * SpectrogramTileView.java
+ * Description: Shows the spectrogram as tiles, generating only the tiles that are visible.
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public Licence as published by the Free Software Foundation, either version 3 of the
+ * Licence, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public Licence for more details.
+ *
+ * You should have received a copy of the GNU General Public Licence along with this program. If
+ * not, see <https://www.gnu.org/licenses/>
+ *
+ * Copyright © AudiTranscribe Team
+ */
+
+package app.auditranscribe.fxml.plotting;
+
+import app.auditranscribe.generic.LoggableClass;
+import app.auditranscribe.generic.tuples.Pair;
+import app.auditranscribe.misc.ExcludeFromGeneratedCoverageReport;
+import app.auditranscribe.misc.LRUCache;
+import javafx.application.Platform;
+import javafx.scene.control.ScrollPane;
+import javafx.scene.image.ImageView;
+import javafx.scene.layout.Pane;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+
+/**
+ * Shows the spectrogram as a row of fixed-width tiles.<br>
+ * Only the tiles that intersect the scroll pane's viewport (plus a small prefetch margin) are
+ * generated and shown. Tiles are generated on a dedicated background thread, which is not shared
+ * with the signal processing pool, and are shown once they are ready; until then, an out-of-date
+ * tile is shown if there is one. Generated tiles are kept in a least-recently-used cache, so
+ * scrolling back and forth does not generate them again.<br>
+ * All methods must be called on the JavaFX application thread.
+ */
+@ExcludeFromGeneratedCoverageReport
+public class SpectrogramTileView extends LoggableClass {
+    // Constants
+    public static final int MAX_NUM_CACHED_TILES = 32;
+    public static final int NUM_PREFETCHED_TILES = 1;  // Number of tiles to prepare on each side of the viewport
+
+    private static final ExecutorService TILE_GENERATOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = Executors.defaultThreadFactory().newThread(runnable);
+        thread.setName("spectrogram-tile-generator");
+        thread.setDaemon(true);  // Make it so that it can shut down gracefully by placing it in background
+        return thread;
+    });
+
+    // Attributes
+    private final Spectrogram spectrogram;
+    private final Pane tilePane;
+    private final ScrollPane scrollPane;
+    private final double scaleX;
+    private final double scaleY;
+
+    private double zoom = 1;
+
+    private final LRUCache<Integer, Pair<SpectrogramTile, Integer>> tileCache = new LRUCache<>(MAX_NUM_CACHED_TILES);
+    private final Map<Integer, ImageView> shownTiles = new HashMap<>();
+    private final Map<Integer, Integer> pendingTiles = new HashMap<>();  // Versions of the tiles being generated
+
+    private int generation = 0;  // Incremented whenever the generated tiles become invalid
+
+    /**
+     * Initialization method for a new <code>SpectrogramTileView</code>.<br>
+     * The view updates itself whenever the scroll pane is scrolled or resized.
+     *
+     * @param spectrogram The spectrogram to show.
+     * @param tilePane    Pane to place the tiles in. It should be at the back of the scroll pane's
+     *                    content.
+     * @param scrollPane  Scroll pane that the spectrogram is viewed through.
+     * @param scaleX      Number of on-screen pixels per horizontal pixel of the spectrogram.
+     * @param scaleY      Number of on-screen pixels per vertical pixel of the spectrogram.
+     */
+    public SpectrogramTileView(
+            Spectrogram spectrogram, Pane tilePane, ScrollPane scrollPane, double scaleX, double scaleY
+    ) {
+        this.spectrogram = spectrogram;
+        this.tilePane = tilePane;
+        this.scrollPane = scrollPane;
+        this.scaleX = scaleX;
+        this.scaleY = scaleY;
+
+        scrollPane.hvalueProperty().addListener((observable, oldValue, newValue) -> update());
+        scrollPane.viewportBoundsProperty().addListener((observable, oldValue, newValue) -> update());
+    }
+
+    // Getter/setter methods
+
+    public double getZoom() {
+        return zoom;
+    }
+
+    /**
+     * Sets the horizontal zoom of the spectrogram image, and shows the tiles at the new zoom.<br>
+     * The tiles at the new zoom are drawn from the nearest level of the spectrogram's magnitude
+     * pyramid, so this does not recompute the spectrogram. The caller should resize the scroll
+     * pane's content to the new width of the image.
+     *
+     * @param zoom Horizontal zoom factor. A zoom of 1 shows the spectrogram at its normal width.
+     */
+    public void setZoom(double zoom) {
+        if (this.zoom == zoom) return;
+        this.zoom = zoom;
+
+        // The shown tiles, and the tiles being generated, are at the old zoom
+        tilePane.getChildren().removeAll(shownTiles.values());
+        shownTiles.clear();
+        refresh();
+    }
+
+    /**
+     * Sets the colour scale of the spectrogram image.<br>
+     * The cached tiles are recoloured in place from their quantised intensities, so this does not
+     * generate any tile again.
+     *
+     * @param colourScale The new colour scale.
+     */
+    public void setColourScale(ColourScale colourScale) {
+        spectrogram.setColourScale(colourScale);
+
+        int[] colourMap = spectrogram.getColourMap();
+        for (Pair<SpectrogramTile, Integer> cachedTile : tileCache.values()) cachedTile.value0().recolour(colourMap);
+
+        log(Level.FINE, "Recoloured " + tileCache.size() + " spectrogram tiles using " + colourScale);
+    }
+
+    // Public methods
+
+    /**
+     * Shows the tiles that intersect the viewport, and removes the tiles that no longer intersect
+     * it.<br>
+     * Tiles that are not cached or that are out of date are generated in the background; the
+     * view is updated again once each of them is ready.
+     */
+    public void update() {
+        // Determine the horizontal range of the viewport, in spectrogram pixels
+        double contentWidth = spectrogram.getImageWidth(zoom) * scaleX;
+        double viewportWidth = scrollPane.getViewportBounds().getWidth();
+        double viewportMinX = scrollPane.getHvalue() * Math.max(0, contentWidth - viewportWidth);
+
+        int numTiles = spectrogram.getNumTiles(zoom);
+        int firstTile = (int) (viewportMinX / scaleX) / Spectrogram.TILE_WIDTH - NUM_PREFETCHED_TILES;
+        int lastTile = (int) ((viewportMinX + viewportWidth) / scaleX) / Spectrogram.TILE_WIDTH + NUM_PREFETCHED_TILES;
+
+        firstTile = Math.max(0, firstTile);
+        lastTile = Math.min(numTiles - 1, lastTile);
+
+        // Remove the tiles that are out of range
+        Iterator<Map.Entry<Integer, ImageView>> iterator = shownTiles.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Integer, ImageView> entry = iterator.next();
+            if (entry.getKey() < firstTile || entry.getKey() > lastTile) {
+                tilePane.getChildren().remove(entry.getValue());
+                iterator.remove();
+            }
+        }
+
+        // Show the tiles that are in range
+        for (int tileIndex = firstTile; tileIndex <= lastTile; tileIndex++) {
+            SpectrogramTile tile = getTile(tileIndex);
+            if (tile == null) continue;
+
+            ImageView tileView = shownTiles.get(tileIndex);
+            if (tileView == null) {
+                tileView = new ImageView();
+                tileView.setLayoutX(tileIndex * Spectrogram.TILE_WIDTH * scaleX);
+                tileView.setLayoutY(0);
+                tileView.setFitWidth(tile.width * scaleX);
+                tileView.setFitHeight(tile.height * scaleY);
+
+                tilePane.getChildren().add(tileView);
+                shownTiles.put(tileIndex, tileView);
+            }
+
+            if (tileView.getImage() != tile.getImage()) tileView.setImage(tile.getImage());
+        }
+    }
+
+    /**
+     * Discards all generated tiles and generates the visible ones again.<br>
+     * Should be called if the tiles change without their data being refined. A change of colour
+     * scale does not need this; see {@link #setColourScale(ColourScale)}.
+     */
+    public void refresh() {
+        generation++;
+        pendingTiles.clear();
+        tileCache.clear();
+        update();
+    }
+
+    // Private methods
+
+    /**
+     * Helper method that gets the cached tile, requesting the up-to-date tile if the cached tile is
+     * missing or out of date.<br>
+     * A cached tile is recoloured if the colour scale changed since it was generated.
+     *
+     * @param tileIndex Index of the tile.
+     * @return The cached tile, which may be out of date, or <code>null</code> if no tile is cached.
+     */
+    private SpectrogramTile getTile(int tileIndex) {
+        int version = spectrogram.getTileVersion(tileIndex, zoom);
+        if (version < 0) return null;
+
+        Pair<SpectrogramTile, Integer> cachedTile = tileCache.get(tileIndex);
+        if (cachedTile == null || cachedTile.value1() != version) requestTile(tileIndex, version);
+        if (cachedTile == null) return null;
+
+        cachedTile.value0().recolour(spectrogram.getColourMap());
+        return cachedTile.value0();
+    }
+
+    /**
+     * Helper method that generates a tile in the background, unless it is already being generated
+     * at the same version.<br>
+     * Once the tile is ready, it is cached and the view is updated on the JavaFX application
+     * thread. Tiles that were requested before the zoom changed or the view was refreshed are
+     * discarded.
+     *
+     * @param tileIndex Index of the tile.
+     * @param version   Version of the tile to generate.
+     */
+    private void requestTile(int tileIndex, int version) {
+        Integer pendingVersion = pendingTiles.get(tileIndex);
+        if (pendingVersion != null && pendingVersion == version) return;
+        pendingTiles.put(tileIndex, version);
+
+        int requestGeneration = generation;
+        double requestZoom = zoom;
+
+        TILE_GENERATOR.execute(() -> {
+            SpectrogramTile tile;
+            try {
+                tile = spectrogram.generateTile(tileIndex, requestZoom);
+            } catch (RuntimeException e) {
+                logException(e);
+                Platform.runLater(() -> {
+                    if (requestGeneration == generation) pendingTiles.remove(tileIndex, version);
+                });
+                return;
+            }
+            log(Level.FINE, "Generated spectrogram tile " + tileIndex + " at version " + version);
+
+            Platform.runLater(() -> {
+                if (requestGeneration != generation) return;  // Tile is at an old zoom, or was discarded
+                pendingTiles.remove(tileIndex, version);
+
+                Pair<SpectrogramTile, Integer> cachedTile = tileCache.get(tileIndex);
+                if (cachedTile == null || cachedTile.value1() <= version) {
+                    tileCache.put(tileIndex, new Pair<>(tile, version));
+                }
+                update();
+            });
+        });
+    }
+}
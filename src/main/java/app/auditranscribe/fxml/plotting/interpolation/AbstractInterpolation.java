@@ -19,6 +19,9 @@
 package app.auditranscribe.fxml.plotting.interpolation;
 
 import app.auditranscribe.generic.exceptions.LengthException;
+import app.auditranscribe.generic.tuples.Quadruple;
+
+import java.util.function.ObjIntConsumer;
 
 /**
  * Abstract interpolation class.
@@ -36,10 +39,126 @@ public abstract class AbstractInterpolation {
      * @throws LengthException If the new lengths specified are shorter than the original lengths.
      */
     public double[][] interpolate(double[][] array, int lengthXNew, int lengthYNew) {
-        // Get the current `lengthX` and `lengthY`
-        int lengthX = array.length;
-        int lengthY = array[0].length;
+        Quadruple<double[], double[], double[], double[]> coordinates = generateCoordinates(
+                array.length, array[0].length, lengthXNew, lengthYNew
+        );
+        return interpolationFunction(
+                coordinates.value0(), coordinates.value1(), array, coordinates.value2(), coordinates.value3()
+        );
+    }
+
+    /**
+     * Interpolate the single precision <code>array</code> to have the new shape
+     * <code>(lengthXNew, lengthYNew)</code>.
+     *
+     * @param array      Original array of values.
+     * @param lengthXNew New number of sub-arrays present in the 2D array.
+     * @param lengthYNew New length of one subarray.
+     * @return Interpolated array.
+     * @throws LengthException If the new lengths specified are shorter than the original lengths.
+     */
+    public float[][] interpolate(float[][] array, int lengthXNew, int lengthYNew) {
+        Quadruple<double[], double[], double[], double[]> coordinates = generateCoordinates(
+                array.length, array[0].length, lengthXNew, lengthYNew
+        );
+        return interpolationFunction(
+                coordinates.value0(), coordinates.value1(), array, coordinates.value2(), coordinates.value3()
+        );
+    }
+
+    /**
+     * Interpolate the single precision <code>array</code> at the given coordinates.<br>
+     * Coordinates are fractional indices into <code>array</code>, so this can be used to compute
+     * only a region of a larger interpolated array.
+     *
+     * @param array Original array of values.
+     * @param XNew  Fractional indices of the sub-arrays to interpolate at, in ascending order.
+     * @param YNew  Fractional indices within each sub-array to interpolate at, in ascending order.
+     * @return Interpolated array, where <code>ZNew[i][j]</code> is the value at
+     * <code>(XNew[i], YNew[j])</code>.
+     */
+    public float[][] interpolate(float[][] array, double[] XNew, double[] YNew) {
+        return interpolationFunction(indexCoordinates(array.length), indexCoordinates(array[0].length), array, XNew, YNew);
+    }
 
+    /**
+     * Interpolate the single precision <code>array</code> at the given coordinates, passing each
+     * new row to <code>rowConsumer</code>.
+     *
+     * @param array       Original array of values.
+     * @param XNew        Fractional indices of the sub-arrays to interpolate at, in ascending order.
+     * @param YNew        Fractional indices within each sub-array to interpolate at, in ascending
+     *                    order.
+     * @param rowConsumer Receives each new row along with its index. The row array must not be
+     *                    kept after the consumer returns.
+     * @param parallel    Whether the new rows may be computed in parallel. If so, the consumer may
+     *                    be called by several threads at once.
+     */
+    public void interpolate(
+            float[][] array, double[] XNew, double[] YNew, ObjIntConsumer<float[]> rowConsumer, boolean parallel
+    ) {
+        float[][] ZNew = interpolate(array, XNew, YNew);
+        for (int i = 0; i < ZNew.length; i++) rowConsumer.accept(ZNew[i], i);
+    }
+
+    // Package-protected methods
+    /**
+     * Method that performs the interpolation.
+     *
+     * @param X    Array of x values.
+     * @param Y    Array of y values.
+     * @param Z    Array of values.<br>
+     *             The point <code>(X[i], Y[j])</code> has a value of <code>Z[i][j]</code>.
+     * @param XNew Array of new x values.
+     * @param YNew Array of new y values.
+     * @return Array of new values, <code>ZNew</code>, where the point <code>(XNew[i], YNew[j])</code> has
+     * a value of <code>ZNew[i][j]</code>.
+     */
+    abstract double[][] interpolationFunction(double[] X, double[] Y, double[][] Z, double[] XNew, double[] YNew);
+
+    /**
+     * Method that performs the interpolation on single precision values.
+     *
+     * @param X    Array of x values.
+     * @param Y    Array of y values.
+     * @param Z    Array of values.<br>
+     *             The point <code>(X[i], Y[j])</code> has a value of <code>Z[i][j]</code>.
+     * @param XNew Array of new x values.
+     * @param YNew Array of new y values.
+     * @return Array of new values, <code>ZNew</code>, where the point <code>(XNew[i], YNew[j])</code> has
+     * a value of <code>ZNew[i][j]</code>.
+     */
+    abstract float[][] interpolationFunction(double[] X, double[] Y, float[][] Z, double[] XNew, double[] YNew);
+
+    /**
+     * Helper method that generates the coordinates of the values of an array, which are just their
+     * indices.
+     *
+     * @param length Length of the array.
+     * @return Array of coordinates <code>0, 1, ..., length - 1</code>.
+     */
+    static double[] indexCoordinates(int length) {
+        double[] coordinates = new double[length];
+        for (int i = 0; i < length; i++) coordinates[i] = i;
+        return coordinates;
+    }
+
+    // Private methods
+
+    /**
+     * Helper method that generates the coordinates of the original and interpolated values.
+     *
+     * @param lengthX    Original number of sub-arrays present in the 2D array.
+     * @param lengthY    Original length of one subarray.
+     * @param lengthXNew New number of sub-arrays present in the 2D array.
+     * @param lengthYNew New length of one subarray.
+     * @return Four arrays: the original x values, the original y values, the new x values, and the
+     * new y values.
+     * @throws LengthException If the new lengths specified are shorter than the original lengths.
+     */
+    private static Quadruple<double[], double[], double[], double[]> generateCoordinates(
+            int lengthX, int lengthY, int lengthXNew, int lengthYNew
+    ) {
         // Ensure that the new length is not shorter than the old length
         if (lengthXNew < lengthX) {
             throw new LengthException("New X length " + lengthXNew + " shorter than original X length " + lengthX);
@@ -53,12 +172,9 @@ public abstract class AbstractInterpolation {
         double xRatio = (double) (lengthX - 1) / (lengthXNew - 1);
         double yRatio = (double) (lengthY - 1) / (lengthYNew - 1);
 
-        // Create arrays to use in the helper function
-        double[] X = new double[lengthX];
-        for (int x = 0; x < lengthX; x++) X[x] = x;
-
-        double[] Y = new double[lengthY];
-        for (int y = 0; y < lengthY; y++) Y[y] = y;
+        // Create the coordinate arrays
+        double[] X = indexCoordinates(lengthX);
+        double[] Y = indexCoordinates(lengthY);
 
         double[] XNew = new double[lengthXNew];
         for (int x = 0; x < lengthXNew; x++) XNew[x] = x * xRatio;
@@ -66,22 +182,6 @@ public abstract class AbstractInterpolation {
         double[] YNew = new double[lengthYNew];
         for (int y = 0; y < lengthYNew; y++) YNew[y] = y * yRatio;
 
-        // Now use the helper function to generate the output matrix
-        return interpolationFunction(X, Y, array, XNew, YNew);
+        return new Quadruple<>(X, Y, XNew, YNew);
     }
-
-    // Package-protected methods
-    /**
-     * Method that performs the interpolation.
-     *
-     * @param X    Array of x values.
-     * @param Y    Array of y values.
-     * @param Z    Array of values.<br>
-     *             The point <code>(X[i], Y[j])</code> has a value of <code>Z[i][j]</code>.
-     * @param XNew Array of new x values.
-     * @param YNew Array of new y values.
-     * @return Array of new values, <code>ZNew</code>, where the point <code>(XNew[i], YNew[j])</code> has
-     * a value of <code>ZNew[i][j]</code>.
-     */
-    abstract double[][] interpolationFunction(double[] X, double[] Y, double[][] Z, double[] XNew, double[] YNew);
 }
@@ -18,13 +18,68 @@
 
 package app.auditranscribe.fxml.plotting.interpolation;
 
+import app.auditranscribe.signal.SignalProcessingPool;
 import app.auditranscribe.utils.ArrayUtils;
 import app.auditranscribe.utils.MathUtils;
 
+import java.util.function.IntConsumer;
+import java.util.function.ObjIntConsumer;
+import java.util.stream.IntStream;
+
 /**
- * Class that handles the bilinear interpolation method.
+ * Class that handles the bilinear interpolation method.<br>
+ * Bilinear interpolation is separable, so the indices and weights of the known points are computed
+ * once per new x value and once per new y value. Each new row is then found by interpolating two
+ * rows of known values in the x direction, and then interpolating the result in the y direction.
  */
 public class BilinearInterpolation extends AbstractInterpolation {
+    // Constants
+    static final int ROW_BLOCK_SIZE = 16;  // Number of new rows that are interpolated by each parallel task
+
+    // Public methods
+
+    /**
+     * Interpolate the single precision <code>array</code> at the given coordinates, passing each
+     * new row to <code>rowConsumer</code> instead of storing the whole interpolated array.
+     *
+     * @param array       Original array of values.
+     * @param XNew        Fractional indices of the sub-arrays to interpolate at, in ascending order.
+     * @param YNew        Fractional indices within each sub-array to interpolate at, in ascending
+     *                    order.
+     * @param rowConsumer Receives each new row along with its index. The row array is reused after
+     *                    the consumer returns, so it must not be kept.
+     * @param parallel    Whether to interpolate blocks of new rows in parallel. If so, the
+     *                    consumer may be called by several threads at once.
+     */
+    @Override
+    public void interpolate(
+            float[][] array, double[] XNew, double[] YNew, ObjIntConsumer<float[]> rowConsumer, boolean parallel
+    ) {
+        // Compute the indices and weights of the known points once per axis
+        AxisWeights xWeights = new AxisWeights(indexCoordinates(array.length), XNew);
+        AxisWeights yWeights = new AxisWeights(indexCoordinates(array[0].length), YNew);
+
+        // Interpolate the new rows, one block of rows at a time
+        int numBlocks = (XNew.length + ROW_BLOCK_SIZE - 1) / ROW_BLOCK_SIZE;
+        IntConsumer blockTask = block -> {
+            double[] xInterpolatedRow = new double[array[0].length];
+            float[] newRow = new float[YNew.length];
+
+            int endRow = Math.min(XNew.length, (block + 1) * ROW_BLOCK_SIZE);
+            for (int iNew = block * ROW_BLOCK_SIZE; iNew < endRow; iNew++) {
+                interpolateRow(array, xWeights, yWeights, iNew, xInterpolatedRow);
+                for (int jNew = 0; jNew < newRow.length; jNew++) newRow[jNew] = (float) yWeights.apply(xInterpolatedRow, jNew);
+                rowConsumer.accept(newRow, iNew);
+            }
+        };
+
+        if (parallel) {
+            SignalProcessingPool.getPool().submit(() -> IntStream.range(0, numBlocks).parallel().forEach(blockTask)).join();
+        } else {
+            IntStream.range(0, numBlocks).forEach(blockTask);
+        }
+    }
+
     // Package-protected methods
 
     /**
@@ -45,78 +100,206 @@ public class BilinearInterpolation extends AbstractInterpolation {
     double[][] interpolationFunction(
             double[] X, double[] Y, double[][] Z, double[] XNew, double[] YNew
     ) {
-        // Get the lengths of the arrays
-        int lengthX = X.length;
-        int lengthY = Y.length;
-        int lengthXNew = XNew.length;
-        int lengthYNew = YNew.length;
+        // Compute the indices and weights of the known points once per axis
+        AxisWeights xWeights = new AxisWeights(X, XNew);
+        AxisWeights yWeights = new AxisWeights(Y, YNew);
 
         // Define final interpolated array
-        double[][] ZNew = new double[lengthXNew][lengthYNew];
+        double[][] ZNew = new double[XNew.length][YNew.length];
 
         // Run interpolation algorithm
-        for (int iNew = 0; iNew < lengthXNew; iNew++) {
-            for (int jNew = 0; jNew < lengthYNew; jNew++) {
-                // Get the new `x` and `y` values
-                double xNew = MathUtils.round(XNew[iNew], 10);  // Round to 10 dp to account for possible imprecision
-                double yNew = MathUtils.round(YNew[jNew], 10);  // Same goes for `yNew`
+        double[] xInterpolatedRow = new double[Y.length];
+        for (int iNew = 0; iNew < XNew.length; iNew++) {
+            interpolateRow(Z, xWeights, yWeights, iNew, xInterpolatedRow);
+            for (int jNew = 0; jNew < YNew.length; jNew++) ZNew[iNew][jNew] = yWeights.apply(xInterpolatedRow, jNew);
+        }
 
-                // Find the index of the closest element to `xNew` and `yNew` that is smaller than
-                // them in their respective arrays
-                int i = ArrayUtils.searchSorted(X, xNew) - 1;  // Minus one to take the element replaced
-                int j = ArrayUtils.searchSorted(Y, yNew) - 1;
+        // Return the output
+        return ZNew;
+    }
 
-                // Calculate actual indices
-                int i1, i2, j1, j2;
+    /**
+     * Helper method to perform the bilinear interpolation on single precision values.
+     *
+     * @param X    Array of x values.
+     * @param Y    Array of y values.
+     * @param Z    Array of values.<br>
+     *             The point <code>(X[i], Y[j])</code> has a value of <code>Z[i][j]</code>.
+     * @param XNew Array of new x values.
+     * @param YNew Array of new y values.
+     * @return Array of new values, `ZNew`, where the point <code>(XNew[i], YNew[j])</code> has
+     * a value of <code>ZNew[i][j]</code>.
+     * @implNote <a href="https://en.wikipedia.org/wiki/Bilinear_interpolation#Computation">This
+     * Wikipedia Article</a> on the BilinearInterpolation Interpolation's implementation.
+     */
+    @Override
+    float[][] interpolationFunction(
+            double[] X, double[] Y, float[][] Z, double[] XNew, double[] YNew
+    ) {
+        // Compute the indices and weights of the known points once per axis
+        AxisWeights xWeights = new AxisWeights(X, XNew);
+        AxisWeights yWeights = new AxisWeights(Y, YNew);
 
-                if (i < 0) {  // Handle weird index case; note `i` != `lengthX - 1` as `xNew` is bounded by max X
-                    i1 = lengthX - 1;
-                    i2 = 0;
-                } else {
-                    i1 = i;
-                    i2 = i + 1;
-                }
+        // Define final interpolated array
+        float[][] ZNew = new float[XNew.length][YNew.length];
 
-                if (j < 0) {  // Handle weird index case
-                    j1 = lengthY - 1;
-                    j2 = 0;
+        // Run interpolation algorithm
+        double[] xInterpolatedRow = new double[Y.length];
+        for (int iNew = 0; iNew < XNew.length; iNew++) {
+            interpolateRow(Z, xWeights, yWeights, iNew, xInterpolatedRow);
+            for (int jNew = 0; jNew < YNew.length; jNew++) {
+                ZNew[iNew][jNew] = (float) yWeights.apply(xInterpolatedRow, jNew);
+            }
+        }
+
+        // Return the output
+        return ZNew;
+    }
+
+    // Private methods
+
+    /**
+     * Helper method that interpolates, in the x direction, the known values that are needed for a
+     * new row.<br>
+     * Only the columns that are needed by the new y values are interpolated.
+     *
+     * @param Z        Array of values.
+     * @param xWeights Indices and weights of the new x values.
+     * @param yWeights Indices and weights of the new y values.
+     * @param iNew     Index of the new row.
+     * @param output   Array to store the values of <code>f(xNew, y)</code> in, for each known
+     *                 <code>y</code>.
+     */
+    private static void interpolateRow(
+            double[][] Z, AxisWeights xWeights, AxisWeights yWeights, int iNew, double[] output
+    ) {
+        double[] row1 = Z[xWeights.indices1[iNew]];
+        double[] row2 = Z[xWeights.indices2[iNew]];
+        for (int j : yWeights.neededIndices) output[j] = xWeights.apply(row1[j], row2[j], iNew);
+    }
+
+    /**
+     * Helper method that interpolates, in the x direction, the single precision known values that
+     * are needed for a new row.<br>
+     * Only the columns that are needed by the new y values are interpolated.
+     *
+     * @param Z        Array of values.
+     * @param xWeights Indices and weights of the new x values.
+     * @param yWeights Indices and weights of the new y values.
+     * @param iNew     Index of the new row.
+     * @param output   Array to store the values of <code>f(xNew, y)</code> in, for each known
+     *                 <code>y</code>.
+     */
+    private static void interpolateRow(
+            float[][] Z, AxisWeights xWeights, AxisWeights yWeights, int iNew, double[] output
+    ) {
+        float[] row1 = Z[xWeights.indices1[iNew]];
+        float[] row2 = Z[xWeights.indices2[iNew]];
+        for (int j : yWeights.neededIndices) output[j] = xWeights.apply(row1[j], row2[j], iNew);
+    }
+
+    // Helper classes
+
+    /**
+     * Indices and weights of the known points that are used for each new value along one axis.
+     */
+    private static class AxisWeights {
+        final int[] indices1;
+        final int[] indices2;
+        final double[] coefficients;
+        final double[] weights1;
+        final double[] weights2;
+        final int[] neededIndices;  // Sorted indices of all the known points that are used
+
+        /**
+         * Computes the indices and weights of the known points for each new value.
+         *
+         * @param V    Array of known values along the axis.
+         * @param VNew Array of new values along the axis.
+         */
+        AxisWeights(double[] V, double[] VNew) {
+            int length = V.length;
+            int lengthNew = VNew.length;
+
+            indices1 = new int[lengthNew];
+            indices2 = new int[lengthNew];
+            coefficients = new double[lengthNew];
+            weights1 = new double[lengthNew];
+            weights2 = new double[lengthNew];
+
+            boolean[] isNeeded = new boolean[length];
+            int numNeeded = 0;
+
+            for (int k = 0; k < lengthNew; k++) {
+                // Get the new value
+                double vNew = MathUtils.round(VNew[k], 10);  // Round to 10 dp to account for possible imprecision
+
+                // Find the index of the closest element to `vNew` that is smaller than it
+                int index = ArrayUtils.searchSorted(V, vNew) - 1;  // Minus one to take the element replaced
+
+                // Calculate actual indices
+                int index1, index2;
+                if (index < 0) {  // Handle weird index case; note `index` != `length - 1` as `vNew` is bounded by max V
+                    index1 = length - 1;
+                    index2 = 0;
                 } else {
-                    j1 = j;
-                    j2 = j + 1;
+                    index1 = index;
+                    index2 = index + 1;
                 }
 
-                // Get the known points
-                double x1 = X[i1];
-                double x2 = X[i2];
-
-                double y1 = Y[j1];
-                double y2 = Y[j2];
-
-                // Get the values of `f(x, y1)` and `f(x, y2)`
-                double coefficient, fxy1, fxy2, fxy;
-                if (x1 != x2) {
-                    coefficient = 1. / (x2 - x1);
-                    fxy1 = coefficient * ((x2 - xNew) * Z[i1][j1] + (xNew - x1) * Z[i2][j1]);
-                    fxy2 = coefficient * ((x2 - xNew) * Z[i1][j2] + (xNew - x1) * Z[i2][j2]);
-                } else {  // Have same x-coordinate
-                    fxy1 = Z[i1][j1];
-                    fxy2 = Z[i1][j2];
+                indices1[k] = index1;
+                indices2[k] = index2;
+
+                // Get the weights of the known points
+                double v1 = V[index1];
+                double v2 = V[index2];
+
+                if (v1 != v2) {
+                    coefficients[k] = 1. / (v2 - v1);
+                    weights1[k] = v2 - vNew;
+                    weights2[k] = vNew - v1;
+                } else {  // Have same coordinate
+                    coefficients[k] = Double.NaN;  // Marks that only the first point is used
                 }
 
-                // Proceed to interpolate in the y direction
-                if (y1 != y2) {
-                    coefficient = 1. / (y2 - y1);
-                    fxy = coefficient * ((y2 - yNew) * fxy1 + (yNew - y1) * fxy2);
-                } else {  // Have same y-coordinate
-                    fxy = fxy1;
+                // Record the known points that are used
+                for (int neededIndex : new int[]{index1, index2}) {
+                    if (!isNeeded[neededIndex]) {
+                        isNeeded[neededIndex] = true;
+                        numNeeded++;
+                    }
                 }
+            }
 
-                // Set the value in the output array
-                ZNew[iNew][jNew] = fxy;
+            neededIndices = new int[numNeeded];
+            for (int i = 0, n = 0; i < length; i++) {
+                if (isNeeded[i]) neededIndices[n++] = i;
             }
         }
 
-        // Return the output
-        return ZNew;
+        /**
+         * Interpolates between two known values.
+         *
+         * @param value1 Value at the first known point.
+         * @param value2 Value at the second known point.
+         * @param k      Index of the new value.
+         * @return Interpolated value.
+         */
+        double apply(double value1, double value2, int k) {
+            if (Double.isNaN(coefficients[k])) return value1;
+            return coefficients[k] * (weights1[k] * value1 + weights2[k] * value2);
+        }
+
+        /**
+         * Interpolates between the two known values in <code>values</code> that are used for a new
+         * value.
+         *
+         * @param values Known values along the axis.
+         * @param k      Index of the new value.
+         * @return Interpolated value.
+         */
+        double apply(double[] values, int k) {
+            return apply(values[indices1[k]], values[indices2[k]], k);
+        }
     }
 }
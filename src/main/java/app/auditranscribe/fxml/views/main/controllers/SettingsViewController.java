@@ -32,6 +32,7 @@ import app.auditranscribe.io.data_files.DataFiles;
 import app.auditranscribe.io.data_files.data_encapsulators.SettingsData;
 import app.auditranscribe.misc.CustomLogger;
 import app.auditranscribe.misc.ExcludeFromGeneratedCoverageReport;
+import app.auditranscribe.signal.SignalProcessingPool;
 import app.auditranscribe.utils.GUIUtils;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
@@ -61,7 +62,8 @@ public class SettingsViewController extends AbstractViewController {
 
     private List<Mixer.Info> audioDevices;
 
-    private CustomIntegerSpinnerValueFactory autosaveIntervalSpinnerFactory, logFilePersistenceSpinnerFactory;
+    private CustomIntegerSpinnerValueFactory autosaveIntervalSpinnerFactory, logFilePersistenceSpinnerFactory,
+            signalProcessingThreadsSpinnerFactory;
 
     // FXML elements
     @FXML
@@ -98,6 +100,9 @@ public class SettingsViewController extends AbstractViewController {
     @FXML
     private ChoiceBox<ColourScale> colourScaleChoiceBox;
 
+    @FXML
+    private Spinner<Integer> signalProcessingThreadsSpinner;
+
     // Bottom
     @FXML
     private Button resetToDefaultsButton, cancelButton, okButton;
@@ -294,6 +299,13 @@ public class SettingsViewController extends AbstractViewController {
         );
         logFilePersistenceSpinner.setValueFactory(logFilePersistenceSpinnerFactory);
 
+        signalProcessingThreadsSpinnerFactory = new CustomIntegerSpinnerValueFactory(
+                1, SettingsData.SIGNAL_PROCESSING_THREADS,
+                Math.min(DataFiles.SETTINGS_DATA_FILE.data.signalProcessingThreads, SettingsData.SIGNAL_PROCESSING_THREADS),
+                1, "", " thread(s)"
+        );
+        signalProcessingThreadsSpinner.setValueFactory(signalProcessingThreadsSpinnerFactory);
+
         // Set choice box methods
         themeChoiceBox.setOnAction(event -> AbstractViewController.updateActiveViewsThemes(themeChoiceBox.getValue()));
     }
@@ -327,6 +339,8 @@ public class SettingsViewController extends AbstractViewController {
         DataFiles.SETTINGS_DATA_FILE.data.logFilePersistence = logFilePersistenceSpinner.getValue();
 
         DataFiles.SETTINGS_DATA_FILE.data.colourScaleEnumOrdinal = colourScaleChoiceBox.getValue().ordinal();
+        DataFiles.SETTINGS_DATA_FILE.data.signalProcessingThreads = signalProcessingThreadsSpinner.getValue();
+        SignalProcessingPool.setParallelism(DataFiles.SETTINGS_DATA_FILE.data.signalProcessingThreads);
 
         // Apply settings to the settings file
         DataFiles.SETTINGS_DATA_FILE.saveFile();
@@ -367,6 +381,7 @@ public class SettingsViewController extends AbstractViewController {
                 selectedTabName = "Transcription";
 
                 colourScaleChoiceBox.setValue(ColourScale.values()[SettingsData.COLOUR_SCALE_ENUM_ORDINAL]);
+                signalProcessingThreadsSpinnerFactory.setValue(SettingsData.SIGNAL_PROCESSING_THREADS);
             }
         }
 
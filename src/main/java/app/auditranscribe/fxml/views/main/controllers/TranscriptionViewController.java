@@ -27,6 +27,7 @@ import app.auditranscribe.fxml.plotting.ColourScale;
 import app.auditranscribe.fxml.plotting.PlottingHelper;
 import app.auditranscribe.fxml.plotting.PlottingHelpers;
 import app.auditranscribe.fxml.plotting.Spectrogram;
+import app.auditranscribe.fxml.plotting.SpectrogramTileView;
 import app.auditranscribe.fxml.views.main.ProjectHandler;
 import app.auditranscribe.fxml.views.main.SceneSwitcher;
 import app.auditranscribe.generic.tuples.Pair;
@@ -59,8 +60,6 @@ import javafx.event.EventHandler;
 import javafx.fxml.FXML;
 import javafx.scene.Node;
 import javafx.scene.control.*;
-import javafx.scene.image.ImageView;
-import javafx.scene.image.WritableImage;
 import javafx.scene.input.*;
 import javafx.scene.layout.*;
 import javafx.scene.shape.Line;
@@ -172,6 +171,7 @@ public class TranscriptionViewController extends SwitchableViewController {
     private DebugViewController debugViewController = null;
 
     private boolean isEverythingReady = false;
+    private boolean refineSpectrogram = false;  // Whether the spectrogram being shown is a preview
 
     private String projectName;
 
@@ -243,7 +243,9 @@ public class TranscriptionViewController extends SwitchableViewController {
     private Rectangle colouredProgressRectangle;
 
     @FXML
-    private ImageView spectrogramImage;
+    private Pane spectrogramTilePane;
+
+    private SpectrogramTileView spectrogramTileView;
 
     private Rectangle currentOctaveRectangle;
 
@@ -409,7 +411,16 @@ public class TranscriptionViewController extends SwitchableViewController {
         renameProjectMenuItem.setOnAction(this::handleRenameProject);
         saveProjectMenuItem.setOnAction(event -> handleSavingProject(false, false));
         saveAsMenuItem.setOnAction(event -> handleSavingProject(false, true));
-        settingsMenuItem.setOnAction(event -> SettingsViewController.showSettingsWindow());
+        settingsMenuItem.setOnAction(event -> {
+            SettingsViewController.showSettingsWindow();
+
+            // Recolour the spectrogram in case the colour scale was changed
+            if (spectrogramTileView != null) {
+                spectrogramTileView.setColourScale(
+                        ColourScale.values()[DataFiles.SETTINGS_DATA_FILE.data.colourScaleEnumOrdinal]
+                );
+            }
+        });
         docsMenuItem.setOnAction(event -> GUIUtils.openURLInBrowser("https://docs.auditranscribe.app/"));
         aboutMenuItem.setOnAction(event -> AboutViewController.showAboutWindow());
 
@@ -573,17 +584,19 @@ public class TranscriptionViewController extends SwitchableViewController {
                 PX_PER_SECOND, NUM_PX_PER_OCTAVE
         );
 
-        // Generate spectrogram image based on audio
-        CustomTask<WritableImage> spectrogramTask = new CustomTask<>("Generate Spectrogram") {
+        // Generate a coarse spectrogram first; the full spectrogram is generated once this is shown
+        CustomTask<Void> spectrogramTask = new CustomTask<>("Generate Spectrogram Preview") {
             @Override
-            protected WritableImage call() {
+            protected Void call() {
                 spectrogram.setTask(this);
-                return spectrogram.generateSpectrogram(
+                spectrogram.generatePreviewSpectrogram(
                         GENERATE_SPECTROGRAM_WINDOW,
                         ColourScale.values()[DataFiles.SETTINGS_DATA_FILE.data.colourScaleEnumOrdinal]
                 );
+                return null;
             }
         };
+        refineSpectrogram = true;
 
         // Create an estimation task to estimate both the BPM and the music key
         CustomTask<Quadruple<MusicKey, Double, TimeSignature, Double>> estimationTask = new CustomTask<>(
@@ -658,7 +671,7 @@ public class TranscriptionViewController extends SwitchableViewController {
         };
 
         // Set up tasks
-        setupSpectrogramTask(spectrogramTask, "Generating spectrogram...");
+        setupSpectrogramTask(spectrogramTask, "Generating spectrogram preview...");
         setupEstimationTask(estimationTask);
 
         // Start the tasks
@@ -712,14 +725,15 @@ public class TranscriptionViewController extends SwitchableViewController {
         // (This is to reduce the time needed to save the file later)
         audio.setMP3Bytes(audioData.mp3Bytes);
 
-        // Generate spectrogram image based on existing magnitude data
-        CustomTask<WritableImage> spectrogramTask = new CustomTask<>("Load Spectrogram") {
+        // Generate spectrogram based on existing magnitude data
+        CustomTask<Void> spectrogramTask = new CustomTask<>("Load Spectrogram") {
             @Override
-            protected WritableImage call() {
+            protected Void call() {
                 spectrogram.setTask(this);
-                return spectrogram.generateSpectrogram(
+                spectrogram.generateSpectrogram(
                         ColourScale.values()[DataFiles.SETTINGS_DATA_FILE.data.colourScaleEnumOrdinal]
                 );
+                return null;
             }
         };
 
@@ -1186,6 +1200,20 @@ public class TranscriptionViewController extends SwitchableViewController {
         // Do not do anything if we are not ready
         if (!isEverythingReady) return;
 
+        // The spectrogram data can only be saved once the full spectrogram is ready
+        if (refineSpectrogram) {
+            if (isAutosave) {
+                log("Autosave skipped since the spectrogram is still being refined");
+            } else {
+                Popups.showInformationAlert(
+                        rootPane.getScene().getWindow(),
+                        "Info",
+                        "The spectrogram is still being generated. Please save again once it is done."
+                );
+            }
+            return;
+        }
+
         // Get the save destination
         String saveDest = getSaveDestination(forceChooseFile);
 
@@ -1277,6 +1305,16 @@ public class TranscriptionViewController extends SwitchableViewController {
 
             if (selectedButton.isPresent()) {
                 if (selectedButton.get() == saveAndExit) {
+                    // The spectrogram data can only be saved once the full spectrogram is ready
+                    if (refineSpectrogram) {
+                        Popups.showInformationAlert(
+                                rootPane.getScene().getWindow(),
+                                "Info",
+                                "The spectrogram is still being generated. Please save again once it is done."
+                        );
+                        return false;  // Cannot exit
+                    }
+
                     String saveDest = getSaveDestination(false);
 
                     if (saveDest != null) {
@@ -1348,6 +1386,9 @@ public class TranscriptionViewController extends SwitchableViewController {
                 throw new RuntimeException(e);
             }
 
+            // Ensure that the spectrogram data exists
+            generateMissingSpectrogramData();
+
             // Package audio data for saving
             AudioDataObject audioData = new AudioDataObject0x000B00(mp3Bytes, sampleRate, (int) (audioDuration * 1000));
 
@@ -1390,18 +1431,15 @@ public class TranscriptionViewController extends SwitchableViewController {
      * @param task    The spectrogram task.
      * @param message Message to display at the side of the progress bar.
      */
-    private void setupSpectrogramTask(CustomTask<WritableImage> task, String message) {
+    private void setupSpectrogramTask(CustomTask<Void> task, String message) {
         // Set the task's message
         task.updateMessage(message);
 
         // Set task completion listener
         task.setOnSucceeded(event -> {
-            // Define a variable for the image
-            WritableImage image = task.getValue();
-
             // Get the final width and height
-            finalWidth = image.getWidth() * SPECTROGRAM_ZOOM_SCALE_X;
-            finalHeight = image.getHeight() * SPECTROGRAM_ZOOM_SCALE_Y;
+            finalWidth = spectrogram.width * SPECTROGRAM_ZOOM_SCALE_X;
+            finalHeight = spectrogram.height * SPECTROGRAM_ZOOM_SCALE_Y;
 
             // Fix panes' properties
             leftScrollPane.setFitToWidth(true);
@@ -1483,10 +1521,11 @@ public class TranscriptionViewController extends SwitchableViewController {
                     TimeUnit.MINUTES
             );
 
-            // Set image on the spectrogram area
-            spectrogramImage.setFitHeight(finalWidth);
-            spectrogramImage.setFitWidth(finalHeight);
-            spectrogramImage.setImage(image);
+            // Show the spectrogram tiles on the spectrogram area
+            spectrogramTileView = new SpectrogramTileView(
+                    spectrogram, spectrogramTilePane, spectrogramScrollPane, SPECTROGRAM_ZOOM_SCALE_X,
+                    SPECTROGRAM_ZOOM_SCALE_Y
+            );
 
             // Set the current octave rectangle
             currentOctaveRectangle = PlottingHelper.addCurrentOctaveRectangle(
@@ -1512,10 +1551,10 @@ public class TranscriptionViewController extends SwitchableViewController {
             );
             PlottingHelper.addBarNumberEllipses(barNumberPane, barNumberEllipses);
 
-            // Resize spectrogram image pane
-            // (We do this at the end to ensure that the image is properly placed)
-            spectrogramImage.setFitWidth(finalWidth);
-            spectrogramImage.setFitHeight(finalHeight);
+            // Resize spectrogram tile pane
+            // (We do this at the end to ensure that the tiles are properly placed)
+            spectrogramTilePane.setPrefWidth(finalWidth);
+            spectrogramTilePane.setPrefHeight(finalHeight);
 
             // Resize spectrogram pane
             spectrogramScrollPane.setPrefWidth(finalWidth);
@@ -1526,6 +1565,7 @@ public class TranscriptionViewController extends SwitchableViewController {
 
             // Show the spectrogram from the middle
             spectrogramScrollPane.setVvalue(0.5);
+            spectrogramTileView.update();
 
             // Update volume slider
             audioVolumeSlider.setValue(audioVolume);
@@ -1537,7 +1577,90 @@ public class TranscriptionViewController extends SwitchableViewController {
             // Mark the task as completed and report that the transcription view is ready to be shown
             markTaskAsCompleted(task);
             log("Spectrogram for '" + projectName + "' ready to be shown");
+
+            // Refine the spectrogram preview in the background
+            if (refineSpectrogram) startSpectrogramRefinementTask();
+        });
+    }
+
+    /**
+     * Helper method that starts the task that computes the full spectrogram.<br>
+     * The task runs alongside any other ongoing tasks. The visible tiles of the preview are
+     * redrawn as soon as their time regions are computed, and all tiles are redrawn from the full
+     * spectrogram once the task finishes.
+     */
+    private void startSpectrogramRefinementTask() {
+        CustomTask<Void> task = new CustomTask<>("Generate Spectrogram") {
+            @Override
+            protected Void call() {
+                spectrogram.setTask(this);
+                spectrogram.generateSpectrogram(
+                        GENERATE_SPECTROGRAM_WINDOW,
+                        ColourScale.values()[DataFiles.SETTINGS_DATA_FILE.data.colourScaleEnumOrdinal],
+                        () -> Platform.runLater(spectrogramTileView::update)
+                );
+                return null;
+            }
+        };
+        task.updateMessage("Refining spectrogram...");
+
+        // Set task completion listeners
+        task.setOnSucceeded(event -> {
+            spectrogramTileView.update();
+            refineSpectrogram = false;
+
+            markTaskAsCompleted(task);
+            log("Full spectrogram for '" + projectName + "' ready to be shown");
         });
+
+        task.setOnFailed(event -> {
+            log(Level.SEVERE, "Task '" + task.name + "' failed.");
+            if (task.getException() instanceof Exception) {
+                logException((Exception) task.getException());
+            } else {
+                log(Level.SEVERE, task.getException().getMessage());
+            }
+
+            // Keep showing the preview, but inform the user that the full spectrogram is not available
+            // (The full spectrogram is generated again when the project is next saved)
+            refineSpectrogram = false;
+            Popups.showExceptionAlert(
+                    rootPane.getScene().getWindow(), "An Error Occurred", "Task \"" + task.name + "\" failed.",
+                    task.getException()
+            );
+            markTaskAsCompleted(task);
+        });
+
+        // Queue the task's progress after the other ongoing tasks and start it
+        ongoingTasks.add(task);
+        if (ongoingTasks.peek() == task) {
+            progressBarHBox.setVisible(true);
+            markTaskAsCompleted(null);
+        }
+
+        Thread thread = new Thread(task);
+        thread.setDaemon(true);
+        thread.start();
+
+        log("Started task: '" + task.name + "'");
+    }
+
+    /**
+     * Helper method that generates the full spectrogram data on the calling thread, if it has not
+     * been generated.<br>
+     * This is only needed if the refinement of the spectrogram preview failed. The project can then
+     * still be saved, once the full spectrogram is generated again.
+     */
+    private synchronized void generateMissingSpectrogramData() {
+        if (spectrogram.qTransformDataObject != null) return;
+
+        log("Full spectrogram data missing; generating it before saving");
+        spectrogram.setTask(null);  // The refinement task has failed
+        spectrogram.generateSpectrogram(
+                GENERATE_SPECTROGRAM_WINDOW,
+                ColourScale.values()[DataFiles.SETTINGS_DATA_FILE.data.colourScaleEnumOrdinal]
+        );
+        Platform.runLater(spectrogramTileView::update);
     }
 
     /**
@@ -42,6 +42,9 @@ public final class IOConstants {
     public static final String OTHER_RESOURCES_DATA_FOLDER_PATH = IOMethods.joinPaths(
             IOConstants.APP_DATA_FOLDER_PATH, "other_resources"
     );
+    public static final String FILTER_BASES_FOLDER_PATH = IOMethods.joinPaths(
+            IOConstants.OTHER_RESOURCES_DATA_FOLDER_PATH, "filter_bases"
+    );
 
     public static final String RESOURCES_FOLDER_PATH = IOMethods.joinPaths("app", "auditranscribe");
 
@@ -119,6 +119,71 @@ public final class AUDTFileHelpers {
         return doubleArray;
     }
 
+    /**
+     * Method that converts a 2D float array into a 2D integer array to save space when saving the
+     * file.
+     *
+     * @param array 2D float array to convert.
+     * @return Triplet of values. First value is the 2D integer array. Second value is the minimum
+     * value of the floats array. Final value is the maximum value of the floats array.
+     */
+    public static Triple<int[][], Double, Double> floats2DtoInt2D(float[][] array) {
+        // Get array size
+        int m = array.length;
+        int n = array[0].length;
+
+        // Get minimum and maximum array values
+        double min = Double.MAX_VALUE;
+        double max = -Double.MAX_VALUE;
+        for (float[] row : array) {
+            for (float value : row) {
+                if (value < min) min = value;
+                if (value > max) max = value;
+            }
+        }
+
+        // Convert the floats to integers
+        int[][] intArray = new int[m][n];
+        for (int i = 0; i < m; i++) {
+            for (int j = 0; j < n; j++) {
+                intArray[i][j] = (int) MathUtils.normalize(
+                        array[i][j], min, max, INT_CONVERSION_MINIMUM, INT_CONVERSION_MAXIMUM
+                );
+            }
+        }
+
+        // Return the integer array, minimum value, and maximum value
+        return new Triple<>(intArray, min, max);
+    }
+
+    /**
+     * Method that converts a 2D integer array into a 2D float array to retrieve the
+     * pseudo-original data before conversion.
+     *
+     * @param array    2D integer array to convert.
+     * @param minValue Minimum value of the original floats array.
+     * @param maxValue Maximum value of the original floats array.
+     * @return 2D float array.
+     */
+    public static float[][] int2DtoFloats2D(int[][] array, double minValue, double maxValue) {
+        // Get array size
+        int m = array.length;
+        int n = array[0].length;
+
+        // Convert the integers to floats
+        float[][] floatArray = new float[m][n];
+        for (int i = 0; i < m; i++) {
+            for (int j = 0; j < n; j++) {
+                floatArray[i][j] = (float) MathUtils.normalize(
+                        array[i][j], INT_CONVERSION_MINIMUM, INT_CONVERSION_MAXIMUM, minValue, maxValue
+                );
+            }
+        }
+
+        // Return the float array
+        return floatArray;
+    }
+
     // Compatibility methods
 
     /**
@@ -59,6 +59,23 @@ public abstract class QTransformDataObject extends AbstractAUDTDataObject {
      */
     public abstract double[][] obtainMagnitudesFromData();
 
+    /**
+     * Converts the provided single precision magnitudes into attributes' values.
+     *
+     * @param magnitudes Magnitudes of the spectrogram.
+     * @param task       A <code>CustomTask</code> instance used to track the compression
+     *                   progress.<br>
+     *                   Pass in <code>null</code> if not using a task.
+     */
+    public abstract void setDataUsingMagnitudes(float[][] magnitudes, CustomTask<?> task);
+
+    /**
+     * Converts the attributes' values to single precision magnitude data.
+     *
+     * @return Magnitude data.
+     */
+    public abstract float[][] obtainMagnitudesFromDataAsFloats();
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -105,4 +122,22 @@ public abstract class QTransformDataObject extends AbstractAUDTDataObject {
 
         return new Triple<>(TypeConversionUtils.toByteArray(plainBytes), min, max);
     }
+
+    /**
+     * Helper method that converts the provided single precision magnitudes into byte data.
+     *
+     * @param magnitudes The Q-Transform magnitude data to convert.
+     * @return Triplet of values. First value is the byte data. Second value is the minimum
+     * magnitude of the Q-Transform data. Final value is the maximum magnitude of the Q-Transform
+     * data.
+     */
+    protected static Triple<byte[], Double, Double> magnitudesToUncompressedByteDataHelper(float[][] magnitudes) {
+        // Convert the float data to integer data
+        Triple<int[][], Double, Double> convertedTuple = AUDTFileHelpers.floats2DtoInt2D(magnitudes);
+
+        // Convert the integer data to bytes
+        byte[] plainBytes = ByteConversionHandlers.twoDimensionalIntegerArrayToBytes(convertedTuple.value0());
+
+        return new Triple<>(plainBytes, convertedTuple.value1(), convertedTuple.value2());
+    }
 }
@@ -111,6 +111,24 @@ public class QTransformDataObject0x000B00 extends QTransformDataObject {
         return byteDataToMagnitudes(qTransformBytes, minMagnitude, maxMagnitude);
     }
 
+    @Override
+    public void setDataUsingMagnitudes(float[][] magnitudes, CustomTask<?> task) {
+        Triple<byte[], Double, Double> convertedTuple = magnitudesToUncompressedByteDataHelper(magnitudes);
+        qTransformBytes = CompressionHandlers.deflateCompressFailSilently(convertedTuple.value0(), task);
+        minMagnitude = convertedTuple.value1();
+        maxMagnitude = convertedTuple.value2();
+    }
+
+    @Override
+    public float[][] obtainMagnitudesFromDataAsFloats() {
+        // Decompress the bytes and convert them to a 2D integer array
+        byte[] plainBytes = CompressionHandlers.deflateDecompressFailSilently(qTransformBytes);
+        int[][] intData = ByteConversionHandlers.bytesToTwoDimensionalIntegerArray(plainBytes);
+
+        // Convert the integer data to float
+        return AUDTFileHelpers.int2DtoFloats2D(intData, minMagnitude, maxMagnitude);
+    }
+
     @Override
     public int numBytesNeeded() {
         return 4 +  // Section ID
@@ -42,6 +42,7 @@ public class SettingsData {
     public final static int LOG_FILE_PERSISTENCE = 5;  // In days
 
     public final static int COLOUR_SCALE_ENUM_ORDINAL = ColourScale.VIRIDIS.ordinal();
+    public final static int SIGNAL_PROCESSING_THREADS = Runtime.getRuntime().availableProcessors();
 
     public final static int THEME_ENUM_ORDINAL = Theme.DARK.ordinal();
 
@@ -56,6 +57,7 @@ public class SettingsData {
 
     // Transcription data
     public int colourScaleEnumOrdinal = COLOUR_SCALE_ENUM_ORDINAL;
+    public int signalProcessingThreads = SIGNAL_PROCESSING_THREADS;
 
     // Miscellaneous data
     public int themeEnumOrdinal = THEME_ENUM_ORDINAL;
@@ -0,0 +1,62 @@
+/*
+ * ByteRingBuffer.java
+ * Description: Lock-free single-producer single-consumer ring buffer of `byte` values.
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public Licence as published by the Free Software Foundation, either version 3 of the
+ * Licence, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public Licence for more details.
+ *
+ * You should have received a copy of the GNU General Public Licence along with this program. If
+ * not, see <https://www.gnu.org/licenses/>
+ *
+ * Copyright © AudiTranscribe Team
+ */
+
+package app.auditranscribe.misc;
+
+/**
+ * Bounded ring buffer of <code>byte</code> values, which one thread writes to and another thread
+ * reads from without locking or boxing.
+ *
+ * @see RingBuffer
+ */
+public class ByteRingBuffer extends RingBuffer {
+    /**
+     * Initializes a new <code>ByteRingBuffer</code>.
+     *
+     * @param capacity Maximum number of values that the buffer can hold.
+     */
+    public ByteRingBuffer(int capacity) {
+        super(new byte[Math.max(capacity, 0)], capacity);
+    }
+
+    // Public methods
+
+    /**
+     * Writes as many values as there is space for. Must only be called by the writing thread.
+     *
+     * @param src Array to copy the values from.
+     * @param off Index of the first value to write.
+     * @param len Maximum number of values to write.
+     * @return Number of values that were written.
+     */
+    public int write(byte[] src, int off, int len) {
+        return writeElements(src, off, len);
+    }
+
+    /**
+     * Reads as many values as are available. Must only be called by the reading thread.
+     *
+     * @param dst Array to copy the values into.
+     * @param off Index to place the first value at.
+     * @param len Maximum number of values to read.
+     * @return Number of values that were read.
+     */
+    public int read(byte[] dst, int off, int len) {
+        return readElements(dst, off, len);
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * LRUCache.java
+ * Description: Implements a bounded least-recently-used cache that is thread safe.
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public Licence as published by the Free Software Foundation, either version 3 of the
+ * Licence, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public Licence for more details.
+ *
+ * You should have received a copy of the GNU General Public Licence along with this program. If
+ * not, see <https://www.gnu.org/licenses/>
+ *
+ * Copyright © AudiTranscribe Team
+ */
+
+package app.auditranscribe.misc;
+
+import app.auditranscribe.generic.exceptions.ValueException;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Implements a bounded least-recently-used (LRU) cache that is thread safe.<br>
+ * Each value has a weight (1 by default, so that the cache is bounded by its number of entries).
+ * Once the total weight of the values exceeds the maximum weight, the entries that were accessed
+ * least recently are evicted. All operations hold the same lock, and the cache does not store
+ * <code>null</code> values.
+ *
+ * @param <K> Type of the keys of the cache.
+ * @param <V> Type of the values stored in the cache.
+ */
+public class LRUCache<K, V> {
+    // Attributes
+    private final long maxWeight;
+    private final ToLongFunction<? super V> weigher;
+    private final LinkedHashMap<K, V> map = new LinkedHashMap<>(16, 0.75f, true);  // Eldest is least recently used
+
+    private long totalWeight = 0;
+
+    /**
+     * Initializes a new <code>LRUCache</code> that is bounded by its number of entries.
+     *
+     * @param maxSize Maximum number of entries that can be stored in the cache.
+     * @throws ValueException If the maximum size is not positive.
+     */
+    public LRUCache(int maxSize) {
+        this(maxSize, value -> 1);
+    }
+
+    /**
+     * Initializes a new <code>LRUCache</code> that is bounded by the total weight of its values.
+     *
+     * @param maxWeight Maximum total weight of the values stored in the cache.
+     * @param weigher   Computes the weight of a value (e.g., its estimated size in bytes). The
+     *                  weight of a value must not change while it is cached.
+     * @throws ValueException If the maximum weight is not positive.
+     */
+    public LRUCache(long maxWeight, ToLongFunction<? super V> weigher) {
+        if (maxWeight <= 0) throw new ValueException("Maximum weight of the cache must be positive");
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+    }
+
+    // Getter/setter methods
+    public long getMaxWeight() {
+        return maxWeight;
+    }
+
+    public synchronized long getTotalWeight() {
+        return totalWeight;
+    }
+
+    // Public methods
+
+    /**
+     * Returns the value associated with the key, marking the key as recently used.
+     *
+     * @param key The key whose value is to be returned.
+     * @return The cached value of the key, or <code>null</code> if the key is not cached.
+     */
+    public synchronized V get(K key) {
+        return map.get(key);
+    }
+
+    /**
+     * Associates the value with the key, evicting the least recently used entry if needed.
+     *
+     * @param key   The key to associate the value with.
+     * @param value The value to cache.
+     * @return The value that was previously associated with the key, or <code>null</code> if there
+     * was none.
+     * @throws ValueException If the value is <code>null</code>.
+     */
+    public synchronized V put(K key, V value) {
+        if (value == null) throw new ValueException("Cannot cache a null value");
+        return putAndEvict(key, value);
+    }
+
+    /**
+     * Removes the value associated with the key.
+     *
+     * @param key The key whose value is to be removed.
+     * @return The value that was associated with the key, or <code>null</code> if there was none.
+     */
+    public synchronized V remove(K key) {
+        V value = map.remove(key);
+        if (value != null) totalWeight -= weigher.applyAsLong(value);
+        return value;
+    }
+
+    public synchronized boolean containsKey(K key) {
+        return map.containsKey(key);
+    }
+
+    public synchronized int size() {
+        return map.size();
+    }
+
+    public synchronized void clear() {
+        map.clear();
+        totalWeight = 0;
+    }
+
+    /**
+     * Returns a snapshot of the cached values, from the least to the most recently used.<br>
+     * The snapshot is not updated when the cache changes, so it can be iterated over while other
+     * threads use the cache.
+     *
+     * @return List of the cached values.
+     */
+    public synchronized List<V> values() {
+        return new ArrayList<>(map.values());
+    }
+
+    /**
+     * Returns the value associated with the key, computing and caching it if it is absent.<br>
+     * The value is computed outside the lock, so two threads may compute the same value at the same
+     * time; only the first one to finish is kept. If the computed value is <code>null</code>,
+     * nothing is cached.
+     *
+     * @param key             The key whose value is to be returned.
+     * @param mappingFunction Function that computes the value of the key if it is not cached.
+     * @return The cached value of the key, or <code>null</code> if the computed value is
+     * <code>null</code>.
+     */
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        V value = get(key);
+        if (value != null) return value;
+
+        V newValue = mappingFunction.apply(key);
+        if (newValue == null) return null;
+
+        synchronized (this) {
+            V existingValue = map.get(key);
+            if (existingValue != null) return existingValue;
+            putAndEvict(key, newValue);
+            return newValue;
+        }
+    }
+
+    // Private methods
+
+    /**
+     * Helper method that associates the value with the key, and then evicts the least recently
+     * used entries until the total weight is within the maximum weight.<br>
+     * A value that is heavier than the maximum weight is evicted straight away. Must be called
+     * while holding the lock.
+     *
+     * @param key   The key to associate the value with.
+     * @param value The value to cache.
+     * @return The value that was previously associated with the key, or <code>null</code> if there
+     * was none.
+     */
+    private V putAndEvict(K key, V value) {
+        V oldValue = map.put(key, value);
+        totalWeight += weigher.applyAsLong(value);
+        if (oldValue != null) totalWeight -= weigher.applyAsLong(oldValue);
+
+        Iterator<Map.Entry<K, V>> iterator = map.entrySet().iterator();
+        while (totalWeight > maxWeight && iterator.hasNext()) {
+            totalWeight -= weigher.applyAsLong(iterator.next().getValue());
+            iterator.remove();
+        }
+
+        return oldValue;
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * RingBuffer.java
+ * Description: Base class of the lock-free single-producer single-consumer primitive ring buffers.
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public Licence as published by the Free Software Foundation, either version 3 of the
+ * Licence, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public Licence for more details.
+ *
+ * You should have received a copy of the GNU General Public Licence along with this program. If
+ * not, see <https://www.gnu.org/licenses/>
+ *
+ * Copyright © AudiTranscribe Team
+ */
+
+package app.auditranscribe.misc;
+
+import app.auditranscribe.generic.exceptions.ValueException;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Base class of a bounded ring buffer over a primitive array, which one thread writes to and
+ * another thread reads from without locking.<br>
+ * The buffer keeps two ever-increasing indices: the number of elements ever written, and the number
+ * of elements ever read. Only the writing thread advances the write index. The read index is
+ * advanced by the reading thread, or by {@link #clear()}; both do so with a compare-and-set, so
+ * clearing the buffer from a third thread is also safe.<br>
+ * Elements are copied in bulk with <code>System.arraycopy</code>, in at most two pieces (before
+ * and after the end of the array is reached).
+ */
+public abstract class RingBuffer {
+    // Attributes
+    private final Object array;
+    private final int capacity;
+
+    private final AtomicLong writeIndex = new AtomicLong(0);
+    private final AtomicLong readIndex = new AtomicLong(0);
+
+    /**
+     * Initializes a new <code>RingBuffer</code>.
+     *
+     * @param array    The primitive array that backs the buffer. Its length is the buffer's
+     *                 capacity.
+     * @param capacity Length of <code>array</code>.
+     * @throws ValueException If the capacity is not positive.
+     */
+    protected RingBuffer(Object array, int capacity) {
+        if (capacity <= 0) throw new ValueException("Capacity of the ring buffer must be positive");
+        this.array = array;
+        this.capacity = capacity;
+    }
+
+    // Getter/setter methods
+    public int getCapacity() {
+        return capacity;
+    }
+
+    // Public methods
+
+    /**
+     * Finds the number of elements that can be read.<br>
+     * When called by the reading thread, at least this many elements can be read.
+     *
+     * @return Number of elements in the buffer.
+     */
+    public int size() {
+        long read = readIndex.get();
+        return (int) (writeIndex.get() - read);
+    }
+
+    /**
+     * Finds the number of elements that can be written.<br>
+     * When called by the writing thread, at least this many elements can be written.
+     *
+     * @return Number of free spaces in the buffer.
+     */
+    public int remainingCapacity() {
+        return capacity - size();
+    }
+
+    /**
+     * Discards all the elements in the buffer.<br>
+     * Elements that are being written at the same time may or may not be discarded.
+     */
+    public void clear() {
+        while (true) {
+            long read = readIndex.get();
+            if (readIndex.compareAndSet(read, writeIndex.get())) return;
+        }
+    }
+
+    // Protected methods
+
+    /**
+     * Writes as many elements as there is space for. Must only be called by the writing thread.
+     *
+     * @param src Primitive array to copy the elements from.
+     * @param off Index of the first element to write.
+     * @param len Maximum number of elements to write.
+     * @return Number of elements that were written.
+     */
+    protected int writeElements(Object src, int off, int len) {
+        long write = writeIndex.get();
+        int numToWrite = Math.min(len, capacity - (int) (write - readIndex.get()));
+        if (numToWrite <= 0) return 0;
+
+        copy(src, off, array, (int) (write % capacity), numToWrite, true);
+        writeIndex.set(write + numToWrite);  // Publishes the elements to the reading thread
+        return numToWrite;
+    }
+
+    /**
+     * Reads as many elements as are available. Must only be called by the reading thread.
+     *
+     * @param dst Primitive array to copy the elements into.
+     * @param off Index to place the first element at.
+     * @param len Maximum number of elements to read.
+     * @return Number of elements that were read. If the buffer was cleared during the read, no
+     * elements are read.
+     */
+    protected int readElements(Object dst, int off, int len) {
+        long read = readIndex.get();
+        int numToRead = Math.min(len, (int) (writeIndex.get() - read));
+        if (numToRead <= 0) return 0;
+
+        copy(array, (int) (read % capacity), dst, off, numToRead, false);
+        if (!readIndex.compareAndSet(read, read + numToRead)) return 0;  // Buffer was cleared
+        return numToRead;
+    }
+
+    // Private methods
+
+    /**
+     * Helper method that copies elements between the ring buffer's array and a linear array,
+     * wrapping around the end of the ring buffer's array.
+     *
+     * @param src       Source array.
+     * @param srcPos    Starting position in the source array.
+     * @param dst       Destination array.
+     * @param dstPos    Starting position in the destination array.
+     * @param len       Number of elements to copy.
+     * @param intoArray Whether the destination is the ring buffer's array (otherwise the source
+     *                  is).
+     */
+    private void copy(Object src, int srcPos, Object dst, int dstPos, int len, boolean intoArray) {
+        int ringPos = intoArray ? dstPos : srcPos;
+        int firstLen = Math.min(len, capacity - ringPos);
+
+        System.arraycopy(src, srcPos, dst, dstPos, firstLen);
+        if (firstLen < len) {
+            if (intoArray) {
+                System.arraycopy(src, srcPos + firstLen, dst, 0, len - firstLen);
+            } else {
+                System.arraycopy(src, 0, dst, dstPos + firstLen, len - firstLen);
+            }
+        }
+    }
+}
@@ -0,0 +1,238 @@
+/*
+ * SparseComplexMatrix.java
+ * Description: Sparse complex matrix stored in Compressed Sparse Row (CSR) format.
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public Licence as published by the Free Software Foundation, either version 3 of the
+ * Licence, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public Licence for more details.
+ *
+ * You should have received a copy of the GNU General Public Licence along with this program. If
+ * not, see <https://www.gnu.org/licenses/>
+ *
+ * Copyright © AudiTranscribe Team
+ */
+
+package app.auditranscribe.misc;
+
+import app.auditranscribe.generic.exceptions.LengthException;
+import app.auditranscribe.generic.exceptions.ValueException;
+
+import java.util.Arrays;
+
+/**
+ * Sparse complex matrix stored in Compressed Sparse Row (CSR) format.<br>
+ * The non-zero values of row <code>i</code> are stored from index <code>rowPointers[i]</code>
+ * (inclusive) to <code>rowPointers[i + 1]</code> (exclusive) of the value arrays, with their
+ * column indices stored at the same positions of <code>columnIndices</code>.
+ *
+ * @see <a href="https://en.wikipedia.org/wiki/Sparse_matrix#Compressed_sparse_row_(CSR,_CRS_or_Yale_format)">
+ * Compressed sparse row format</a>
+ */
+public class SparseComplexMatrix {
+    // Attributes
+    public final int numRows;
+    public final int numCols;
+
+    private final int[] rowPointers;
+    private final int[] columnIndices;
+    private final double[] realParts;
+    private final double[] imagParts;
+
+    /**
+     * Initialization method for a new <code>SparseComplexMatrix</code>.
+     *
+     * @param numRows       Number of rows of the matrix.
+     * @param numCols       Number of columns of the matrix.
+     * @param rowPointers   Index of the first stored value of each row, followed by the total
+     *                      number of stored values.
+     * @param columnIndices Column index of each stored value.
+     * @param realParts     Real part of each stored value.
+     * @param imagParts     Imaginary part of each stored value.
+     */
+    private SparseComplexMatrix(
+            int numRows, int numCols, int[] rowPointers, int[] columnIndices, double[] realParts, double[] imagParts
+    ) {
+        this.numRows = numRows;
+        this.numCols = numCols;
+        this.rowPointers = rowPointers;
+        this.columnIndices = columnIndices;
+        this.realParts = realParts;
+        this.imagParts = imagParts;
+    }
+
+    // Getter/setter methods
+
+    /**
+     * Returns the number of values that are stored in the matrix.
+     *
+     * @return Number of stored (i.e., non-dropped) values.
+     */
+    public int getNumStoredValues() {
+        return rowPointers[numRows];
+    }
+
+    /**
+     * Estimates the number of bytes of memory that the matrix takes up.
+     *
+     * @return Estimated size of the stored values and their indices, in bytes.
+     */
+    public long estimateNumBytes() {
+        long numValueBytes = (long) getNumStoredValues() * (Integer.BYTES + 2 * Double.BYTES);
+        return numValueBytes + (long) rowPointers.length * Integer.BYTES;
+    }
+
+    // Public methods
+
+    /**
+     * Creates a sparse matrix from a dense matrix, dropping the smallest values of each row.<br>
+     * For each row, the values with the smallest magnitudes are dropped, so long as the sum of the
+     * dropped magnitudes stays below <code>quantile</code> of the total magnitude of the row.
+     *
+     * @param matrix   The dense matrix.
+     * @param quantile Fraction of each row's total magnitude that may be dropped. Must be in the
+     *                 interval [0, 1).
+     * @return The sparse matrix.
+     * @throws ValueException If <code>quantile</code> is not in the interval [0, 1).
+     * @implNote See
+     * <a href="https://librosa.org/doc/main/_modules/librosa/util/utils.html#sparsify_rows">
+     * Librosa's implementation</a> of this method.
+     */
+    public static SparseComplexMatrix fromDense(Complex[][] matrix, double quantile) {
+        if (quantile < 0 || quantile >= 1) {
+            throw new ValueException("Quantile must be in the interval [0, 1), but got " + quantile);
+        }
+
+        int numRows = matrix.length;
+        int numCols = numRows == 0 ? 0 : matrix[0].length;
+
+        // Determine the magnitude threshold of each row
+        double[] thresholds = new double[numRows];
+        int numStoredValues = 0;
+        double[] mags = new double[numCols];
+        double[] sortedMags = new double[numCols];
+
+        for (int i = 0; i < numRows; i++) {
+            // Get the magnitudes of the row, and their total
+            double totalMag = 0;
+            for (int j = 0; j < numCols; j++) {
+                mags[j] = matrix[i][j].abs();
+                totalMag += mags[j];
+            }
+
+            // Rows that are entirely zero store nothing
+            if (totalMag == 0) {
+                thresholds[i] = Double.POSITIVE_INFINITY;
+                continue;
+            }
+
+            // Find the smallest magnitude at which the cumulative (normalised) magnitude reaches the quantile
+            System.arraycopy(mags, 0, sortedMags, 0, numCols);
+            Arrays.sort(sortedMags);
+
+            double cumulativeMag = 0;
+            int thresholdIndex = numCols - 1;
+            for (int j = 0; j < numCols; j++) {
+                cumulativeMag += sortedMags[j] / totalMag;
+                if (cumulativeMag >= quantile) {
+                    thresholdIndex = j;
+                    break;
+                }
+            }
+            thresholds[i] = sortedMags[thresholdIndex];
+
+            // Count the values that are kept
+            for (int j = 0; j < numCols; j++) {
+                if (mags[j] >= thresholds[i]) numStoredValues++;
+            }
+        }
+
+        // Fill in the CSR arrays
+        int[] rowPointers = new int[numRows + 1];
+        int[] columnIndices = new int[numStoredValues];
+        double[] realParts = new double[numStoredValues];
+        double[] imagParts = new double[numStoredValues];
+
+        int index = 0;
+        for (int i = 0; i < numRows; i++) {
+            rowPointers[i] = index;
+            for (int j = 0; j < numCols; j++) {
+                if (matrix[i][j].abs() >= thresholds[i]) {
+                    columnIndices[index] = j;
+                    realParts[index] = matrix[i][j].re;
+                    imagParts[index] = matrix[i][j].im;
+                    index++;
+                }
+            }
+        }
+        rowPointers[numRows] = index;
+
+        return new SparseComplexMatrix(numRows, numCols, rowPointers, columnIndices, realParts, imagParts);
+    }
+
+    /**
+     * Multiplies this sparse matrix with a dense matrix, in that order.
+     *
+     * @param matrix The dense matrix to multiply by, with <code>numCols</code> rows.
+     * @return The dense product of the two matrices.
+     * @throws LengthException If the number of rows of <code>matrix</code> is not
+     *                         <code>numCols</code>.
+     */
+    public Complex[][] matmul(Complex[][] matrix) {
+        // Check if the matrices can be multiplied
+        if (matrix.length != numCols) {
+            throw new LengthException("Matrix sizes not suitable for multiplication");
+        }
+
+        int numOutCols = numCols == 0 ? 0 : matrix[0].length;
+        Complex[][] output = new Complex[numRows][numOutCols];
+        double[] rowReal = new double[numOutCols];
+        double[] rowImag = new double[numOutCols];
+
+        for (int i = 0; i < numRows; i++) {
+            // Accumulate the contribution of each stored value of the row
+            Arrays.fill(rowReal, 0);
+            Arrays.fill(rowImag, 0);
+
+            for (int index = rowPointers[i]; index < rowPointers[i + 1]; index++) {
+                double aReal = realParts[index];
+                double aImag = imagParts[index];
+                Complex[] matrixRow = matrix[columnIndices[index]];
+
+                for (int j = 0; j < numOutCols; j++) {
+                    Complex b = matrixRow[j];
+                    rowReal[j] += aReal * b.re - aImag * b.im;
+                    rowImag[j] += aReal * b.im + aImag * b.re;
+                }
+            }
+
+            // Form the output row
+            for (int j = 0; j < numOutCols; j++) {
+                output[i][j] = new Complex(rowReal[j], rowImag[j]);
+            }
+        }
+
+        return output;
+    }
+
+    /**
+     * Converts this sparse matrix back into a dense matrix.
+     *
+     * @return The dense matrix, with zeros in place of the dropped values.
+     */
+    public Complex[][] toDense() {
+        Complex[][] matrix = new Complex[numRows][numCols];
+        for (int i = 0; i < numRows; i++) {
+            for (int j = 0; j < numCols; j++) {
+                matrix[i][j] = new Complex(0);
+            }
+            for (int index = rowPointers[i]; index < rowPointers[i + 1]; index++) {
+                matrix[i][columnIndices[index]] = new Complex(realParts[index], imagParts[index]);
+            }
+        }
+        return matrix;
+    }
+}
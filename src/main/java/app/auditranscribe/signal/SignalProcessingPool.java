@@ -0,0 +1,79 @@
+/*
+ * SignalProcessingPool.java
+ * Description: Shared thread pool for parallel signal processing.
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public Licence as published by the Free Software Foundation, either version 3 of the
+ * Licence, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public Licence for more details.
+ *
+ * You should have received a copy of the GNU General Public Licence along with this program. If
+ * not, see <https://www.gnu.org/licenses/>
+ *
+ * Copyright © AudiTranscribe Team
+ */
+
+package app.auditranscribe.signal;
+
+import app.auditranscribe.generic.exceptions.ValueException;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Shared thread pool for parallel signal processing.<br>
+ * All parallel signal processing methods submit their work to the same <code>ForkJoinPool</code>,
+ * so that the total number of worker threads is bounded by a single parallelism level.
+ */
+public final class SignalProcessingPool {
+    // Static attributes
+    private static int parallelism = Runtime.getRuntime().availableProcessors();
+    private static ForkJoinPool pool;
+
+    private SignalProcessingPool() {
+        // Private constructor to signal this is a utility class
+    }
+
+    // Getter/setter methods
+
+    public static synchronized int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Sets the number of worker threads used for parallel signal processing.<br>
+     * If the pool was already created with a different parallelism level, it is shut down (after
+     * finishing any submitted work) and a new pool is created on the next call to
+     * {@link #getPool()}.
+     *
+     * @param parallelism Number of worker threads. Must be positive.
+     * @throws ValueException If <code>parallelism</code> is not positive.
+     */
+    public static synchronized void setParallelism(int parallelism) {
+        if (parallelism <= 0) {
+            throw new ValueException("Parallelism must be positive, but got " + parallelism);
+        }
+
+        if (pool != null && pool.getParallelism() != parallelism) {
+            pool.shutdown();
+            pool = null;
+        }
+        SignalProcessingPool.parallelism = parallelism;
+    }
+
+    // Public methods
+
+    /**
+     * Returns the shared pool, creating it if needed.
+     *
+     * @return The <code>ForkJoinPool</code> to submit signal processing work to.
+     */
+    public static synchronized ForkJoinPool getPool() {
+        if (pool == null) {
+            pool = new ForkJoinPool(parallelism);
+        }
+        return pool;
+    }
+}
@@ -20,8 +20,6 @@ package app.auditranscribe.signal.representations;
 
 import app.auditranscribe.generic.exceptions.LengthException;
 import app.auditranscribe.misc.Complex;
-import app.auditranscribe.utils.MathUtils;
-import app.auditranscribe.utils.MiscUtils;
 
 import java.util.Arrays;
 
@@ -45,17 +43,56 @@ public final class FFT {
      * @return An array of <code>Complex</code> objects representing the FFT of <code>array</code>.
      */
     public static Complex[] fft(Complex[] array) {
-        // Get length fo input array
+        // Split into real and imaginary parts
         int length = array.length;
+        double[] realParts = new double[length];
+        double[] imagParts = new double[length];
+        splitComplexArray(array, realParts, imagParts);
 
-        // Handle different cases of the length
-        if (length == 0) {
-            return new Complex[0];
-        } else if (MathUtils.isPowerOf2(length)) {
-            return fftRadix2(array, length);
-        } else {  // Is not power of 2
-            return fftBluestein(array, length);
+        // Compute FFT in-place and form the final `Complex` array
+        fft(realParts, imagParts);
+        return mergeComplexArray(realParts, imagParts);
+    }
+
+    /**
+     * Computes the Fast Fourier Transform (FFT) of a complex signal <b>in-place</b>.<br>
+     * The complex signal is given as two separate arrays, one holding the real parts and the other
+     * holding the imaginary parts of the signal. Both arrays will be overwritten with the real and
+     * imaginary parts of the FFT respectively.
+     *
+     * @param realParts Real parts of the signal.
+     * @param imagParts Imaginary parts of the signal.
+     * @throws LengthException If the lengths of <code>realParts</code> and <code>imagParts</code>
+     *                         are not equal.
+     */
+    public static void fft(double[] realParts, double[] imagParts) {
+        // Check that the lengths of the arrays are equal
+        if (realParts.length != imagParts.length) {
+            throw new LengthException("The lengths of the real and imaginary arrays are not equal.");
         }
+
+        // Compute the FFT in-place
+        fftFrames(realParts, imagParts, 1, realParts.length);
+    }
+
+    /**
+     * Computes the FFTs of a batch of complex signals <b>in-place</b>.<br>
+     * The signals are stored one after another in the arrays, so that frame <code>f</code>
+     * occupies indices <code>f * frameLength</code> to <code>(f + 1) * frameLength - 1</code>.
+     * All frames are transformed with the same plan and scratch space.
+     *
+     * @param realParts   Real parts of the signals.
+     * @param imagParts   Imaginary parts of the signals.
+     * @param numFrames   Number of signals (frames) in the batch.
+     * @param frameLength Length of each signal.
+     * @throws LengthException If the lengths of <code>realParts</code> or <code>imagParts</code>
+     *                         are not <code>numFrames * frameLength</code>.
+     * @see #fft(double[], double[])
+     */
+    public static void fftBatch(double[] realParts, double[] imagParts, int numFrames, int frameLength) {
+        checkBatchLength(realParts, numFrames, frameLength);
+        checkBatchLength(imagParts, numFrames, frameLength);
+        fftFrames(realParts, imagParts, numFrames, frameLength);
     }
 
     /**
@@ -68,17 +105,76 @@ public final class FFT {
      * array, <code>N</code>, is even and <code>(N + 1) / 2</code> if <code>N</code> is odd.
      */
     public static Complex[] rfft(Complex[] array) {
-        // Get length of the array
+        // Split into real and imaginary parts
         int length = array.length;
+        double[] realParts = new double[length];
+        double[] imagParts = new double[length];
+        splitComplexArray(array, realParts, imagParts);
 
-        // Compute FFT of the matrix
-        Complex[] tempMatrix = fft(array);
+        // Compute FFT of the array
+        fft(realParts, imagParts);
 
-        // Determine number of elements to keep
+        // Keep only the non-negative frequencies
         int numElemToKeep = length / 2 + 1;
+        return mergeComplexArray(
+                Arrays.copyOf(realParts, numElemToKeep), Arrays.copyOf(imagParts, numElemToKeep)
+        );
+    }
 
-        // Keep only that number of elements
-        return Arrays.copyOfRange(tempMatrix, 0, numElemToKeep);
+    /**
+     * Computes the Real-Valued FFT (RFFT) of a real-valued signal.<br>
+     * Only the non-negative frequencies are computed, as the remaining frequencies of a real
+     * signal are just the complex conjugates of these.
+     *
+     * @param signal    The real-valued signal of length <code>N</code>.
+     * @param realParts Pre-allocated array of length <code>N / 2 + 1</code> to store the real
+     *                  parts of the RFFT in.
+     * @param imagParts Pre-allocated array of length <code>N / 2 + 1</code> to store the
+     *                  imaginary parts of the RFFT in.
+     * @throws LengthException If the lengths of <code>realParts</code> or <code>imagParts</code>
+     *                         are not <code>N / 2 + 1</code>.
+     * @implNote If <code>N</code> is even, the <code>N</code> real samples are packed into a
+     * complex signal of length <code>N / 2</code>, whose FFT is then split back into the spectrum
+     * of the real signal. This needs only half the work (and memory) of a full complex FFT.
+     * @see <a href="https://www.robinscheibler.org/2013/02/13/real-fft.html">This article</a> on
+     * how the RFFT is computed with a complex FFT of half the length.
+     */
+    public static void rfft(double[] signal, double[] realParts, double[] imagParts) {
+        // Check the lengths of the output arrays
+        int length = signal.length;
+        int numElemToKeep = length / 2 + 1;
+        if (realParts.length != numElemToKeep || imagParts.length != numElemToKeep) {
+            throw new LengthException("The output arrays must have length " + numElemToKeep + ".");
+        }
+
+        // Compute the RFFT
+        rfftFrames(signal, realParts, imagParts, 1, length);
+    }
+
+    /**
+     * Computes the RFFTs of a batch of real-valued signals.<br>
+     * The signals are stored one after another in <code>signals</code>, so that frame
+     * <code>f</code> occupies indices <code>f * frameLength</code> to
+     * <code>(f + 1) * frameLength - 1</code>. Likewise, the RFFT of frame <code>f</code> is
+     * stored from index <code>f * (frameLength / 2 + 1)</code> of the output arrays.
+     *
+     * @param signals     The real-valued signals.
+     * @param realParts   Pre-allocated array of length <code>numFrames * (frameLength / 2 + 1)
+     *                    </code> to store the real parts of the RFFTs in.
+     * @param imagParts   Pre-allocated array of length <code>numFrames * (frameLength / 2 + 1)
+     *                    </code> to store the imaginary parts of the RFFTs in.
+     * @param numFrames   Number of signals (frames) in the batch.
+     * @param frameLength Length of each signal.
+     * @throws LengthException If any of the arrays do not have the lengths above.
+     * @see #rfft(double[], double[], double[])
+     */
+    public static void rfftBatch(
+            double[] signals, double[] realParts, double[] imagParts, int numFrames, int frameLength
+    ) {
+        checkBatchLength(signals, numFrames, frameLength);
+        checkBatchLength(realParts, numFrames, frameLength / 2 + 1);
+        checkBatchLength(imagParts, numFrames, frameLength / 2 + 1);
+        rfftFrames(signals, realParts, imagParts, numFrames, frameLength);
     }
 
     /**
@@ -88,30 +184,55 @@ public final class FFT {
      * @return An array of <code>Complex</code> objects representing the IFFT of <code>array</code>.
      */
     public static Complex[] ifft(Complex[] array) {
-        // Get length of input array
+        // Split into real and imaginary parts
         int length = array.length;
+        double[] realParts = new double[length];
+        double[] imagParts = new double[length];
+        splitComplexArray(array, realParts, imagParts);
 
-        // Compute conjugate of each element of the array
-        Complex[] y = new Complex[length];  // Will reuse array later
-        for (int i = 0; i < length; i++) {
-            y[i] = array[i].conjugate();
-        }
-
-        // Compute forward FFT
-        y = fft(y);
+        // Compute inverse FFT in-place and form the final `Complex` array
+        ifft(realParts, imagParts);
+        return mergeComplexArray(realParts, imagParts);
+    }
 
-        // Take conjugate again
-        for (int i = 0; i < length; i++) {
-            y[i] = y[i].conjugate();
+    /**
+     * Computes the Inverse FFT (IFFT) of a complex spectrum <b>in-place</b>.<br>
+     * The complex spectrum is given as two separate arrays, one holding the real parts and the
+     * other holding the imaginary parts of the spectrum. Both arrays will be overwritten with the
+     * real and imaginary parts of the IFFT respectively.
+     *
+     * @param realParts Real parts of the spectrum.
+     * @param imagParts Imaginary parts of the spectrum.
+     * @throws LengthException If the lengths of <code>realParts</code> and <code>imagParts</code>
+     *                         are not equal.
+     */
+    public static void ifft(double[] realParts, double[] imagParts) {
+        // Check that the lengths of the arrays are equal
+        if (realParts.length != imagParts.length) {
+            throw new LengthException("The lengths of the real and imaginary arrays are not equal.");
         }
 
-        // Divide by the length of the array
-        for (int i = 0; i < length; i++) {
-            y[i] = y[i].divides(length);
-        }
+        // Compute the inverse FFT in-place
+        ifftFrames(realParts, imagParts, 1, realParts.length);
+    }
 
-        // Return the inverse FFT array
-        return y;
+    /**
+     * Computes the IFFTs of a batch of complex spectra <b>in-place</b>.<br>
+     * The spectra are stored in the same layout as in
+     * {@link #fftBatch(double[], double[], int, int)}.
+     *
+     * @param realParts   Real parts of the spectra.
+     * @param imagParts   Imaginary parts of the spectra.
+     * @param numFrames   Number of spectra (frames) in the batch.
+     * @param frameLength Length of each spectrum.
+     * @throws LengthException If the lengths of <code>realParts</code> or <code>imagParts</code>
+     *                         are not <code>numFrames * frameLength</code>.
+     * @see #ifft(double[], double[])
+     */
+    public static void ifftBatch(double[] realParts, double[] imagParts, int numFrames, int frameLength) {
+        checkBatchLength(realParts, numFrames, frameLength);
+        checkBatchLength(imagParts, numFrames, frameLength);
+        ifftFrames(realParts, imagParts, numFrames, frameLength);
     }
 
     /**
@@ -122,236 +243,404 @@ public final class FFT {
      * @return An array of <code>Complex</code> objects representing the IRFFT of <code>array</code>.
      */
     public static Complex[] irfft(Complex[] array, int originalSignalLength) {
-        // Recover original 'full-length' complex array
-        Complex[] fullLengthArr = new Complex[originalSignalLength];
-        int length = array.length;
+        // Split the non-negative frequencies into real and imaginary parts
+        int numElem = originalSignalLength / 2 + 1;
+        double[] realParts = new double[numElem];
+        double[] imagParts = new double[numElem];
+        for (int i = 0; i < Math.min(numElem, array.length); i++) {
+            realParts[i] = array[i].re;
+            imagParts[i] = array[i].im;
+        }
 
-        fullLengthArr[0] = array[0];
-        for (int i = 1; i < length; i++) {
-            fullLengthArr[i] = array[i];
-            fullLengthArr[originalSignalLength - i] = array[i].conjugate();
+        // Compute the IRFFT and form the final `Complex` array
+        double[] signal = new double[originalSignalLength];
+        irfft(realParts, imagParts, signal);
+        return mergeComplexArray(signal, new double[originalSignalLength]);
+    }
+
+    /**
+     * Computes the inverse Real-Valued FFT (IRFFT) of the non-negative frequencies of a spectrum.
+     * <br>
+     * This is the inverse of {@link #rfft(double[], double[], double[])}. <b>Both input arrays are
+     * used as scratch space and will be overwritten</b>.
+     *
+     * @param realParts Real parts of the non-negative frequencies, of length
+     *                  <code>N / 2 + 1</code>.
+     * @param imagParts Imaginary parts of the non-negative frequencies, of length
+     *                  <code>N / 2 + 1</code>.
+     * @param signal    Pre-allocated array of length <code>N</code> to store the real-valued
+     *                  signal in. Here, <code>N</code> is the original length of the signal that
+     *                  was passed into the RFFT.
+     * @throws LengthException If the lengths of <code>realParts</code> or <code>imagParts</code>
+     *                         are not <code>N / 2 + 1</code>.
+     */
+    public static void irfft(double[] realParts, double[] imagParts, double[] signal) {
+        // Check the lengths of the input arrays
+        int length = signal.length;
+        int numElem = length / 2 + 1;
+        if (realParts.length != numElem || imagParts.length != numElem) {
+            throw new LengthException("The input arrays must have length " + numElem + ".");
         }
 
-        // Now perform inverse FFT
-        return ifft(fullLengthArr);
+        // Compute the IRFFT
+        irfftFrames(realParts, imagParts, signal, 1, length);
+    }
+
+    /**
+     * Computes the IRFFTs of a batch of spectra.<br>
+     * The spectra and signals are stored in the same layout as in
+     * {@link #rfftBatch(double[], double[], double[], int, int)}. <b>Both input arrays are used as
+     * scratch space and will be overwritten</b>.
+     *
+     * @param realParts   Real parts of the non-negative frequencies of the spectra.
+     * @param imagParts   Imaginary parts of the non-negative frequencies of the spectra.
+     * @param signals     Pre-allocated array of length <code>numFrames * frameLength</code> to store
+     *                    the real-valued signals in.
+     * @param numFrames   Number of spectra (frames) in the batch.
+     * @param frameLength Original length of each signal that was passed into the RFFT.
+     * @throws LengthException If any of the arrays do not have the expected lengths.
+     * @see #irfft(double[], double[], double[])
+     */
+    public static void irfftBatch(
+            double[] realParts, double[] imagParts, double[] signals, int numFrames, int frameLength
+    ) {
+        checkBatchLength(realParts, numFrames, frameLength / 2 + 1);
+        checkBatchLength(imagParts, numFrames, frameLength / 2 + 1);
+        checkBatchLength(signals, numFrames, frameLength);
+        irfftFrames(realParts, imagParts, signals, numFrames, frameLength);
     }
 
     // Private methods
 
     /**
-     * Helper method that computes the FFT of the input array using the Radix-2 Cooley-Tukey
-     * Algorithm.<br>
-     * This assumes that the length of the input array, say <code>N</code>, is a power of 2.
+     * Helper method that computes the FFTs of <code>numFrames</code> consecutive complex signals
+     * of length <code>length</code> <b>in-place</b>.
      *
-     * @param array  The complex array to apply the algorithm to.
-     * @param length Length of the input array.
-     * @return An array of <code>Complex</code> objects representing the FFT of the data source.
-     * @implNote Adapted from Orlando Selenu's code of the FFT, which can be found
-     * <a href="https://github.com/hedoluna/fft/blob/6f116b1/FFTbase.java">here</a>. See also
-     * Brigham, E. O. (1988). FFT Computation Flowchart. In The fast fourier transform and its
-     * applications (pp. 143–145)., Prentice-Hall.
-     * @see <a href="https://en.wikipedia.org/wiki/Cooley%E2%80%93Tukey_FFT_algorithm">Radix-2
-     * Cooley-Tukey Algorithm</a>, which was the algorithm used to generate the FFT.
+     * @param realParts Real parts of the signals.
+     * @param imagParts Imaginary parts of the signals.
+     * @param numFrames Number of signals.
+     * @param length    Length of each signal.
      */
-    private static Complex[] fftRadix2(Complex[] array, int length) {
-        // Base case: length is 1
-        // (Length 0 case is handled by wrapper function)
-        if (length == 1) return new Complex[]{array[0]};
+    private static void fftFrames(double[] realParts, double[] imagParts, int numFrames, int length) {
+        // FFT of an array of length 0 or 1 is itself
+        if (length <= 1) return;
 
-        // Split into real and imaginary parts
-        double[] realParts = new double[length];
-        double[] imagParts = new double[length];
+        // Compute the FFTs using the plan of that length, reusing the scratch space across frames
+        FFTPlan plan = FFTPlan.getPlan(length);
+        double[] scratchReal = newScratch(plan);
+        double[] scratchImag = newScratch(plan);
 
-        for (int i = 0; i < length; i++) {
-            realParts[i] = array[i].re;
-            imagParts[i] = array[i].im;
+        for (int f = 0; f < numFrames; f++) {
+            plan.transform(realParts, imagParts, f * length, scratchReal, scratchImag);
         }
+    }
 
-        // Declare needed variables
-        int halfLength = length / 2;
-        int nu = MathUtils.binlog(length);  // Dimension of the problem
-        int nu1 = nu - 1;
-
-        double tReal;  // Real term
-        double tImag;  // Imaginary term
+    /**
+     * Helper method that computes the inverse FFTs of <code>numFrames</code> consecutive complex
+     * spectra of length <code>length</code> <b>in-place</b>.
+     *
+     * @param realParts Real parts of the spectra.
+     * @param imagParts Imaginary parts of the spectra.
+     * @param numFrames Number of spectra.
+     * @param length    Length of each spectrum.
+     */
+    private static void ifftFrames(double[] realParts, double[] imagParts, int numFrames, int length) {
+        int totalLength = numFrames * length;
 
-        double arg;  // Argument for the cosine and sine parts
-        double cosinePart;  // Real (cosine) part of the complex exponent
-        double sinePart;  // Imaginary (sine) part of the complex exponent
+        // Compute conjugate of each element of the array
+        for (int i = 0; i < totalLength; i++) {
+            imagParts[i] = -imagParts[i];
+        }
 
-        // Part 1 - Calculation
-        int k = 0;
-        double factor;
+        // Compute forward FFT
+        fftFrames(realParts, imagParts, numFrames, length);
 
-        for (int l = 1; l <= nu; l++) {
-            while (k < length) {
-                for (int i = 1; i <= halfLength; i++) {
-                    factor = bitReverse(k >> nu1, nu);  // ???
+        // Take conjugate again and divide by the length of the array
+        for (int i = 0; i < totalLength; i++) {
+            realParts[i] /= length;
+            imagParts[i] = -imagParts[i] / length;
+        }
+    }
 
-                    // Compute complex exponent
-                    arg = 2 * Math.PI * factor / length;  // We omit "-" sign because we are doing signal processing
-                    cosinePart = Math.cos(arg);
-                    sinePart = Math.sin(arg);
+    /**
+     * Helper method that computes the RFFTs of <code>numFrames</code> consecutive real-valued
+     * signals of length <code>length</code>.
+     *
+     * @param signals   The real-valued signals.
+     * @param realParts Array to store the real parts of the RFFTs in.
+     * @param imagParts Array to store the imaginary parts of the RFFTs in.
+     * @param numFrames Number of signals.
+     * @param length    Length of each signal.
+     */
+    private static void rfftFrames(
+            double[] signals, double[] realParts, double[] imagParts, int numFrames, int length
+    ) {
+        int numElem = length / 2 + 1;
 
-                    // Form real and imaginary terms
-                    tReal = realParts[k + halfLength] * cosinePart + imagParts[k + halfLength] * sinePart;
-                    tImag = imagParts[k + halfLength] * cosinePart - realParts[k + halfLength] * sinePart;
+        // Handle different cases of the length
+        if (length <= 1) {
+            for (int f = 0; f < numFrames; f++) {
+                realParts[f] = length == 1 ? signals[f] : 0;
+                imagParts[f] = 0;
+            }
+        } else if (length % 2 == 0) {
+            FFTPlan plan = FFTPlan.getPlan(length);
+            FFTPlan halfPlan = FFTPlan.getPlan(length / 2);
+            double[] scratchReal = newScratch(halfPlan);
+            double[] scratchImag = newScratch(halfPlan);
+
+            for (int f = 0; f < numFrames; f++) {
+                rfftEven(
+                        signals, f * length, realParts, imagParts, f * numElem, plan, halfPlan, scratchReal,
+                        scratchImag
+                );
+            }
+        } else {  // Odd lengths cannot be packed, so use the full complex FFT
+            FFTPlan plan = FFTPlan.getPlan(length);
+            double[] scratchReal = newScratch(plan);
+            double[] scratchImag = newScratch(plan);
+            double[] tempReal = new double[length];
+            double[] tempImag = new double[length];
+
+            for (int f = 0; f < numFrames; f++) {
+                System.arraycopy(signals, f * length, tempReal, 0, length);
+                Arrays.fill(tempImag, 0);
+                plan.transform(tempReal, tempImag, 0, scratchReal, scratchImag);
+
+                System.arraycopy(tempReal, 0, realParts, f * numElem, numElem);
+                System.arraycopy(tempImag, 0, imagParts, f * numElem, numElem);
+            }
+        }
+    }
 
-                    // Update FFT arrays
-                    realParts[k + halfLength] = realParts[k] - tReal;
-                    imagParts[k + halfLength] = imagParts[k] - tImag;
-                    realParts[k] += tReal;
-                    imagParts[k] += tImag;
+    /**
+     * Helper method that computes the IRFFTs of <code>numFrames</code> consecutive spectra whose
+     * original signals have length <code>length</code>.
+     *
+     * @param realParts Real parts of the non-negative frequencies. Will be overwritten.
+     * @param imagParts Imaginary parts of the non-negative frequencies. Will be overwritten.
+     * @param signals   Array to store the real-valued signals in.
+     * @param numFrames Number of spectra.
+     * @param length    Length of each original signal.
+     */
+    private static void irfftFrames(
+            double[] realParts, double[] imagParts, double[] signals, int numFrames, int length
+    ) {
+        int numElem = length / 2 + 1;
 
-                    k++;
-                }
-                k += halfLength;
+        // Handle different cases of the length
+        if (length <= 1) {
+            if (length == 1) System.arraycopy(realParts, 0, signals, 0, numFrames);
+        } else if (length % 2 == 0) {
+            FFTPlan plan = FFTPlan.getPlan(length);
+            FFTPlan halfPlan = FFTPlan.getPlan(length / 2);
+            double[] scratchReal = newScratch(halfPlan);
+            double[] scratchImag = newScratch(halfPlan);
+
+            for (int f = 0; f < numFrames; f++) {
+                irfftEven(
+                        realParts, imagParts, f * numElem, signals, f * length, plan, halfPlan, scratchReal,
+                        scratchImag
+                );
             }
+        } else {  // Odd lengths cannot be packed, so recover the 'full-length' complex array
+            double[] tempReal = new double[length];
+            double[] tempImag = new double[length];
+
+            for (int f = 0; f < numFrames; f++) {
+                int offset = f * numElem;
+                tempReal[0] = realParts[offset];
+                tempImag[0] = imagParts[offset];
+                for (int i = 1; i < numElem; i++) {
+                    tempReal[i] = tempReal[length - i] = realParts[offset + i];
+                    tempImag[i] = imagParts[offset + i];
+                    tempImag[length - i] = -imagParts[offset + i];
+                }
 
-            // Update loop variables
-            k = 0;
-            nu1--;
-            halfLength /= 2;
-        }
-
-        // Part 2 - Unscrambling and recombination
-        int r;
-        while (k < length) {
-            // Determine the possible place to swap
-            r = bitReverse(k, nu);
-            if (r > k) {
-                // Swap elements at index `k` and `r`
-                tReal = realParts[k];
-                tImag = imagParts[k];
-                realParts[k] = realParts[r];
-                imagParts[k] = imagParts[r];
-                realParts[r] = tReal;
-                imagParts[r] = tImag;
+                ifftFrames(tempReal, tempImag, 1, length);
+                System.arraycopy(tempReal, 0, signals, f * length, length);
             }
-            k++;
         }
+    }
 
-        // Part 3 - Form final `Complex` array
-        Complex[] output = new Complex[length];
-        for (int i = 0; i < length; i++) {
-            output[i] = new Complex(realParts[i], imagParts[i]);
+    /**
+     * Helper method that computes the RFFT of a real-valued signal of even length.<br>
+     * Samples at even indices are packed into the real parts, and samples at odd indices are packed
+     * into the imaginary parts, of a complex signal of half the length. After its FFT is computed,
+     * the spectra of the even and odd samples are separated and recombined using the twiddle
+     * factors of the full length.
+     *
+     * @param signal       Array containing the real-valued signal.
+     * @param signalOffset Index of the first sample of the signal.
+     * @param realParts    Array to store the real parts of the RFFT in.
+     * @param imagParts    Array to store the imaginary parts of the RFFT in.
+     * @param outOffset    Index to store the first frequency of the RFFT at.
+     * @param plan         Plan of the length of the signal. The length must be even.
+     * @param halfPlan     Plan of half the length of the signal.
+     * @param scratchReal  Scratch space for <code>halfPlan</code>.
+     * @param scratchImag  Scratch space for <code>halfPlan</code>.
+     */
+    private static void rfftEven(
+            double[] signal, int signalOffset, double[] realParts, double[] imagParts, int outOffset,
+            FFTPlan plan, FFTPlan halfPlan, double[] scratchReal, double[] scratchImag
+    ) {
+        int halfLength = halfPlan.length;
+
+        // Pack the signal into a complex signal of half the length and compute its FFT
+        for (int i = 0; i < halfLength; i++) {
+            realParts[outOffset + i] = signal[signalOffset + 2 * i];
+            imagParts[outOffset + i] = signal[signalOffset + 2 * i + 1];
+        }
+        halfPlan.transform(realParts, imagParts, outOffset, scratchReal, scratchImag);
+
+        // Handle the zero and Nyquist frequencies, which are purely real
+        double zReal = realParts[outOffset];
+        double zImag = imagParts[outOffset];
+        realParts[outOffset] = zReal + zImag;
+        imagParts[outOffset] = 0;
+        realParts[outOffset + halfLength] = zReal - zImag;
+        imagParts[outOffset + halfLength] = 0;
+
+        // Split the remaining frequencies in symmetric pairs `k` and `halfLength - k`
+        for (int k = 1; k <= halfLength / 2; k++) {
+            int i = outOffset + k;
+            int j = outOffset + halfLength - k;
+
+            // Spectrum of the even samples is `(Z[k] + conj(Z[j])) / 2`
+            double evenReal = (realParts[i] + realParts[j]) / 2;
+            double evenImag = (imagParts[i] - imagParts[j]) / 2;
+
+            // Spectrum of the odd samples is `(Z[k] - conj(Z[j])) / 2i`
+            double oddReal = (imagParts[i] + imagParts[j]) / 2;
+            double oddImag = (realParts[j] - realParts[i]) / 2;
+
+            // Multiply the odd spectrum by the twiddle factor `exp(-2 * pi * i * k / length)`
+            double cosinePart = plan.cosTable[k];
+            double sinePart = plan.sinTable[k];
+
+            double tReal = oddReal * cosinePart + oddImag * sinePart;
+            double tImag = oddImag * cosinePart - oddReal * sinePart;
+
+            // Recombine into the final spectrum
+            realParts[i] = evenReal + tReal;
+            imagParts[i] = evenImag + tImag;
+            realParts[j] = evenReal - tReal;
+            imagParts[j] = tImag - evenImag;
         }
-        return output;
     }
 
     /**
-     * Helper method that computes the FFT of the input array <code>array</code> using Bluestein's
-     * algorithm (also known as a Chirp-Z Transform, or CZT for short).
+     * Helper method that computes the IRFFT of a spectrum whose original signal has even length.
+     * <br>
+     * This reverses the steps of the RFFT of an even-length signal.
      *
-     * @param array The complex array to apply the algorithm to.
-     * @return An array of <code>Complex</code> objects representing the FFT of the data source.
-     * @see <a href="https://en.wikipedia.org/wiki/Chirp_Z-transform#Bluestein's_algorithm">
-     * Bluestein's CZT Algorithm</a>, which was the algorithm used to generate the FFT.
+     * @param realParts    Real parts of the non-negative frequencies. Will be overwritten.
+     * @param imagParts    Imaginary parts of the non-negative frequencies. Will be overwritten.
+     * @param inOffset     Index of the first frequency of the spectrum.
+     * @param signal       Array to store the real-valued signal in.
+     * @param signalOffset Index to store the first sample of the signal at.
+     * @param plan         Plan of the length of the original signal. The length must be even.
+     * @param halfPlan     Plan of half the length of the original signal.
+     * @param scratchReal  Scratch space for <code>halfPlan</code>.
+     * @param scratchImag  Scratch space for <code>halfPlan</code>.
      */
-    private static Complex[] fftBluestein(Complex[] array, int length) {
-        // Find a power of 2 convolution length such that it is at least `length * 2 + 1`
-        // (Note: `numSetBits(length * 2) = numSetBits(length) + 1`)
-        int convolutionLength = (int) Math.pow(2, MiscUtils.getNumSetBits(length) + 1);
-
-        // Generate trigonometric table
-        double exponentCoefficient = -Math.PI / length;
-
-        Complex[] exponentialTable = new Complex[length];
-        for (int i = 0; i < length; i++) {
-            exponentialTable[i] = Complex.exp(
-                    Complex.IMAG_UNIT.times(
-                            new Complex((i * i) % (length * 2)).times(exponentCoefficient)
-                    )
-            );
+    private static void irfftEven(
+            double[] realParts, double[] imagParts, int inOffset, double[] signal, int signalOffset,
+            FFTPlan plan, FFTPlan halfPlan, double[] scratchReal, double[] scratchImag
+    ) {
+        int halfLength = halfPlan.length;
+
+        // Recombine the frequencies in symmetric pairs `k` and `halfLength - k`
+        for (int k = 0; k <= halfLength / 2; k++) {
+            int i = inOffset + k;
+            int j = inOffset + halfLength - k;
+
+            // Recover the spectrum of the even samples
+            double evenReal = (realParts[i] + realParts[j]) / 2;
+            double evenImag = (imagParts[i] - imagParts[j]) / 2;
+
+            // Recover the spectrum of the odd samples by undoing the twiddle factor
+            double diffReal = (realParts[i] - realParts[j]) / 2;
+            double diffImag = (imagParts[i] + imagParts[j]) / 2;
+
+            double cosinePart = plan.cosTable[k];
+            double sinePart = plan.sinTable[k];
+
+            double oddReal = diffReal * cosinePart - diffImag * sinePart;
+            double oddImag = diffReal * sinePart + diffImag * cosinePart;
+
+            // Form the conjugate of the packed spectrum `Z[k] = E[k] + i * O[k]`, in preparation for
+            // the inverse FFT
+            realParts[i] = evenReal - oddImag;
+            imagParts[i] = -(evenImag + oddReal);
+            if (k != 0) {  // Index `halfLength` is not part of the packed spectrum
+                realParts[j] = evenReal + oddImag;
+                imagParts[j] = evenImag - oddReal;
+            }
         }
 
-        // Generate the first temporary vector
-        Complex[] aVector = new Complex[convolutionLength];
-        for (int i = 0; i < length; i++) {
-            aVector[i] = array[i].times(exponentialTable[i]);
-        }
-        for (int i = length; i < convolutionLength; i++) {
-            aVector[i] = Complex.ZERO;
+        // Compute the inverse FFT of the packed spectrum and unpack it into the signal
+        halfPlan.transform(realParts, imagParts, inOffset, scratchReal, scratchImag);
+        for (int i = 0; i < halfLength; i++) {
+            signal[signalOffset + 2 * i] = realParts[inOffset + i] / halfLength;
+            signal[signalOffset + 2 * i + 1] = -imagParts[inOffset + i] / halfLength;
         }
+    }
 
-        // Generate the second temporary vector
-        Complex[] bVector = new Complex[convolutionLength];
-        System.arraycopy(exponentialTable, 0, bVector, 0, length);
-        for (int i = length; i < convolutionLength - length + 1; i++) {
-            bVector[i] = Complex.ZERO;
-        }
-        for (int i = 0; i < length - 1; i++) {
-            bVector[convolutionLength - length + 1 + i] = exponentialTable[length - i - 1];
-        }
-        for (int i = 0; i < convolutionLength; i++) {  // Now we need to take the conjugate of it
-            bVector[i] = bVector[i].conjugate();
+    /**
+     * Helper method that splits a <code>Complex</code> array into its real and imaginary parts.
+     *
+     * @param array     The complex array to split.
+     * @param realParts Pre-allocated array to store the real parts in.
+     * @param imagParts Pre-allocated array to store the imaginary parts in.
+     */
+    private static void splitComplexArray(Complex[] array, double[] realParts, double[] imagParts) {
+        for (int i = 0; i < array.length; i++) {
+            realParts[i] = array[i].re;
+            imagParts[i] = array[i].im;
         }
+    }
 
-        // Generate the convolution vector
-        Complex[] convolutionVector = circularConvolution(aVector, bVector);
-
-        // Keep only the first `length` elements
-        Complex[] y = new Complex[length];
-        System.arraycopy(convolutionVector, 0, y, 0, length);
-
-        // Postprocessing step
-        Complex[] finalVector = new Complex[length];
-        for (int i = 0; i < length; i++) {
-            finalVector[i] = y[i].times(exponentialTable[i]);
+    /**
+     * Helper method that merges real and imaginary parts into a <code>Complex</code> array.
+     *
+     * @param realParts Real parts of the complex array.
+     * @param imagParts Imaginary parts of the complex array.
+     * @return The <code>Complex</code> array.
+     */
+    private static Complex[] mergeComplexArray(double[] realParts, double[] imagParts) {
+        Complex[] output = new Complex[realParts.length];
+        for (int i = 0; i < realParts.length; i++) {
+            output[i] = new Complex(realParts[i], imagParts[i]);
         }
-
-        return finalVector;
+        return output;
     }
 
     /**
-     * Helper method that computes the circular convolution of the two input vectors
-     * (<code>aVector</code> and <code>bVector</code>).
+     * Helper method that checks that an array holds a batch of frames.
      *
-     * @param aVector The first vector.
-     * @param bVector The second vector.
-     * @return The circular convolution of the two input vectors.
-     * @throws LengthException If the lengths of <code>aVector</code> and <code>bVector</code> are
-     *                         not equal.
+     * @param array       The array to check.
+     * @param numFrames   Number of frames in the batch.
+     * @param frameLength Length of each frame.
+     * @throws LengthException If the length of the array is not <code>numFrames * frameLength</code>.
      */
-    private static Complex[] circularConvolution(Complex[] aVector, Complex[] bVector) {
-        // Check that the lengths of the vectors are equal
-        if (aVector.length != bVector.length)
-            throw new LengthException("The lengths of the vectors are not equal.");
-
-        // Get the number of elements in the vectors, `length`
-        int length = aVector.length;
-
-        // Apply convolution theorem to obtain resultant convoluted vector
-        // (See https://en.wikipedia.org/wiki/Convolution_theorem)
-        Complex[] AVector = fft(aVector);  // Convention: capital letter represents a fourier transformed vector
-        Complex[] BVector = fft(bVector);
-        Complex[] XVector = new Complex[length];
-        for (int i = 0; i < length; i++) {
-            XVector[i] = AVector[i].times(BVector[i]);
+    private static void checkBatchLength(double[] array, int numFrames, int frameLength) {
+        if (array.length != numFrames * frameLength) {
+            throw new LengthException(
+                    "Expected an array of length " + numFrames * frameLength + " (" + numFrames + " frames of " +
+                            "length " + frameLength + ") but got length " + array.length + "."
+            );
         }
-
-        return ifft(XVector);
     }
 
     /**
-     * Pads and then reverses the bits in the index <code>j</code>.<br>
-     * This method first pads the binary form of <code>j</code> until its length is <code>nu</code>,
-     * then reverses the binary form of the new number and returns its integer.
+     * Helper method that allocates a scratch array for a plan.
      *
-     * @param j  The index.
-     * @param nu Number of bits of the padded number.
-     * @return Processed and reversed binary number.
+     * @param plan The plan that the scratch array is for.
+     * @return The scratch array, or <code>null</code> if the plan does not need scratch space.
      */
-    private static int bitReverse(int j, int nu) {
-        // Todo document
-        int j2;
-        int j1 = j;
-        int k = 0;
-        for (int i = 1; i <= nu; i++) {
-            j2 = j1 / 2;
-            k = 2 * k + j1 - 2 * j2;
-            j1 = j2;
-        }
-        return k;
+    private static double[] newScratch(FFTPlan plan) {
+        int scratchLength = plan.getScratchLength();
+        return scratchLength == 0 ? null : new double[scratchLength];
     }
 }
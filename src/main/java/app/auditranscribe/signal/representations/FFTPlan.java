@@ -0,0 +1,826 @@
+/*
+ * FFTPlan.java
+ * Description: Precomputed tables needed to compute the Fast Fourier Transform of a fixed length.
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public Licence as published by the Free Software Foundation, either version 3 of the
+ * Licence, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public Licence for more details.
+ *
+ * You should have received a copy of the GNU General Public Licence along with this program. If
+ * not, see <https://www.gnu.org/licenses/>
+ *
+ * Copyright © AudiTranscribe Team
+ */
+
+package app.auditranscribe.signal.representations;
+
+import app.auditranscribe.generic.exceptions.LengthException;
+import app.auditranscribe.generic.exceptions.ValueException;
+import app.auditranscribe.misc.LRUCache;
+import app.auditranscribe.utils.MathUtils;
+import app.auditranscribe.utils.MiscUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Precomputed tables needed to compute the Fast Fourier Transform (FFT) of a fixed length.<br>
+ * A plan holds the twiddle factors and permutations of its length, so that the transform itself
+ * does not need to evaluate any trigonometric functions. Plans are immutable and are shared
+ * between threads through a bounded cache; use {@link #getPlan(int)} to obtain one.<br>
+ * The algorithm used depends on the length of the plan:
+ * <ul>
+ *     <li>Powers of 2 use an in-place radix-4 (and radix-2) Cooley-Tukey algorithm.</li>
+ *     <li>
+ *         Lengths whose prime factors are all 2, 3 or 5 use a mixed-radix Stockham algorithm.
+ *     </li>
+ *     <li>All other lengths use Bluestein's algorithm, with the chirp tables cached.</li>
+ * </ul>
+ * The radix-4 stages of the radix-2 algorithm can optionally use SIMD instructions through the
+ * incubating Java Vector API. This backend is only compiled in the <code>vector-fft</code> build
+ * profile, and is used only if the system property {@value #VECTOR_BACKEND_PROPERTY} is
+ * <code>true</code> and the JVM was started with <code>--add-modules jdk.incubator.vector</code>;
+ * otherwise the scalar code is used.
+ */
+public final class FFTPlan {
+    // Constants
+    public static final int MAX_NUM_CACHED_PLANS = 32;
+    public static final String VECTOR_BACKEND_PROPERTY = "auditranscribe.fft.vector";
+
+    private static final int[] RADICES = {4, 2, 3, 5};  // In order of preference
+    private static final LRUCache<Integer, FFTPlan> PLAN_CACHE = new LRUCache<>(MAX_NUM_CACHED_PLANS);
+    private static final String VECTOR_BACKEND_CLASS = "app.auditranscribe.signal.representations.FFTVectorKernels";
+
+    private static final FFTVectorBackend VECTOR_BACKEND = loadVectorBackend();  // Null if unused
+    private static final int VECTOR_LANE_COUNT = VECTOR_BACKEND == null ? 0 : VECTOR_BACKEND.getLaneCount();
+
+    // Attributes
+    public final int length;
+    private final Algorithm algorithm;
+
+    final double[] cosTable;  // cos(2 * pi * k / length) for 0 <= k < length
+    final double[] sinTable;  // sin(2 * pi * k / length) for 0 <= k < length
+
+    private int[] bitReversal;  // Bit-reversed index of each index, for the radix-2 algorithm
+    private double[][] vectorTwiddles;  // Contiguous twiddle factors of each radix-4 stage, for the vector backend
+    private int[] radices;  // Radix of each stage, for the mixed-radix algorithm
+
+    private FFTPlan convolutionPlan;  // Plan for the power of 2 convolution of Bluestein's algorithm
+    private double[] chirpReal;  // Real parts of exp(-pi * i * k^2 / length), for Bluestein's algorithm
+    private double[] chirpImag;  // Imaginary parts of exp(-pi * i * k^2 / length)
+    private double[] chirpFFTReal;  // Real parts of the FFT of the conjugated, wrapped-around chirp
+    private double[] chirpFFTImag;  // Imaginary parts of the FFT of the conjugated, wrapped-around chirp
+
+    /**
+     * Initialization method for a new <code>FFTPlan</code>.
+     *
+     * @param length Length of the transform. Must be positive.
+     * @throws ValueException If <code>length</code> is not positive.
+     */
+    private FFTPlan(int length) {
+        if (length <= 0) {
+            throw new ValueException("FFT plan length must be positive, but got " + length);
+        }
+        this.length = length;
+
+        // Generate twiddle factor tables
+        cosTable = new double[length];
+        sinTable = new double[length];
+        for (int k = 0; k < length; k++) {
+            double arg = 2 * Math.PI * k / length;
+            cosTable[k] = Math.cos(arg);
+            sinTable[k] = Math.sin(arg);
+        }
+
+        // Determine the algorithm to use and generate its tables
+        if (MathUtils.isPowerOf2(length)) {
+            algorithm = Algorithm.RADIX_2;
+            setupRadix2();
+        } else {
+            radices = factorize(length);
+            if (radices != null) {
+                algorithm = Algorithm.MIXED_RADIX;
+            } else {
+                algorithm = Algorithm.BLUESTEIN;
+                setupBluestein();
+            }
+        }
+    }
+
+    // Getter/setter methods
+
+    /**
+     * Returns the length of the scratch arrays needed by
+     * {@link #transform(double[], double[], int, double[], double[])}.
+     *
+     * @return Length of each of the real and imaginary scratch arrays. Is 0 if no scratch space
+     * is needed.
+     */
+    public int getScratchLength() {
+        return switch (algorithm) {
+            case RADIX_2 -> 0;
+            case MIXED_RADIX -> length;
+            case BLUESTEIN -> convolutionPlan.length;
+        };
+    }
+
+    /**
+     * Returns whether the radix-4 stages use the SIMD kernels of the Java Vector API.
+     *
+     * @return <code>true</code> if the vector backend is in use, and <code>false</code> if the
+     * scalar code is used.
+     */
+    public static boolean isVectorBackendEnabled() {
+        return VECTOR_LANE_COUNT > 0;
+    }
+
+    // Public methods
+
+    /**
+     * Returns the plan for FFTs of length <code>length</code>, creating it if it is not cached.
+     *
+     * @param length Length of the transform. Must be positive.
+     * @return The <code>FFTPlan</code> of the given length.
+     * @throws ValueException If <code>length</code> is not positive.
+     */
+    public static FFTPlan getPlan(int length) {
+        return PLAN_CACHE.computeIfAbsent(length, FFTPlan::new);
+    }
+
+    /**
+     * Computes the FFT of a complex signal <b>in-place</b> using this plan.
+     *
+     * @param realParts Real parts of the signal.
+     * @param imagParts Imaginary parts of the signal.
+     * @throws LengthException If the lengths of the arrays do not match the length of the plan.
+     * @see FFT#fft(double[], double[])
+     */
+    public void transform(double[] realParts, double[] imagParts) {
+        int scratchLength = getScratchLength();
+        transform(realParts, imagParts, new double[scratchLength], new double[scratchLength]);
+    }
+
+    /**
+     * Computes the FFT of a complex signal <b>in-place</b> using this plan and the given scratch
+     * space.<br>
+     * This does not allocate any memory, so it can be called repeatedly on the real-time audio
+     * path.
+     *
+     * @param realParts   Real parts of the signal.
+     * @param imagParts   Imaginary parts of the signal.
+     * @param scratchReal Scratch array of length at least {@link #getScratchLength()}. May be
+     *                    <code>null</code> if no scratch space is needed.
+     * @param scratchImag Scratch array of length at least {@link #getScratchLength()}. May be
+     *                    <code>null</code> if no scratch space is needed.
+     * @throws LengthException If the lengths of the arrays do not match the length of the plan, or
+     *                         if the scratch arrays are too short.
+     */
+    public void transform(double[] realParts, double[] imagParts, double[] scratchReal, double[] scratchImag) {
+        checkLengths(realParts, imagParts, scratchReal, scratchImag);
+        transform(realParts, imagParts, 0, scratchReal, scratchImag);
+    }
+
+    /**
+     * Computes the inverse FFT of a complex spectrum <b>in-place</b> using this plan and the given
+     * scratch space.<br>
+     * This does not allocate any memory, so it can be called repeatedly on the real-time audio
+     * path.
+     *
+     * @param realParts   Real parts of the spectrum.
+     * @param imagParts   Imaginary parts of the spectrum.
+     * @param scratchReal Scratch array of length at least {@link #getScratchLength()}. May be
+     *                    <code>null</code> if no scratch space is needed.
+     * @param scratchImag Scratch array of length at least {@link #getScratchLength()}. May be
+     *                    <code>null</code> if no scratch space is needed.
+     * @throws LengthException If the lengths of the arrays do not match the length of the plan, or
+     *                         if the scratch arrays are too short.
+     * @see FFT#ifft(double[], double[])
+     */
+    public void inverseTransform(
+            double[] realParts, double[] imagParts, double[] scratchReal, double[] scratchImag
+    ) {
+        checkLengths(realParts, imagParts, scratchReal, scratchImag);
+
+        // Compute the forward FFT of the conjugate, then take the conjugate again and scale it
+        for (int i = 0; i < length; i++) imagParts[i] = -imagParts[i];
+        transform(realParts, imagParts, 0, scratchReal, scratchImag);
+        for (int i = 0; i < length; i++) {
+            realParts[i] /= length;
+            imagParts[i] = -imagParts[i] / length;
+        }
+    }
+
+    // Package-private methods
+
+    /**
+     * Computes the FFT of <code>length</code> complex values stored from index <code>offset</code>
+     * of the arrays <b>in-place</b>.<br>
+     * No length checks are done; the caller must ensure that the arrays are long enough.
+     *
+     * @param realParts    Real parts of the signal.
+     * @param imagParts    Imaginary parts of the signal.
+     * @param offset       Index of the first value of the signal in the arrays.
+     * @param scratchReal  Scratch array of length at least {@link #getScratchLength()}.
+     * @param scratchImag  Scratch array of length at least {@link #getScratchLength()}.
+     */
+    void transform(
+            double[] realParts, double[] imagParts, int offset, double[] scratchReal, double[] scratchImag
+    ) {
+        if (length == 1) return;  // FFT of an array of length 1 is itself
+
+        switch (algorithm) {
+            case RADIX_2 -> fftRadix2(realParts, imagParts, offset);
+            case MIXED_RADIX -> fftMixedRadix(realParts, imagParts, offset, scratchReal, scratchImag);
+            case BLUESTEIN -> fftBluestein(realParts, imagParts, offset, scratchReal, scratchImag);
+        }
+    }
+
+    // Private methods
+
+    /**
+     * Helper method that checks the lengths of the arrays passed into a public transform method.
+     *
+     * @param realParts   Real parts of the values.
+     * @param imagParts   Imaginary parts of the values.
+     * @param scratchReal Real scratch array.
+     * @param scratchImag Imaginary scratch array.
+     * @throws LengthException If the lengths of the arrays do not match the length of the plan, or
+     *                         if the scratch arrays are too short.
+     */
+    private void checkLengths(double[] realParts, double[] imagParts, double[] scratchReal, double[] scratchImag) {
+        if (realParts.length != length || imagParts.length != length) {
+            throw new LengthException("The lengths of the arrays do not match the plan length of " + length);
+        }
+
+        int scratchLength = getScratchLength();
+        if (scratchLength > 0 && (scratchReal == null || scratchReal.length < scratchLength ||
+                scratchImag == null || scratchImag.length < scratchLength)) {
+            throw new LengthException("The scratch arrays must have length at least " + scratchLength);
+        }
+    }
+
+    /**
+     * Helper method that generates the tables needed for the radix-2 algorithm.
+     */
+    private void setupRadix2() {
+        // Generate bit-reversal permutation
+        int nu = MathUtils.binlog(length);  // Dimension of the problem
+        bitReversal = new int[length];
+        for (int i = 1; i < length; i++) {
+            bitReversal[i] = (bitReversal[i >> 1] >> 1) | ((i & 1) << (nu - 1));
+        }
+
+        // Generate contiguous twiddle factors for the radix-4 stages that are wide enough for the vector backend
+        if (VECTOR_LANE_COUNT == 0) return;
+
+        vectorTwiddles = new double[nu / 2][];
+        int size = nu % 2 == 1 ? 2 : 1;
+        for (int stage = 0; size < length; size *= 4, stage++) {
+            if (size < VECTOR_LANE_COUNT) continue;
+
+            int tableStep = length / (size * 4);
+            double[] twiddles = new double[6 * size];
+            for (int k = 0; k < size; k++) {
+                int t1 = k * tableStep;
+                twiddles[k] = cosTable[t1];
+                twiddles[size + k] = sinTable[t1];
+                twiddles[2 * size + k] = cosTable[2 * t1];
+                twiddles[3 * size + k] = sinTable[2 * t1];
+                twiddles[4 * size + k] = cosTable[3 * t1];
+                twiddles[5 * size + k] = sinTable[3 * t1];
+            }
+            vectorTwiddles[stage] = twiddles;
+        }
+    }
+
+    /**
+     * Helper method that generates the tables needed for Bluestein's algorithm.
+     */
+    private void setupBluestein() {
+        // Find a power of 2 convolution length such that it is at least `length * 2 + 1`
+        // (Note: `numSetBits(length * 2) = numSetBits(length) + 1`)
+        int convolutionLength = (int) Math.pow(2, MiscUtils.getNumSetBits(length) + 1);
+        convolutionPlan = getPlan(convolutionLength);
+
+        // Generate the chirp table
+        double exponentCoefficient = -Math.PI / length;
+
+        chirpReal = new double[length];
+        chirpImag = new double[length];
+        for (int i = 0; i < length; i++) {
+            double arg = ((long) i * i % (length * 2L)) * exponentCoefficient;
+            chirpReal[i] = Math.cos(arg);
+            chirpImag[i] = Math.sin(arg);
+        }
+
+        // Generate the FFT of the conjugated chirp, wrapped around so that it is circularly symmetric
+        chirpFFTReal = new double[convolutionLength];
+        chirpFFTImag = new double[convolutionLength];
+        chirpFFTReal[0] = chirpReal[0];
+        chirpFFTImag[0] = -chirpImag[0];
+        for (int i = 1; i < length; i++) {
+            chirpFFTReal[i] = chirpFFTReal[convolutionLength - i] = chirpReal[i];
+            chirpFFTImag[i] = chirpFFTImag[convolutionLength - i] = -chirpImag[i];
+        }
+        convolutionPlan.transform(chirpFFTReal, chirpFFTImag, 0, null, null);
+    }
+
+    /**
+     * Helper method that computes the FFT of the input arrays in-place using the iterative Radix-2
+     * Cooley-Tukey Algorithm.<br>
+     * Pairs of radix-2 stages are merged into single radix-4 stages, which need fewer twiddle
+     * factor multiplications and fewer passes over the arrays.
+     *
+     * @param realParts Real parts of the signal.
+     * @param imagParts Imaginary parts of the signal.
+     * @param offset    Index of the first value of the signal in the arrays.
+     * @see <a href="https://en.wikipedia.org/wiki/Cooley%E2%80%93Tukey_FFT_algorithm">Radix-2
+     * Cooley-Tukey Algorithm</a>, which was the algorithm used to generate the FFT.
+     */
+    private void fftRadix2(double[] realParts, double[] imagParts, int offset) {
+        double tReal;  // Real term
+        double tImag;  // Imaginary term
+
+        // Part 1 - Reorder the input into bit-reversed order
+        for (int k = 0; k < length; k++) {
+            int r = bitReversal[k];
+            if (r > k) {
+                // Swap elements at index `k` and `r` (relative to the offset)
+                int i = offset + k;
+                int j = offset + r;
+
+                tReal = realParts[i];
+                tImag = imagParts[i];
+                realParts[i] = realParts[j];
+                imagParts[i] = imagParts[j];
+                realParts[j] = tReal;
+                imagParts[j] = tImag;
+            }
+        }
+
+        // Part 2 - If there are an odd number of stages, perform a single radix-2 stage first
+        int size = 1;  // Size of the sub-transforms that have been computed
+        if (MathUtils.binlog(length) % 2 == 1) {
+            for (int i = offset; i < offset + length; i += 2) {
+                tReal = realParts[i + 1];
+                tImag = imagParts[i + 1];
+                realParts[i + 1] = realParts[i] - tReal;
+                imagParts[i + 1] = imagParts[i] - tImag;
+                realParts[i] += tReal;
+                imagParts[i] += tImag;
+            }
+            size = 2;
+        }
+
+        // Part 3 - Radix-4 butterflies
+        /*
+         * Because the input is in bit-reversed order, the four sub-transforms of each radix-4
+         * butterfly hold (in order) the samples with residues 0, 2, 1 and 3 modulo 4.
+         */
+        for (int stage = 0; size < length; size *= 4, stage++) {
+            // Use the vector backend if this stage is wide enough
+            if (vectorTwiddles != null && vectorTwiddles[stage] != null) {
+                VECTOR_BACKEND.radix4Stage(realParts, imagParts, offset, length, size, vectorTwiddles[stage]);
+                continue;
+            }
+
+            int tableStep = length / (size * 4);
+
+            for (int start = offset; start < offset + length; start += size * 4) {
+                for (int k = 0; k < size; k++) {
+                    int i0 = start + k;
+                    int i1 = i0 + size;
+                    int i2 = i1 + size;
+                    int i3 = i2 + size;
+
+                    // Get the twiddle factors `W^k`, `W^2k` and `W^3k`
+                    // (We omit "-" sign of the exponent because we are doing signal processing)
+                    int t1 = k * tableStep;
+                    double c1 = cosTable[t1], s1 = sinTable[t1];
+                    double c2 = cosTable[2 * t1], s2 = sinTable[2 * t1];
+                    double c3 = cosTable[3 * t1], s3 = sinTable[3 * t1];
+
+                    // Apply the twiddle factors to the sub-transforms of residues 1, 2 and 3
+                    double aReal = realParts[i0];
+                    double aImag = imagParts[i0];
+                    double bReal = realParts[i2] * c1 + imagParts[i2] * s1;  // Residue 1
+                    double bImag = imagParts[i2] * c1 - realParts[i2] * s1;
+                    double cReal = realParts[i1] * c2 + imagParts[i1] * s2;  // Residue 2
+                    double cImag = imagParts[i1] * c2 - realParts[i1] * s2;
+                    double dReal = realParts[i3] * c3 + imagParts[i3] * s3;  // Residue 3
+                    double dImag = imagParts[i3] * c3 - realParts[i3] * s3;
+
+                    // Compute the 4-point DFT
+                    double sumACReal = aReal + cReal, sumACImag = aImag + cImag;
+                    double diffACReal = aReal - cReal, diffACImag = aImag - cImag;
+                    double sumBDReal = bReal + dReal, sumBDImag = bImag + dImag;
+                    double diffBDReal = bReal - dReal, diffBDImag = bImag - dImag;
+
+                    realParts[i0] = sumACReal + sumBDReal;
+                    imagParts[i0] = sumACImag + sumBDImag;
+                    realParts[i1] = diffACReal + diffBDImag;  // diffAC - i * diffBD
+                    imagParts[i1] = diffACImag - diffBDReal;
+                    realParts[i2] = sumACReal - sumBDReal;
+                    imagParts[i2] = sumACImag - sumBDImag;
+                    realParts[i3] = diffACReal - diffBDImag;  // diffAC + i * diffBD
+                    imagParts[i3] = diffACImag + diffBDReal;
+                }
+            }
+        }
+    }
+
+    /**
+     * Helper method that computes the FFT of the input arrays in-place using the mixed-radix
+     * Stockham algorithm.<br>
+     * Each stage combines <code>p</code> sub-transforms of length <code>L</code> into transforms of
+     * length <code>pL</code>, where <code>p</code> is the radix of the stage. Stages alternate
+     * between the input arrays and the scratch arrays, which avoids a separate reordering pass.
+     *
+     * @param realParts   Real parts of the signal.
+     * @param imagParts   Imaginary parts of the signal.
+     * @param offset      Index of the first value of the signal in the arrays.
+     * @param scratchReal Scratch array of length at least <code>length</code>.
+     * @param scratchImag Scratch array of length at least <code>length</code>.
+     * @see <a href="https://en.wikipedia.org/wiki/Cooley%E2%80%93Tukey_FFT_algorithm">
+     * Cooley-Tukey FFT Algorithm</a>, of which the Stockham algorithm is a self-sorting variant.
+     */
+    private void fftMixedRadix(
+            double[] realParts, double[] imagParts, int offset, double[] scratchReal, double[] scratchImag
+    ) {
+        // Define the arrays to read from and write to
+        double[] inReal = realParts, inImag = imagParts, outReal = scratchReal, outImag = scratchImag;
+        int inOffset = offset, outOffset = 0;
+
+        /*
+         * Before each stage, the value at index `k * R + r` holds the DFT (at frequency `k`) of the
+         * length-`L` subsequence `x[r], x[r + R], x[r + 2R], ...`, where `R = length / L`.
+         */
+        int subLength = 1;  // This is `L`
+        for (int radix : radices) {
+            int numResidues = length / (subLength * radix);  // This is `R / p`
+            int tableStep = length / (subLength * radix);
+
+            for (int k = 0; k < subLength; k++) {
+                int inStart = inOffset + k * numResidues * radix;
+                int outStart = outOffset + k * numResidues;
+                int twiddleIndex = k * tableStep;
+                int outStride = subLength * numResidues;
+
+                switch (radix) {
+                    case 2 -> butterfly2(
+                            inReal, inImag, outReal, outImag, inStart, outStart, numResidues, outStride,
+                            twiddleIndex
+                    );
+                    case 3 -> butterfly3(
+                            inReal, inImag, outReal, outImag, inStart, outStart, numResidues, outStride,
+                            twiddleIndex
+                    );
+                    case 4 -> butterfly4(
+                            inReal, inImag, outReal, outImag, inStart, outStart, numResidues, outStride,
+                            twiddleIndex
+                    );
+                    case 5 -> butterfly5(
+                            inReal, inImag, outReal, outImag, inStart, outStart, numResidues, outStride,
+                            twiddleIndex
+                    );
+                }
+            }
+
+            // Swap the input and output arrays
+            double[] tempReal = inReal, tempImag = inImag;
+            int tempOffset = inOffset;
+            inReal = outReal;
+            inImag = outImag;
+            inOffset = outOffset;
+            outReal = tempReal;
+            outImag = tempImag;
+            outOffset = tempOffset;
+
+            subLength *= radix;
+        }
+
+        // Copy the result back into the original arrays if needed
+        if (inReal != realParts) {
+            System.arraycopy(inReal, inOffset, realParts, offset, length);
+            System.arraycopy(inImag, inOffset, imagParts, offset, length);
+        }
+    }
+
+    /**
+     * Helper method that performs the radix-2 butterflies of one frequency of a Stockham stage.
+     *
+     * @param inReal       Real parts of the input of the stage.
+     * @param inImag       Imaginary parts of the input of the stage.
+     * @param outReal      Real parts of the output of the stage.
+     * @param outImag      Imaginary parts of the output of the stage.
+     * @param inStart      Index of the first input of the frequency.
+     * @param outStart     Index of the first output of the frequency.
+     * @param numResidues  Number of butterflies to perform, which is also the stride of the inputs.
+     * @param outStride    Stride of the outputs.
+     * @param twiddleIndex Index of the twiddle factor <code>W^k</code> in the twiddle tables.
+     */
+    private void butterfly2(
+            double[] inReal, double[] inImag, double[] outReal, double[] outImag, int inStart, int outStart,
+            int numResidues, int outStride, int twiddleIndex
+    ) {
+        double c1 = cosTable[twiddleIndex], s1 = sinTable[twiddleIndex];
+
+        for (int r = 0; r < numResidues; r++) {
+            int i0 = inStart + r;
+            int i1 = i0 + numResidues;
+
+            double aReal = inReal[i0], aImag = inImag[i0];
+            double bReal = inReal[i1] * c1 + inImag[i1] * s1;
+            double bImag = inImag[i1] * c1 - inReal[i1] * s1;
+
+            int o0 = outStart + r;
+            outReal[o0] = aReal + bReal;
+            outImag[o0] = aImag + bImag;
+            outReal[o0 + outStride] = aReal - bReal;
+            outImag[o0 + outStride] = aImag - bImag;
+        }
+    }
+
+    /**
+     * Helper method that performs the radix-3 butterflies of one frequency of a Stockham stage.
+     *
+     * @param inReal       Real parts of the input of the stage.
+     * @param inImag       Imaginary parts of the input of the stage.
+     * @param outReal      Real parts of the output of the stage.
+     * @param outImag      Imaginary parts of the output of the stage.
+     * @param inStart      Index of the first input of the frequency.
+     * @param outStart     Index of the first output of the frequency.
+     * @param numResidues  Number of butterflies to perform, which is also the stride of the inputs.
+     * @param outStride    Stride of the outputs.
+     * @param twiddleIndex Index of the twiddle factor <code>W^k</code> in the twiddle tables.
+     */
+    private void butterfly3(
+            double[] inReal, double[] inImag, double[] outReal, double[] outImag, int inStart, int outStart,
+            int numResidues, int outStride, int twiddleIndex
+    ) {
+        final double sin60 = Math.sqrt(3) / 2;
+        double c1 = cosTable[twiddleIndex], s1 = sinTable[twiddleIndex];
+        double c2 = cosTable[2 * twiddleIndex], s2 = sinTable[2 * twiddleIndex];
+
+        for (int r = 0; r < numResidues; r++) {
+            int i0 = inStart + r;
+            int i1 = i0 + numResidues;
+            int i2 = i1 + numResidues;
+
+            // Apply the twiddle factors
+            double aReal = inReal[i0], aImag = inImag[i0];
+            double bReal = inReal[i1] * c1 + inImag[i1] * s1;
+            double bImag = inImag[i1] * c1 - inReal[i1] * s1;
+            double cReal = inReal[i2] * c2 + inImag[i2] * s2;
+            double cImag = inImag[i2] * c2 - inReal[i2] * s2;
+
+            // Compute the 3-point DFT
+            double sumReal = bReal + cReal, sumImag = bImag + cImag;
+            double midReal = aReal - sumReal / 2, midImag = aImag - sumImag / 2;
+            double rotReal = sin60 * (bReal - cReal), rotImag = sin60 * (bImag - cImag);
+
+            int o0 = outStart + r;
+            int o1 = o0 + outStride;
+            int o2 = o1 + outStride;
+            outReal[o0] = aReal + sumReal;
+            outImag[o0] = aImag + sumImag;
+            outReal[o1] = midReal + rotImag;  // mid - i * rot
+            outImag[o1] = midImag - rotReal;
+            outReal[o2] = midReal - rotImag;  // mid + i * rot
+            outImag[o2] = midImag + rotReal;
+        }
+    }
+
+    /**
+     * Helper method that performs the radix-4 butterflies of one frequency of a Stockham stage.
+     *
+     * @param inReal       Real parts of the input of the stage.
+     * @param inImag       Imaginary parts of the input of the stage.
+     * @param outReal      Real parts of the output of the stage.
+     * @param outImag      Imaginary parts of the output of the stage.
+     * @param inStart      Index of the first input of the frequency.
+     * @param outStart     Index of the first output of the frequency.
+     * @param numResidues  Number of butterflies to perform, which is also the stride of the inputs.
+     * @param outStride    Stride of the outputs.
+     * @param twiddleIndex Index of the twiddle factor <code>W^k</code> in the twiddle tables.
+     */
+    private void butterfly4(
+            double[] inReal, double[] inImag, double[] outReal, double[] outImag, int inStart, int outStart,
+            int numResidues, int outStride, int twiddleIndex
+    ) {
+        double c1 = cosTable[twiddleIndex], s1 = sinTable[twiddleIndex];
+        double c2 = cosTable[2 * twiddleIndex], s2 = sinTable[2 * twiddleIndex];
+        double c3 = cosTable[3 * twiddleIndex], s3 = sinTable[3 * twiddleIndex];
+
+        for (int r = 0; r < numResidues; r++) {
+            int i0 = inStart + r;
+            int i1 = i0 + numResidues;
+            int i2 = i1 + numResidues;
+            int i3 = i2 + numResidues;
+
+            // Apply the twiddle factors
+            double aReal = inReal[i0], aImag = inImag[i0];
+            double bReal = inReal[i1] * c1 + inImag[i1] * s1;
+            double bImag = inImag[i1] * c1 - inReal[i1] * s1;
+            double cReal = inReal[i2] * c2 + inImag[i2] * s2;
+            double cImag = inImag[i2] * c2 - inReal[i2] * s2;
+            double dReal = inReal[i3] * c3 + inImag[i3] * s3;
+            double dImag = inImag[i3] * c3 - inReal[i3] * s3;
+
+            // Compute the 4-point DFT
+            double sumACReal = aReal + cReal, sumACImag = aImag + cImag;
+            double diffACReal = aReal - cReal, diffACImag = aImag - cImag;
+            double sumBDReal = bReal + dReal, sumBDImag = bImag + dImag;
+            double diffBDReal = bReal - dReal, diffBDImag = bImag - dImag;
+
+            int o0 = outStart + r;
+            int o1 = o0 + outStride;
+            int o2 = o1 + outStride;
+            int o3 = o2 + outStride;
+            outReal[o0] = sumACReal + sumBDReal;
+            outImag[o0] = sumACImag + sumBDImag;
+            outReal[o1] = diffACReal + diffBDImag;  // diffAC - i * diffBD
+            outImag[o1] = diffACImag - diffBDReal;
+            outReal[o2] = sumACReal - sumBDReal;
+            outImag[o2] = sumACImag - sumBDImag;
+            outReal[o3] = diffACReal - diffBDImag;  // diffAC + i * diffBD
+            outImag[o3] = diffACImag + diffBDReal;
+        }
+    }
+
+    /**
+     * Helper method that performs the radix-5 butterflies of one frequency of a Stockham stage.
+     *
+     * @param inReal       Real parts of the input of the stage.
+     * @param inImag       Imaginary parts of the input of the stage.
+     * @param outReal      Real parts of the output of the stage.
+     * @param outImag      Imaginary parts of the output of the stage.
+     * @param inStart      Index of the first input of the frequency.
+     * @param outStart     Index of the first output of the frequency.
+     * @param numResidues  Number of butterflies to perform, which is also the stride of the inputs.
+     * @param outStride    Stride of the outputs.
+     * @param twiddleIndex Index of the twiddle factor <code>W^k</code> in the twiddle tables.
+     */
+    private void butterfly5(
+            double[] inReal, double[] inImag, double[] outReal, double[] outImag, int inStart, int outStart,
+            int numResidues, int outStride, int twiddleIndex
+    ) {
+        final double cos72 = Math.cos(2 * Math.PI / 5), sin72 = Math.sin(2 * Math.PI / 5);
+        final double cos144 = Math.cos(4 * Math.PI / 5), sin144 = Math.sin(4 * Math.PI / 5);
+
+        double c1 = cosTable[twiddleIndex], s1 = sinTable[twiddleIndex];
+        double c2 = cosTable[2 * twiddleIndex], s2 = sinTable[2 * twiddleIndex];
+        double c3 = cosTable[3 * twiddleIndex], s3 = sinTable[3 * twiddleIndex];
+        double c4 = cosTable[4 * twiddleIndex], s4 = sinTable[4 * twiddleIndex];
+
+        for (int r = 0; r < numResidues; r++) {
+            int i0 = inStart + r;
+            int i1 = i0 + numResidues;
+            int i2 = i1 + numResidues;
+            int i3 = i2 + numResidues;
+            int i4 = i3 + numResidues;
+
+            // Apply the twiddle factors
+            double aReal = inReal[i0], aImag = inImag[i0];
+            double bReal = inReal[i1] * c1 + inImag[i1] * s1;
+            double bImag = inImag[i1] * c1 - inReal[i1] * s1;
+            double cReal = inReal[i2] * c2 + inImag[i2] * s2;
+            double cImag = inImag[i2] * c2 - inReal[i2] * s2;
+            double dReal = inReal[i3] * c3 + inImag[i3] * s3;
+            double dImag = inImag[i3] * c3 - inReal[i3] * s3;
+            double eReal = inReal[i4] * c4 + inImag[i4] * s4;
+            double eImag = inImag[i4] * c4 - inReal[i4] * s4;
+
+            // Compute the 5-point DFT
+            double sumBEReal = bReal + eReal, sumBEImag = bImag + eImag;
+            double sumCDReal = cReal + dReal, sumCDImag = cImag + dImag;
+            double diffBEReal = bReal - eReal, diffBEImag = bImag - eImag;
+            double diffCDReal = cReal - dReal, diffCDImag = cImag - dImag;
+
+            double mid1Real = aReal + cos72 * sumBEReal + cos144 * sumCDReal;
+            double mid1Imag = aImag + cos72 * sumBEImag + cos144 * sumCDImag;
+            double mid2Real = aReal + cos144 * sumBEReal + cos72 * sumCDReal;
+            double mid2Imag = aImag + cos144 * sumBEImag + cos72 * sumCDImag;
+
+            double rot1Real = sin72 * diffBEReal + sin144 * diffCDReal;
+            double rot1Imag = sin72 * diffBEImag + sin144 * diffCDImag;
+            double rot2Real = sin144 * diffBEReal - sin72 * diffCDReal;
+            double rot2Imag = sin144 * diffBEImag - sin72 * diffCDImag;
+
+            int o0 = outStart + r;
+            int o1 = o0 + outStride;
+            int o2 = o1 + outStride;
+            int o3 = o2 + outStride;
+            int o4 = o3 + outStride;
+            outReal[o0] = aReal + sumBEReal + sumCDReal;
+            outImag[o0] = aImag + sumBEImag + sumCDImag;
+            outReal[o1] = mid1Real + rot1Imag;  // mid1 - i * rot1
+            outImag[o1] = mid1Imag - rot1Real;
+            outReal[o4] = mid1Real - rot1Imag;  // mid1 + i * rot1
+            outImag[o4] = mid1Imag + rot1Real;
+            outReal[o2] = mid2Real + rot2Imag;  // mid2 - i * rot2
+            outImag[o2] = mid2Imag - rot2Real;
+            outReal[o3] = mid2Real - rot2Imag;  // mid2 + i * rot2
+            outImag[o3] = mid2Imag + rot2Real;
+        }
+    }
+
+    /**
+     * Helper method that computes the FFT of the input arrays in-place using Bluestein's algorithm
+     * (also known as a Chirp-Z Transform, or CZT for short).
+     *
+     * @param realParts   Real parts of the signal.
+     * @param imagParts   Imaginary parts of the signal.
+     * @param offset      Index of the first value of the signal in the arrays.
+     * @param scratchReal Scratch array of length at least the convolution length.
+     * @param scratchImag Scratch array of length at least the convolution length.
+     * @see <a href="https://en.wikipedia.org/wiki/Chirp_Z-transform#Bluestein's_algorithm">
+     * Bluestein's CZT Algorithm</a>, which was the algorithm used to generate the FFT.
+     */
+    private void fftBluestein(
+            double[] realParts, double[] imagParts, int offset, double[] scratchReal, double[] scratchImag
+    ) {
+        int convolutionLength = convolutionPlan.length;
+
+        // Generate the first temporary vector
+        for (int i = 0; i < length; i++) {
+            double xReal = realParts[offset + i], xImag = imagParts[offset + i];
+            scratchReal[i] = xReal * chirpReal[i] - xImag * chirpImag[i];
+            scratchImag[i] = xReal * chirpImag[i] + xImag * chirpReal[i];
+        }
+        for (int i = length; i < convolutionLength; i++) {
+            scratchReal[i] = 0;
+            scratchImag[i] = 0;
+        }
+
+        // Convolve with the chirp by multiplying with its precomputed FFT
+        // (See https://en.wikipedia.org/wiki/Convolution_theorem)
+        convolutionPlan.transform(scratchReal, scratchImag, 0, null, null);
+        for (int i = 0; i < convolutionLength; i++) {
+            double tReal = scratchReal[i] * chirpFFTReal[i] - scratchImag[i] * chirpFFTImag[i];
+            double tImag = scratchReal[i] * chirpFFTImag[i] + scratchImag[i] * chirpFFTReal[i];
+
+            // Take the conjugate in preparation for the inverse FFT
+            scratchReal[i] = tReal;
+            scratchImag[i] = -tImag;
+        }
+        convolutionPlan.transform(scratchReal, scratchImag, 0, null, null);
+
+        // Undo the conjugation of the inverse FFT, keep only the first `length` elements and perform
+        // postprocessing step
+        for (int i = 0; i < length; i++) {
+            double yReal = scratchReal[i] / convolutionLength;
+            double yImag = -scratchImag[i] / convolutionLength;
+            realParts[offset + i] = yReal * chirpReal[i] - yImag * chirpImag[i];
+            imagParts[offset + i] = yReal * chirpImag[i] + yImag * chirpReal[i];
+        }
+    }
+
+    /**
+     * Helper method that splits the length into radices that the mixed-radix algorithm supports.
+     *
+     * @param length Length to factorize.
+     * @return Array of the radices of each stage, or <code>null</code> if the length has a prime
+     * factor that is not supported.
+     */
+    private static int[] factorize(int length) {
+        List<Integer> factors = new ArrayList<>();
+        for (int radix : RADICES) {
+            while (length % radix == 0) {
+                factors.add(radix);
+                length /= radix;
+            }
+        }
+
+        if (length != 1) return null;
+        return factors.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    // Helper enums
+    private enum Algorithm {RADIX_2, MIXED_RADIX, BLUESTEIN}
+
+    /**
+     * Helper method that loads the vector backend.
+     *
+     * @return The vector backend, or <code>null</code> if it was not requested, was not compiled,
+     * or the <code>jdk.incubator.vector</code> module is not present.
+     */
+    private static FFTVectorBackend loadVectorBackend() {
+        // Check if the vector backend was requested and is available
+        if (!Boolean.getBoolean(VECTOR_BACKEND_PROPERTY)) return null;
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) return null;
+
+        // Vectors with fewer than 2 lanes do not help, so fall back to the scalar code
+        try {
+            FFTVectorBackend backend = (FFTVectorBackend) Class.forName(VECTOR_BACKEND_CLASS)
+                    .getDeclaredConstructor().newInstance();
+            return backend.getLaneCount() >= 2 ? backend : null;
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * FFTVectorBackend.java
+ * Description: Interface of the SIMD kernels that the FFT can optionally use.
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public Licence as published by the Free Software Foundation, either version 3 of the
+ * Licence, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public Licence for more details.
+ *
+ * You should have received a copy of the GNU General Public Licence along with this program. If
+ * not, see <https://www.gnu.org/licenses/>
+ *
+ * Copyright © AudiTranscribe Team
+ */
+
+package app.auditranscribe.signal.representations;
+
+/**
+ * Interface of the SIMD kernels that the FFT can optionally use.<br>
+ * The implementation uses the incubating Java Vector API, so it is only compiled in the
+ * <code>vector-fft</code> build profile; {@link FFTPlan} loads it by name if it was requested.
+ */
+interface FFTVectorBackend {
+    /**
+     * Returns the number of <code>double</code> values that each kernel processes at a time.
+     *
+     * @return Number of SIMD lanes.
+     */
+    int getLaneCount();
+
+    /**
+     * Computes one radix-4 stage of the radix-2 algorithm, processing <code>getLaneCount()</code>
+     * butterflies at a time.<br>
+     * This performs exactly the same operations as the scalar radix-4 stage in {@link FFTPlan}.
+     *
+     * @param realParts Real parts of the signal.
+     * @param imagParts Imaginary parts of the signal.
+     * @param offset    Index of the first value of the signal in the arrays.
+     * @param length    Length of the signal.
+     * @param size      Size of the sub-transforms that have been computed. Must be a multiple of
+     *                  <code>getLaneCount()</code>.
+     * @param twiddles  Contiguous twiddle factors of this stage, stored as the blocks
+     *                  <code>cos(W^k)</code>, <code>sin(W^k)</code>, <code>cos(W^2k)</code>,
+     *                  <code>sin(W^2k)</code>, <code>cos(W^3k)</code> and <code>sin(W^3k)</code>,
+     *                  each of length <code>size</code>.
+     */
+    void radix4Stage(double[] realParts, double[] imagParts, int offset, int length, int size, double[] twiddles);
+}
@@ -0,0 +1,376 @@
+/*
+ * FilterBasisCache.java
+ * Description: Cache of the FFT'd filter bases used by the Q-Transform.
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public Licence as published by the Free Software Foundation, either version 3 of the
+ * Licence, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public Licence for more details.
+ *
+ * You should have received a copy of the GNU General Public Licence along with this program. If
+ * not, see <https://www.gnu.org/licenses/>
+ *
+ * Copyright © AudiTranscribe Team
+ */
+
+package app.auditranscribe.signal.representations;
+
+import app.auditranscribe.generic.LoggableClass;
+import app.auditranscribe.generic.tuples.Pair;
+import app.auditranscribe.generic.tuples.Triple;
+import app.auditranscribe.io.IOMethods;
+import app.auditranscribe.misc.Complex;
+import app.auditranscribe.misc.LRUCache;
+import app.auditranscribe.misc.SparseComplexMatrix;
+import app.auditranscribe.signal.windowing.SignalWindow;
+import app.auditranscribe.utils.HashingUtils;
+
+import java.io.*;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+
+/**
+ * Cache of the FFT'd filter bases used by the Q-Transform.<br>
+ * Bases are keyed by the sample rate, the centre frequencies, the window function and the
+ * bandwidth parameters. The most recently used bases are kept in memory; if a persistence folder is
+ * set, bases are also saved to disk, so that they can be reused across runs of the application.
+ * Both the bases in memory and the saved bases are bounded in total size, with the least recently
+ * used bases dropped first. The sparse forms of the bases are only kept in memory, and the dense
+ * bases that they are derived from are not kept in memory at all.<br>
+ * Cached bases are shared, so they <b>must not be modified</b> by their users.
+ */
+public final class FilterBasisCache extends LoggableClass {
+    // Constants
+    public static final long MAX_NUM_CACHED_BYTES = 64L * 1024 * 1024;  // Estimated size of each in-memory cache
+    public static final long MAX_NUM_SAVED_BYTES = 256L * 1024 * 1024;  // Total size of the saved bases
+
+    private static final int FILE_FORMAT_VERSION = 1;
+    private static final String FILE_EXTENSION = ".basis";
+    private static final String TEMP_FILE_EXTENSION = ".tmp";
+    private static final long STALE_TEMP_FILE_AGE = 60 * 60 * 1000;  // In milliseconds
+
+    private static final long NUM_BYTES_PER_COMPLEX = 40;  // Reference, object header and two doubles
+
+    private static final LRUCache<String, Triple<Complex[][], Integer, double[]>> BASIS_CACHE =
+            new LRUCache<>(MAX_NUM_CACHED_BYTES, FilterBasisCache::estimateNumBytes);
+    private static final LRUCache<String, Pair<SparseComplexMatrix, Integer>> SPARSE_BASIS_CACHE =
+            new LRUCache<>(MAX_NUM_CACHED_BYTES, sparseBasis -> sparseBasis.value0().estimateNumBytes());
+
+    // Static attributes
+    private static volatile String persistenceFolder = null;
+
+    private FilterBasisCache() {
+        // Private constructor to signal this is a utility class
+    }
+
+    // Getter/setter methods
+
+    public static String getPersistenceFolder() {
+        return persistenceFolder;
+    }
+
+    /**
+     * Sets the folder that filter bases are saved to and loaded from.
+     *
+     * @param folderPath Absolute path to the folder, or <code>null</code> to only cache bases in
+     *                   memory.
+     */
+    public static void setPersistenceFolder(String folderPath) {
+        persistenceFolder = folderPath;
+    }
+
+    // Public methods
+
+    /**
+     * Removes all the filter bases that are cached in memory.<br>
+     * Bases that were saved to disk are kept.
+     */
+    public static void clear() {
+        BASIS_CACHE.clear();
+        SPARSE_BASIS_CACHE.clear();
+    }
+
+    // Package-private methods
+
+    /**
+     * Returns the filter basis for the given parameters, computing it only if it is not cached.
+     *
+     * @param sr             Sample rate.
+     * @param freqs          Centre frequencies of the frequency bins.
+     * @param windowFunction Signal window function.
+     * @param isCQT          Whether this is a CQT or not.
+     * @param gamma          Gamma value.
+     * @param alpha          Alpha value.
+     * @param computeBasis   Computes the filter basis if it is not cached.
+     * @return Triplet of values, as returned by <code>computeBasis</code>. First value is the FFT
+     * basis, second value is the number of FFT frequency bins, and the third value is the filters'
+     * lengths.
+     */
+    static Triple<Complex[][], Integer, double[]> getBasis(
+            double sr, double[] freqs, SignalWindow windowFunction, boolean isCQT, double gamma, double alpha,
+            Supplier<Triple<Complex[][], Integer, double[]>> computeBasis
+    ) {
+        String key = getKey(sr, freqs, windowFunction, isCQT, gamma, alpha);
+        return BASIS_CACHE.computeIfAbsent(key, k -> loadOrComputeBasis(k, computeBasis));
+    }
+
+    /**
+     * Returns the sparse form of the filter basis for the given parameters, computing it only if it
+     * is not cached.<br>
+     * The dense basis is loaded or computed only to derive the sparse basis, and is not kept in
+     * memory afterwards (unless it was already cached).
+     *
+     * @param sr             Sample rate.
+     * @param freqs          Centre frequencies of the frequency bins.
+     * @param windowFunction Signal window function.
+     * @param isCQT          Whether this is a CQT or not.
+     * @param gamma          Gamma value.
+     * @param alpha          Alpha value.
+     * @param sparsity       Fraction of each filter's total magnitude that can be dropped from the
+     *                       filter basis.
+     * @param computeBasis   Computes the filter basis if it is not cached. See
+     *                       {@link #getBasis(double, double[], SignalWindow, boolean, double, double, Supplier)}.
+     * @return Pair of values. First value is the sparse FFT basis, and the second value is the
+     * number of FFT frequency bins.
+     */
+    static Pair<SparseComplexMatrix, Integer> getSparseBasis(
+            double sr, double[] freqs, SignalWindow windowFunction, boolean isCQT, double gamma, double alpha,
+            double sparsity, Supplier<Triple<Complex[][], Integer, double[]>> computeBasis
+    ) {
+        String basisKey = getKey(sr, freqs, windowFunction, isCQT, gamma, alpha);
+
+        return SPARSE_BASIS_CACHE.computeIfAbsent(basisKey + ";sparsity=" + sparsity, k -> {
+            Triple<Complex[][], Integer, double[]> basis = BASIS_CACHE.get(basisKey);
+            if (basis == null) basis = loadOrComputeBasis(basisKey, computeBasis);
+
+            return new Pair<>(SparseComplexMatrix.fromDense(basis.value0(), sparsity), basis.value1());
+        });
+    }
+
+    /**
+     * Deletes the least recently used saved filter bases, until the saved bases take up at most
+     * <code>maxNumBytes</code> bytes.<br>
+     * A saved basis is used when it is saved or loaded. Temporary files left behind by saves that
+     * did not finish are also deleted.
+     *
+     * @param folder      Folder that filter bases are saved in.
+     * @param maxNumBytes Maximum total size of the saved bases.
+     */
+    static void pruneSavedBases(String folder, long maxNumBytes) {
+        File[] files = new File(folder).listFiles();
+        if (files == null) return;
+
+        // Get the saved bases, and delete stale temporary files
+        List<Pair<Long, File>> savedBases = new ArrayList<>();
+        long now = System.currentTimeMillis();
+
+        for (File file : files) {
+            long lastModified = file.lastModified();
+            if (file.getName().endsWith(FILE_EXTENSION)) {
+                savedBases.add(new Pair<>(lastModified, file));
+            } else if (file.getName().endsWith(TEMP_FILE_EXTENSION) && now - lastModified > STALE_TEMP_FILE_AGE) {
+                IOMethods.delete(file);
+            }
+        }
+
+        // Keep the most recently used bases that fit
+        savedBases.sort(Comparator.comparing(Pair<Long, File>::value0).reversed());
+
+        long numBytes = 0;
+        for (Pair<Long, File> savedBasis : savedBases) {
+            numBytes += savedBasis.value1().length();
+            if (numBytes > maxNumBytes && IOMethods.delete(savedBasis.value1())) {
+                log(
+                        Level.FINE, "Deleted least recently used filter basis " + savedBasis.value1().getName(),
+                        FilterBasisCache.class.getName()
+                );
+            }
+        }
+    }
+
+    // Private methods
+
+    /**
+     * Helper method that loads a saved filter basis, or computes (and saves) it if it was not
+     * saved.
+     *
+     * @param key          Cache key of the filter basis.
+     * @param computeBasis Computes the filter basis.
+     * @return The filter basis.
+     */
+    private static Triple<Complex[][], Integer, double[]> loadOrComputeBasis(
+            String key, Supplier<Triple<Complex[][], Integer, double[]>> computeBasis
+    ) {
+        // Try to load the basis from disk first
+        String folder = persistenceFolder;
+        File file = folder == null ? null : getBasisFile(folder, key);
+
+        if (file != null && file.exists()) {
+            try {
+                Triple<Complex[][], Integer, double[]> basis = readBasis(file, key);
+                file.setLastModified(System.currentTimeMillis());  // Mark the basis as recently used
+                return basis;
+            } catch (IOException e) {
+                log(
+                        Level.WARNING, "Could not read saved filter basis " + file.getName(),
+                        FilterBasisCache.class.getName()
+                );
+            }
+        }
+
+        // Compute the basis and save it if needed
+        Triple<Complex[][], Integer, double[]> basis = computeBasis.get();
+        if (file != null) {
+            try {
+                IOMethods.createFolder(folder);
+                writeBasis(file, key, basis);
+                pruneSavedBases(folder, MAX_NUM_SAVED_BYTES);
+            } catch (IOException e) {
+                log(
+                        Level.WARNING, "Could not save filter basis " + file.getName(),
+                        FilterBasisCache.class.getName()
+                );
+            }
+        }
+
+        return basis;
+    }
+
+    /**
+     * Helper method that estimates the number of bytes of memory that a filter basis takes up.
+     *
+     * @param basis The filter basis.
+     * @return Estimated size of the basis, in bytes.
+     */
+    private static long estimateNumBytes(Triple<Complex[][], Integer, double[]> basis) {
+        Complex[][] fftBasis = basis.value0();
+        long numValues = fftBasis.length == 0 ? 0 : (long) fftBasis.length * fftBasis[0].length;
+        return numValues * NUM_BYTES_PER_COMPLEX + basis.value2().length * 8L;
+    }
+
+    /**
+     * Helper method that gets the cache key of a filter basis.
+     *
+     * @param sr             Sample rate.
+     * @param freqs          Centre frequencies of the frequency bins.
+     * @param windowFunction Signal window function.
+     * @param isCQT          Whether this is a CQT or not.
+     * @param gamma          Gamma value.
+     * @param alpha          Alpha value.
+     * @return Cache key of the filter basis.
+     */
+    private static String getKey(
+            double sr, double[] freqs, SignalWindow windowFunction, boolean isCQT, double gamma, double alpha
+    ) {
+        return "sr=" + sr + ";freqs=" + Arrays.toString(freqs) + ";window=" + windowFunction.name() +
+                ";cqt=" + isCQT + ";gamma=" + gamma + ";alpha=" + alpha;
+    }
+
+    /**
+     * Helper method that gets the file that a filter basis is saved to.
+     *
+     * @param folder Folder that filter bases are saved in.
+     * @param key    Cache key of the filter basis.
+     * @return The file of the filter basis.
+     */
+    private static File getBasisFile(String folder, String key) {
+        try {
+            return new File(IOMethods.joinPaths(folder, HashingUtils.getHash(key, "SHA-256") + FILE_EXTENSION));
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);  // SHA-256 is always available
+        }
+    }
+
+    /**
+     * Helper method that writes a filter basis to a file.<br>
+     * The basis is written to a temporary file, which is then moved to the file in one step, so
+     * other threads and other instances of the application never read a partially written basis.
+     *
+     * @param file  The file to write to.
+     * @param key   Cache key of the filter basis.
+     * @param basis The filter basis.
+     * @throws IOException If the file could not be written to.
+     */
+    private static void writeBasis(
+            File file, String key, Triple<Complex[][], Integer, double[]> basis
+    ) throws IOException {
+        Complex[][] fftBasis = basis.value0();
+        double[] lengths = basis.value2();
+
+        Path tempFile = Files.createTempFile(file.getParentFile().toPath(), file.getName(), TEMP_FILE_EXTENSION);
+
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(tempFile.toFile()))
+        )) {
+            out.writeInt(FILE_FORMAT_VERSION);
+            out.writeUTF(key);  // Guards against hash collisions
+            out.writeInt(basis.value1());
+
+            out.writeInt(lengths.length);
+            for (double length : lengths) out.writeDouble(length);
+
+            out.writeInt(fftBasis.length);
+            out.writeInt(fftBasis[0].length);
+            for (Complex[] row : fftBasis) {
+                for (Complex value : row) {
+                    out.writeDouble(value.re);
+                    out.writeDouble(value.im);
+                }
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(tempFile);
+            throw e;
+        }
+
+        // Replace the file in one step
+        try {
+            Files.move(tempFile, file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempFile, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            Files.deleteIfExists(tempFile);
+            throw e;
+        }
+    }
+
+    /**
+     * Helper method that reads a filter basis from a file.
+     *
+     * @param file The file to read from.
+     * @param key  Expected cache key of the filter basis.
+     * @return The filter basis.
+     * @throws IOException If the file could not be read, or if it does not hold the expected basis.
+     */
+    private static Triple<Complex[][], Integer, double[]> readBasis(File file, String key) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != FILE_FORMAT_VERSION || !in.readUTF().equals(key)) {
+                throw new IOException("Saved filter basis does not match the expected basis");
+            }
+            int numFFT = in.readInt();
+
+            double[] lengths = new double[in.readInt()];
+            for (int i = 0; i < lengths.length; i++) lengths[i] = in.readDouble();
+
+            Complex[][] fftBasis = new Complex[in.readInt()][in.readInt()];
+            for (Complex[] row : fftBasis) {
+                for (int j = 0; j < row.length; j++) {
+                    row[j] = new Complex(in.readDouble(), in.readDouble());
+                }
+            }
+
+            return new Triple<>(fftBasis, numFFT, lengths);
+        }
+    }
+}
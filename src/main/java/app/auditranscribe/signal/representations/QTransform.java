@@ -25,8 +25,10 @@ import app.auditranscribe.generic.tuples.Pair;
 import app.auditranscribe.generic.tuples.Triple;
 import app.auditranscribe.misc.Complex;
 import app.auditranscribe.misc.CustomTask;
+import app.auditranscribe.misc.SparseComplexMatrix;
 import app.auditranscribe.signal.FrequencyRangeGeneration;
 import app.auditranscribe.signal.SignalHelpers;
+import app.auditranscribe.signal.SignalProcessingPool;
 import app.auditranscribe.signal.TuningEstimator;
 import app.auditranscribe.signal.Wavelet;
 import app.auditranscribe.signal.resampling_filters.Filter;
@@ -35,7 +37,12 @@ import app.auditranscribe.utils.MathUtils;
 import app.auditranscribe.utils.MatrixUtils;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 
 /**
@@ -50,6 +57,9 @@ public final class QTransform extends LoggableClass {
     // Constants
     static final double BW_FASTEST = 0.85;
 
+    // Default fraction of each filter's total magnitude that can be dropped from the sparse filter basis
+    private static final double DEFAULT_SPARSITY = 0.01;
+
     private QTransform() {
         // Private constructor to signal this is a utility class
     }
@@ -96,10 +106,69 @@ public final class QTransform extends LoggableClass {
     public static Complex[][] cqt(
             double[] y, double sr, int hopLength, double fmin, int numBins, int binsPerOctave, double tuning,
             SignalWindow windowFunction, CustomTask<?> task
+    ) {
+        return cqt(y, sr, hopLength, fmin, numBins, binsPerOctave, tuning, windowFunction, task, false);
+    }
+
+    /**
+     * Constant-Q Transform function, optionally computing the octaves in parallel.
+     *
+     * @param y              Audio time series.
+     * @param sr             Sample rate of the audio.
+     * @param hopLength      Number of samples between successive CQT columns.
+     * @param fmin           Minimum frequency.
+     * @param numBins        Number of frequency bins, starting at <code>fmin</code>.
+     * @param binsPerOctave  Number of bins per octave.
+     * @param tuning         Tuning offset in fractions of a bin. See
+     *                       {@link #cqt(double[], double, int, double, int, int, double, SignalWindow, CustomTask)}.
+     * @param windowFunction Signal window function to apply to the basis filters.
+     * @param task           The <code>CustomTask</code> object that is handling the generation.
+     *                       Pass in <code>null</code> if no such task is being used.
+     * @param parallel       Whether to compute the responses of the octaves in parallel.
+     * @return Constant-Q value each frequency at each time.
+     * @throws ValueException If the parameters are invalid. See
+     *                        {@link #cqt(double[], double, int, double, int, int, double, SignalWindow, CustomTask)}.
+     */
+    public static Complex[][] cqt(
+            double[] y, double sr, int hopLength, double fmin, int numBins, int binsPerOctave, double tuning,
+            SignalWindow windowFunction, CustomTask<?> task, boolean parallel
+    ) {
+        return cqt(
+                y, sr, hopLength, fmin, numBins, binsPerOctave, tuning, windowFunction, task, parallel, DEFAULT_SPARSITY
+        );
+    }
+
+    /**
+     * Constant-Q Transform function, with a chosen sparsity of the filter basis.
+     *
+     * @param y              Audio time series.
+     * @param sr             Sample rate of the audio.
+     * @param hopLength      Number of samples between successive CQT columns.
+     * @param fmin           Minimum frequency.
+     * @param numBins        Number of frequency bins, starting at <code>fmin</code>.
+     * @param binsPerOctave  Number of bins per octave.
+     * @param tuning         Tuning offset in fractions of a bin. See
+     *                       {@link #cqt(double[], double, int, double, int, int, double, SignalWindow, CustomTask)}.
+     * @param windowFunction Signal window function to apply to the basis filters.
+     * @param task           The <code>CustomTask</code> object that is handling the generation.
+     *                       Pass in <code>null</code> if no such task is being used.
+     * @param parallel       Whether to compute the responses of the octaves in parallel.
+     * @param sparsity       Fraction of each filter's total magnitude that can be dropped from the
+     *                       filter basis, in the interval [0, 1). If this is 0, the dense filter
+     *                       basis is used.
+     * @return Constant-Q value each frequency at each time.
+     * @throws ValueException If the sparsity is not in the interval [0, 1), or if the other
+     *                        parameters are invalid. See
+     *                        {@link #cqt(double[], double, int, double, int, int, double, SignalWindow, CustomTask)}.
+     */
+    public static Complex[][] cqt(
+            double[] y, double sr, int hopLength, double fmin, int numBins, int binsPerOctave, double tuning,
+            SignalWindow windowFunction, CustomTask<?> task, boolean parallel, double sparsity
     ) {
         // CQT is the special case of VQT where `gamma` is zero
         return vqtHelper(
-                y, sr, hopLength, fmin, numBins, binsPerOctave, tuning, 0, windowFunction, task, true
+                y, sr, hopLength, fmin, numBins, binsPerOctave, tuning, 0, windowFunction, task, true, parallel,
+                sparsity
         );
     }
 
@@ -145,9 +214,231 @@ public final class QTransform extends LoggableClass {
     public static Complex[][] vqt(
             double[] y, double sr, int hopLength, double fmin, int numBins, int binsPerOctave, double tuning,
             double gamma, SignalWindow windowFunction, CustomTask<?> task
+    ) {
+        return vqt(y, sr, hopLength, fmin, numBins, binsPerOctave, tuning, gamma, windowFunction, task, false);
+    }
+
+    /**
+     * Variable-Q Transform function, optionally computing the octaves in parallel.<br>
+     * In parallel mode, the chain of downsampled signals is computed first. The filter bases and
+     * responses of all the octaves are then computed on the {@link SignalProcessingPool}.
+     *
+     * @param y              Audio time series.
+     * @param sr             Sample rate of the audio.
+     * @param hopLength      Number of samples between successive QTransform columns.
+     * @param fmin           Minimum frequency.
+     * @param numBins        Number of frequency bins, starting at <code>fmin</code>.
+     * @param binsPerOctave  Number of bins per octave.
+     * @param tuning         Tuning offset in fractions of a bin. See
+     *                       {@link #vqt(double[], double, int, double, int, int, double, double, SignalWindow, CustomTask)}.
+     * @param gamma          Bandwidth offset for determining filter lengths. <code>gamma = 0</code>
+     *                       means that the gamma value will be derived automatically.
+     * @param windowFunction Signal window function to apply to the basis filters.
+     * @param task           The <code>CustomTask</code> object that is handling the generation.
+     *                       Pass in <code>null</code> if no such task is being used.
+     * @param parallel       Whether to compute the responses of the octaves in parallel.
+     * @return Variable-Q value each frequency at each time.
+     * @throws ValueException If the parameters are invalid. See
+     *                        {@link #vqt(double[], double, int, double, int, int, double, double, SignalWindow, CustomTask)}.
+     */
+    public static Complex[][] vqt(
+            double[] y, double sr, int hopLength, double fmin, int numBins, int binsPerOctave, double tuning,
+            double gamma, SignalWindow windowFunction, CustomTask<?> task, boolean parallel
+    ) {
+        return vqt(
+                y, sr, hopLength, fmin, numBins, binsPerOctave, tuning, gamma, windowFunction, task, parallel,
+                DEFAULT_SPARSITY
+        );
+    }
+
+    /**
+     * Variable-Q Transform function, with a chosen sparsity of the filter basis.
+     *
+     * @param y              Audio time series.
+     * @param sr             Sample rate of the audio.
+     * @param hopLength      Number of samples between successive QTransform columns.
+     * @param fmin           Minimum frequency.
+     * @param numBins        Number of frequency bins, starting at <code>fmin</code>.
+     * @param binsPerOctave  Number of bins per octave.
+     * @param tuning         Tuning offset in fractions of a bin. See
+     *                       {@link #vqt(double[], double, int, double, int, int, double, double, SignalWindow, CustomTask)}.
+     * @param gamma          Bandwidth offset for determining filter lengths. <code>gamma = 0</code>
+     *                       means that the gamma value will be derived automatically.
+     * @param windowFunction Signal window function to apply to the basis filters.
+     * @param task           The <code>CustomTask</code> object that is handling the generation.
+     *                       Pass in <code>null</code> if no such task is being used.
+     * @param parallel       Whether to compute the responses of the octaves in parallel.
+     * @param sparsity       Fraction of each filter's total magnitude that can be dropped from the
+     *                       filter basis, in the interval [0, 1). If this is 0, the dense filter
+     *                       basis is used.
+     * @return Variable-Q value each frequency at each time.
+     * @throws ValueException If the sparsity is not in the interval [0, 1), or if the other
+     *                        parameters are invalid. See
+     *                        {@link #vqt(double[], double, int, double, int, int, double, double, SignalWindow, CustomTask)}.
+     */
+    public static Complex[][] vqt(
+            double[] y, double sr, int hopLength, double fmin, int numBins, int binsPerOctave, double tuning,
+            double gamma, SignalWindow windowFunction, CustomTask<?> task, boolean parallel, double sparsity
     ) {
         return vqtHelper(
-                y, sr, hopLength, fmin, numBins, binsPerOctave, tuning, gamma, windowFunction, task, false
+                y, sr, hopLength, fmin, numBins, binsPerOctave, tuning, gamma, windowFunction, task, false, parallel,
+                sparsity
+        );
+    }
+
+    /**
+     * Chunked Constant-Q Transform function.<br>
+     * See {@link #vqtChunked(double[], double, int, double, int, int, double, double, SignalWindow, int, ObjIntConsumer, CustomTask, boolean)}.
+     *
+     * @param y                 Audio time series.
+     * @param sr                Sample rate of the audio.
+     * @param hopLength         Number of samples between successive CQT columns.
+     * @param fmin              Minimum frequency.
+     * @param numBins           Number of frequency bins, starting at <code>fmin</code>.
+     * @param binsPerOctave     Number of bins per octave.
+     * @param tuning            Tuning offset in fractions of a bin. See
+     *                          {@link #cqt(double[], double, int, double, int, int, double, SignalWindow, CustomTask)}.
+     * @param windowFunction    Signal window function to apply to the basis filters.
+     * @param numFramesPerChunk Number of CQT columns to compute at a time.
+     * @param sink              Receives the magnitudes of each chunk of columns, along with the index
+     *                          of the first column of the chunk.
+     * @param task              The <code>CustomTask</code> object that is handling the generation.
+     *                          Pass in <code>null</code> if no such task is being used.
+     * @param parallel          Whether to compute the responses of the octaves in parallel.
+     * @return Total number of CQT columns.
+     * @throws ValueException If <code>numFramesPerChunk</code> is not positive, or if the other
+     *                        parameters are invalid. See
+     *                        {@link #cqt(double[], double, int, double, int, int, double, SignalWindow, CustomTask)}.
+     */
+    public static int cqtChunked(
+            double[] y, double sr, int hopLength, double fmin, int numBins, int binsPerOctave, double tuning,
+            SignalWindow windowFunction, int numFramesPerChunk, ObjIntConsumer<double[][]> sink,
+            CustomTask<?> task, boolean parallel
+    ) {
+        return cqtChunked(
+                y, sr, hopLength, fmin, numBins, binsPerOctave, tuning, windowFunction, numFramesPerChunk, sink,
+                task, parallel, DEFAULT_SPARSITY
+        );
+    }
+
+    /**
+     * Chunked Constant-Q Transform function, with a chosen sparsity of the filter basis.<br>
+     * See {@link #vqtChunked(double[], double, int, double, int, int, double, double, SignalWindow, int, ObjIntConsumer, CustomTask, boolean)}.
+     *
+     * @param y                 Audio time series.
+     * @param sr                Sample rate of the audio.
+     * @param hopLength         Number of samples between successive CQT columns.
+     * @param fmin              Minimum frequency.
+     * @param numBins           Number of frequency bins, starting at <code>fmin</code>.
+     * @param binsPerOctave     Number of bins per octave.
+     * @param tuning            Tuning offset in fractions of a bin. See
+     *                          {@link #cqt(double[], double, int, double, int, int, double, SignalWindow, CustomTask)}.
+     * @param windowFunction    Signal window function to apply to the basis filters.
+     * @param numFramesPerChunk Number of CQT columns to compute at a time.
+     * @param sink              Receives the magnitudes of each chunk of columns, along with the index
+     *                          of the first column of the chunk.
+     * @param task              The <code>CustomTask</code> object that is handling the generation.
+     *                          Pass in <code>null</code> if no such task is being used.
+     * @param parallel          Whether to compute the responses of the octaves in parallel.
+     * @param sparsity          Fraction of each filter's total magnitude that can be dropped from the
+     *                          filter basis, in the interval [0, 1). If this is 0, the dense filter
+     *                          basis is used.
+     * @return Total number of CQT columns.
+     * @throws ValueException If <code>numFramesPerChunk</code> is not positive, if the sparsity is
+     *                        not in the interval [0, 1), or if the other parameters are invalid. See
+     *                        {@link #cqt(double[], double, int, double, int, int, double, SignalWindow, CustomTask)}.
+     */
+    public static int cqtChunked(
+            double[] y, double sr, int hopLength, double fmin, int numBins, int binsPerOctave, double tuning,
+            SignalWindow windowFunction, int numFramesPerChunk, ObjIntConsumer<double[][]> sink,
+            CustomTask<?> task, boolean parallel, double sparsity
+    ) {
+        return chunkedHelper(
+                y, sr, hopLength, fmin, numBins, binsPerOctave, tuning, 0, windowFunction, numFramesPerChunk, sink,
+                task, true, parallel, sparsity
+        );
+    }
+
+    /**
+     * Chunked Variable-Q Transform function.<br>
+     * The signal is processed in overlapping time blocks, and the magnitudes of each block's
+     * columns are passed to <code>sink</code> as soon as they are computed. Each block is padded on
+     * both sides by twice the length of the longest wavelet, so that the columns near the block
+     * edges match those of
+     * {@link #vqt(double[], double, int, double, int, int, double, double, SignalWindow, CustomTask)}
+     * on the whole signal. Only one block's responses are kept in memory at a time.
+     *
+     * @param y                 Audio time series.
+     * @param sr                Sample rate of the audio.
+     * @param hopLength         Number of samples between successive QTransform columns.
+     * @param fmin              Minimum frequency.
+     * @param numBins           Number of frequency bins, starting at <code>fmin</code>.
+     * @param binsPerOctave     Number of bins per octave.
+     * @param tuning            Tuning offset in fractions of a bin. See
+     *                          {@link #vqt(double[], double, int, double, int, int, double, double, SignalWindow, CustomTask)}.
+     * @param gamma             Bandwidth offset for determining filter lengths. <code>gamma = 0</code>
+     *                          means that the gamma value will be derived automatically.
+     * @param windowFunction    Signal window function to apply to the basis filters.
+     * @param numFramesPerChunk Number of QTransform columns to compute at a time.
+     * @param sink              Receives the magnitudes of each chunk of columns, with shape
+     *                          (<code>numBins</code>, number of columns in the chunk), along with
+     *                          the index of the first column of the chunk.
+     * @param task              The <code>CustomTask</code> object that is handling the generation.
+     *                          Pass in <code>null</code> if no such task is being used.
+     * @param parallel          Whether to compute the responses of the octaves in parallel.
+     * @return Total number of QTransform columns.
+     * @throws ValueException If <code>numFramesPerChunk</code> is not positive, or if the other
+     *                        parameters are invalid. See
+     *                        {@link #vqt(double[], double, int, double, int, int, double, double, SignalWindow, CustomTask)}.
+     */
+    public static int vqtChunked(
+            double[] y, double sr, int hopLength, double fmin, int numBins, int binsPerOctave, double tuning,
+            double gamma, SignalWindow windowFunction, int numFramesPerChunk, ObjIntConsumer<double[][]> sink,
+            CustomTask<?> task, boolean parallel
+    ) {
+        return vqtChunked(
+                y, sr, hopLength, fmin, numBins, binsPerOctave, tuning, gamma, windowFunction, numFramesPerChunk,
+                sink, task, parallel, DEFAULT_SPARSITY
+        );
+    }
+
+    /**
+     * Chunked Variable-Q Transform function, with a chosen sparsity of the filter basis.<br>
+     * See {@link #vqtChunked(double[], double, int, double, int, int, double, double, SignalWindow, int, ObjIntConsumer, CustomTask, boolean)}.
+     *
+     * @param y                 Audio time series.
+     * @param sr                Sample rate of the audio.
+     * @param hopLength         Number of samples between successive QTransform columns.
+     * @param fmin              Minimum frequency.
+     * @param numBins           Number of frequency bins, starting at <code>fmin</code>.
+     * @param binsPerOctave     Number of bins per octave.
+     * @param tuning            Tuning offset in fractions of a bin. See
+     *                          {@link #vqt(double[], double, int, double, int, int, double, double, SignalWindow, CustomTask)}.
+     * @param gamma             Bandwidth offset for determining filter lengths. <code>gamma = 0</code>
+     *                          means that the gamma value will be derived automatically.
+     * @param windowFunction    Signal window function to apply to the basis filters.
+     * @param numFramesPerChunk Number of QTransform columns to compute at a time.
+     * @param sink              Receives the magnitudes of each chunk of columns, along with the index
+     *                          of the first column of the chunk.
+     * @param task              The <code>CustomTask</code> object that is handling the generation.
+     *                          Pass in <code>null</code> if no such task is being used.
+     * @param parallel          Whether to compute the responses of the octaves in parallel.
+     * @param sparsity          Fraction of each filter's total magnitude that can be dropped from the
+     *                          filter basis, in the interval [0, 1). If this is 0, the dense filter
+     *                          basis is used.
+     * @return Total number of QTransform columns.
+     * @throws ValueException If <code>numFramesPerChunk</code> is not positive, if the sparsity is
+     *                        not in the interval [0, 1), or if the other parameters are invalid. See
+     *                        {@link #vqt(double[], double, int, double, int, int, double, double, SignalWindow, CustomTask)}.
+     */
+    public static int vqtChunked(
+            double[] y, double sr, int hopLength, double fmin, int numBins, int binsPerOctave, double tuning,
+            double gamma, SignalWindow windowFunction, int numFramesPerChunk, ObjIntConsumer<double[][]> sink,
+            CustomTask<?> task, boolean parallel, double sparsity
+    ) {
+        return chunkedHelper(
+                y, sr, hopLength, fmin, numBins, binsPerOctave, tuning, gamma, windowFunction, numFramesPerChunk,
+                sink, task, false, parallel, sparsity
         );
     }
 
@@ -175,6 +466,9 @@ public final class QTransform extends LoggableClass {
      * @param task           The <code>CustomTask</code> object that is handling the generation.
      *                       Pass in <code>null</code> if no such task is being used.
      * @param isCQT          Whether this is a Constant-Q Transform or not.
+     * @param parallel       Whether to compute the responses of the octaves in parallel.
+     * @param sparsity       Fraction of each filter's total magnitude that can be dropped from the
+     *                       filter basis. If this is 0, the dense filter basis is used.
      * @return Variable-Q value each frequency at each time.
      * @throws ValueException If: <ul>
      *                        <li>
@@ -197,7 +491,8 @@ public final class QTransform extends LoggableClass {
      */
     private static Complex[][] vqtHelper(
             double[] y, double sr, int hopLength, double fmin, int numBins, int binsPerOctave, double tuning,
-            double gamma, SignalWindow windowFunction, CustomTask<?> task, boolean isCQT
+            double gamma, SignalWindow windowFunction, CustomTask<?> task, boolean isCQT, boolean parallel,
+            double sparsity
     ) {
         // Validate parameters
         if (numBins <= 0) {
@@ -212,6 +507,10 @@ public final class QTransform extends LoggableClass {
             throw new ValueException("Number of bins is not a multiple of the number of bins per octave.");
         }
 
+        if (sparsity < 0 || sparsity >= 1) {
+            throw new ValueException("Sparsity must be in the interval [0, 1), but got " + sparsity);
+        }
+
         // Estimate tuning value from signal if needed
         if (Double.isNaN(tuning)) {
             tuning = TuningEstimator.estimateTuning(y, sr);
@@ -265,8 +564,8 @@ public final class QTransform extends LoggableClass {
         sr = earlyDownsampleResponse.value1();
         hopLength = earlyDownsampleResponse.value2();
 
-        // Define QTransform response array
-        List<Complex[][]> vqtResponses = new ArrayList<>();
+        // Define the inputs of each octave's response
+        List<OctaveInput> octaveInputs = new ArrayList<>();
 
         // Handle first octave specially if the filter type is NOT `KAISER_FAST`
         int startingOctave = 0;
@@ -277,24 +576,14 @@ public final class QTransform extends LoggableClass {
             System.arraycopy(freqs, numBins - binsPerOctave, freqsOct, 0, binsPerOctave);
 
             // Do the top octave before resampling to allow for fast resampling
-            Triple<Complex[][], Integer, double[]> fftFilterResponse = vqtFilterFFT(
-                    sr, freqsOct, windowFunction, isCQT, gamma, alpha
-            );
-            Complex[][] fftBasis = fftFilterResponse.value0();
-            int numFFT = fftFilterResponse.value1();
-
-            // Compute the QTransform filter response and append it to the list
-            vqtResponses.add(vqtResponse(y, numFFT, hopLength, fftBasis));
+            octaveInputs.add(new OctaveInput(y, sr, hopLength, freqsOct, 1));
 
             // Update values
             startingOctave = 1;
             filter = Filter.KAISER_FAST;
-
-            // Update task progress
-            if (task != null) task.updateProgress(1, numOctaves);
         }
 
-        // Iterate down the octaves
+        // Iterate down the octaves, computing the chain of downsampled signals
         double[] myY = y;
         double mySR = sr;
         int myHopLength = hopLength;
@@ -304,33 +593,46 @@ public final class QTransform extends LoggableClass {
             double[] freqsOct = new double[binsPerOctave];
             System.arraycopy(freqs, numBins - binsPerOctave * (octave + 1), freqsOct, 0, binsPerOctave);
 
-            // Get the FFT basis and the `numFFT` for this octave
-            Triple<Complex[][], Integer, double[]> fftFilterResponse = vqtFilterFFT(
-                    mySR, freqsOct, windowFunction, isCQT, gamma, alpha
-            );
-            Complex[][] fftBasis = fftFilterResponse.value0();
-            int numFFT = fftFilterResponse.value1();
-
             // Re-scale the filters to compensate for downsampling
-            for (int i = 0; i < fftBasis.length; i++) {
-                for (int j = 0; j < fftBasis[0].length; j++) {
-                    fftBasis[i][j] = fftBasis[i][j].times(Math.sqrt(sr / mySR));
-                }
-            }
+            octaveInputs.add(new OctaveInput(myY, mySR, myHopLength, freqsOct, Math.sqrt(sr / mySR)));
 
-            // Compute the QTransform filter response and append to the list
-            Complex[][] response = vqtResponse(myY, numFFT, myHopLength, fftBasis);
-            vqtResponses.add(response);
-
-            // Update variables
-            if (myHopLength % 2 == 0) {
+            // Update variables (the signal is not needed after the last octave)
+            if (myHopLength % 2 == 0 && octave < numOctaves - 1) {
                 myHopLength /= 2;
                 mySR /= 2.;
                 myY = AudioHelpers.resample(myY, 2, 1, filter, true);
             }
+        }
 
-            // Update task progress
-            if (task != null) task.updateProgress(octave + 1, numOctaves);
+        // Compute the QTransform responses of the octaves
+        List<Complex[][]> vqtResponses = new ArrayList<>();
+        if (parallel) {
+            AtomicInteger numOctavesDone = new AtomicInteger();
+            List<ForkJoinTask<Complex[][]>> responseTasks = new ArrayList<>();
+            for (OctaveInput octaveInput : octaveInputs) {
+                responseTasks.add(SignalProcessingPool.getPool().submit(() -> {
+                    Complex[][] response = octaveResponse(
+                            octaveInput, windowFunction, isCQT, gamma, alpha, parallel, sparsity
+                    );
+                    if (task != null) task.updateProgress(numOctavesDone.incrementAndGet(), numOctaves);
+                    return response;
+                }));
+            }
+
+            for (ForkJoinTask<Complex[][]> responseTask : responseTasks) {
+                vqtResponses.add(responseTask.join());
+            }
+        } else {
+            for (int octave = 0; octave < octaveInputs.size(); octave++) {
+                vqtResponses.add(
+                        octaveResponse(
+                                octaveInputs.get(octave), windowFunction, isCQT, gamma, alpha, parallel, sparsity
+                        )
+                );
+
+                // Update task progress
+                if (task != null) task.updateProgress(octave + 1, numOctaves);
+            }
         }
 
         // Trim and stack the QTransform responses
@@ -363,6 +665,171 @@ public final class QTransform extends LoggableClass {
         return V;
     }
 
+    /**
+     * Helper function that handles the chunked Q-Transform functions.
+     *
+     * @param y                 Audio time series.
+     * @param sr                Sample rate of the audio.
+     * @param hopLength         Number of samples between successive Q-Transform columns.
+     * @param fmin              Minimum frequency.
+     * @param numBins           Number of frequency bins, starting at <code>fmin</code>.
+     * @param binsPerOctave     Number of bins per octave.
+     * @param tuning            Tuning offset in fractions of a bin.
+     * @param gamma             Bandwidth offset for determining filter lengths.
+     * @param windowFunction    Signal window function to apply to the basis filters.
+     * @param numFramesPerChunk Number of Q-Transform columns to compute at a time.
+     * @param sink              Receives the magnitudes of each chunk of columns.
+     * @param task              The <code>CustomTask</code> object that is handling the generation.
+     *                          Pass in <code>null</code> if no such task is being used.
+     * @param isCQT             Whether this is a Constant-Q Transform or not.
+     * @param parallel          Whether to compute the responses of the octaves in parallel.
+     * @param sparsity          Fraction of each filter's total magnitude that can be dropped from the
+     *                          filter basis. If this is 0, the dense filter basis is used.
+     * @return Total number of Q-Transform columns.
+     * @throws ValueException If <code>numFramesPerChunk</code> is not positive, or if the other
+     *                        parameters are invalid.
+     */
+    private static int chunkedHelper(
+            double[] y, double sr, int hopLength, double fmin, int numBins, int binsPerOctave, double tuning,
+            double gamma, SignalWindow windowFunction, int numFramesPerChunk, ObjIntConsumer<double[][]> sink,
+            CustomTask<?> task, boolean isCQT, boolean parallel, double sparsity
+    ) {
+        // Validate parameters
+        if (numFramesPerChunk <= 0) {
+            throw new ValueException("Number of frames per chunk must be positive, but got " + numFramesPerChunk);
+        }
+
+        if (binsPerOctave <= 0) {
+            throw new ValueException("Number of bins per octave cannot be negative or zero");
+        }
+
+        // Estimate tuning value from the whole signal, so that all chunks use the same value
+        if (Double.isNaN(tuning)) {
+            tuning = TuningEstimator.estimateTuning(y, sr);
+        }
+
+        // Pad each chunk on both sides by twice the length of the longest wavelet; half of the longest octave's FFT
+        // frame is at most that length, and the rest leaves room for the tails of the resampling filters
+        double[] freqs = FrequencyRangeGeneration.qTransformFreqBins(
+                numBins, binsPerOctave, fmin * Math.pow(2., tuning / binsPerOctave)
+        );
+        double[] lengths = Wavelet.computeWaveletLengths(
+                freqs, sr, windowFunction, 1., isCQT, gamma, SignalHelpers.computeAlpha(binsPerOctave)
+        ).value0();
+
+        double maxLength = 0;
+        for (double length : lengths) maxLength = Math.max(maxLength, length);
+        int numPadFrames = (int) Math.ceil(2 * maxLength / hopLength);
+
+        // Process the signal chunk by chunk
+        int numSamples = y.length;
+        int chunkStartFrame = 0;
+
+        while (true) {
+            // Get the samples of the padded chunk (chunk boundaries must lie on the frame grid)
+            int segmentStartFrame = Math.max(0, chunkStartFrame - numPadFrames);
+            int segmentStart = (int) Math.min(numSamples, (long) segmentStartFrame * hopLength);
+            int segmentEnd = (int) Math.min(
+                    numSamples, (long) (chunkStartFrame + numFramesPerChunk + numPadFrames) * hopLength
+            );
+            boolean isLastChunk = segmentEnd == numSamples;
+
+            double[] segment = Arrays.copyOfRange(y, segmentStart, segmentEnd);
+
+            // Compute the Q-Transform of the padded chunk
+            Complex[][] V = vqtHelper(
+                    segment, sr, hopLength, fmin, numBins, binsPerOctave, tuning, gamma, windowFunction, null, isCQT,
+                    parallel, sparsity
+            );
+
+            // Emit the magnitudes of the chunk's columns (the last chunk takes all the remaining columns)
+            int offset = chunkStartFrame - segmentStartFrame;
+            int numAvailable = Math.max(0, V[0].length - offset);
+            int numEmitted = isLastChunk ? numAvailable : Math.min(numFramesPerChunk, numAvailable);
+
+            // (Moduli are computed straight from the real and imaginary parts, as the values here
+            // cannot overflow and `Math.hypot` is far slower)
+            double[][] magnitudes = new double[numBins][numEmitted];
+            for (int i = 0; i < numBins; i++) {
+                for (int j = 0; j < numEmitted; j++) {
+                    Complex value = V[i][offset + j];
+                    magnitudes[i][j] = Math.sqrt(value.re * value.re + value.im * value.im);
+                }
+            }
+            sink.accept(magnitudes, chunkStartFrame);
+
+            // Update task progress
+            if (task != null) task.updateProgress(segmentEnd, numSamples);
+
+            chunkStartFrame += numEmitted;
+            if (isLastChunk) break;
+        }
+
+        // Return the total number of columns
+        log(
+                Level.FINE,
+                "Chunked QTransform generated " + chunkStartFrame + " columns of " + numBins + " bins",
+                QTransform.class.getName()
+        );
+        return chunkStartFrame;
+    }
+
+    /**
+     * Computes the QTransform filter response of a single octave.
+     *
+     * @param octaveInput    Input of the octave.
+     * @param windowFunction Signal window function to apply to the basis filters.
+     * @param isCQT          Whether this is a CQT or not.
+     * @param gamma          Gamma value.
+     * @param alpha          Alpha value.
+     * @param parallel       Whether to compute the STFT of the octave in parallel.
+     * @param sparsity       Fraction of each filter's total magnitude that can be dropped from the
+     *                       filter basis. If this is 0, the dense filter basis is used.
+     * @return QTransform filter response of the octave.
+     */
+    private static Complex[][] octaveResponse(
+            OctaveInput octaveInput, SignalWindow windowFunction, boolean isCQT, double gamma, double alpha,
+            boolean parallel, double sparsity
+    ) {
+        // Get the (dense or sparse) FFT basis and the `numFFT` for this octave, reusing a cached basis if possible
+        Supplier<Triple<Complex[][], Integer, double[]>> computeBasis =
+                () -> vqtFilterFFT(octaveInput.sr, octaveInput.freqs, windowFunction, isCQT, gamma, alpha);
+
+        Complex[][] fftBasis = null;
+        SparseComplexMatrix sparseBasis = null;
+        int numFFT;
+
+        if (sparsity > 0) {
+            Pair<SparseComplexMatrix, Integer> sparseFilterResponse = FilterBasisCache.getSparseBasis(
+                    octaveInput.sr, octaveInput.freqs, windowFunction, isCQT, gamma, alpha, sparsity, computeBasis
+            );
+            sparseBasis = sparseFilterResponse.value0();
+            numFFT = sparseFilterResponse.value1();
+        } else {
+            Triple<Complex[][], Integer, double[]> fftFilterResponse = FilterBasisCache.getBasis(
+                    octaveInput.sr, octaveInput.freqs, windowFunction, isCQT, gamma, alpha, computeBasis
+            );
+            fftBasis = fftFilterResponse.value0();
+            numFFT = fftFilterResponse.value1();
+        }
+
+        // Compute the QTransform filter response
+        Complex[][] response = vqtResponse(
+                octaveInput.y, numFFT, octaveInput.hopLength, fftBasis, sparseBasis, parallel
+        );
+
+        // Scale the response, instead of the cached basis (which must not be modified)
+        if (octaveInput.scaleFactor != 1) {
+            for (Complex[] row : response) {
+                for (int j = 0; j < row.length; j++) {
+                    row[j] = row[j].times(octaveInput.scaleFactor);
+                }
+            }
+        }
+
+        return response;
+    }
+
     /**
      * Gets the number of octaves required to store <code>numBins</code>.
      *
@@ -480,19 +947,29 @@ public final class QTransform extends LoggableClass {
     }
 
     /**
-     * Compute the QTransform filter response with a target STFT hop.
+     * Compute the QTransform filter response with a target STFT hop.<br>
+     * If a sparse filter basis is given, the STFT matrix is multiplied by it instead of the dense
+     * filter basis.
      *
-     * @param y         Array of samples.
-     * @param numFFT    Number of bins to use in the FFT.
-     * @param hopLength Step size between each hop.
-     * @param fftBasis  Complex basis to use for the FFT.
+     * @param y           Array of samples.
+     * @param numFFT      Number of bins to use in the FFT.
+     * @param hopLength   Step size between each hop.
+     * @param fftBasis    Complex basis to use for the FFT. Not used if a sparse basis is given.
+     * @param sparseBasis Sparse form of the basis, or <code>null</code> to use the dense basis.
+     * @param parallel    Whether to transform blocks of frames in parallel.
      * @return QTransform filter response.
      */
-    private static Complex[][] vqtResponse(double[] y, int numFFT, int hopLength, Complex[][] fftBasis) {
+    private static Complex[][] vqtResponse(
+            double[] y, int numFFT, int hopLength, Complex[][] fftBasis, SparseComplexMatrix sparseBasis,
+            boolean parallel
+    ) {
         // Get the STFT matrix
-        Complex[][] D = STFT.stft(y, numFFT, hopLength, SignalWindow.ONES_WINDOW);
+        Complex[][] D = STFT.stft(y, numFFT, hopLength, SignalWindow.ONES_WINDOW, parallel);
 
-        // Matrix multiply `fftBasis` with `D` and return the result
+        // Matrix multiply the basis with `D` and return the result
+        if (sparseBasis != null) {
+            return sparseBasis.matmul(D);
+        }
         return MatrixUtils.matmul(fftBasis, D);
     }
 
@@ -539,4 +1016,25 @@ public final class QTransform extends LoggableClass {
         // Return the stacked QTransform matrix
         return vqtOut;
     }
+
+    // Helper classes
+
+    /**
+     * Input needed to compute the QTransform response of a single octave.
+     */
+    private static class OctaveInput {
+        final double[] y;  // (Downsampled) audio time series
+        final double sr;  // Sample rate of `y`
+        final int hopLength;  // Hop length at the sample rate of `y`
+        final double[] freqs;  // Centre frequencies of the octave's bins
+        final double scaleFactor;  // Factor to re-scale the filters by, to compensate for downsampling
+
+        OctaveInput(double[] y, double sr, int hopLength, double[] freqs, double scaleFactor) {
+            this.y = y;
+            this.sr = sr;
+            this.hopLength = hopLength;
+            this.freqs = freqs;
+            this.scaleFactor = scaleFactor;
+        }
+    }
 }
@@ -19,9 +19,12 @@
 package app.auditranscribe.signal.representations;
 
 import app.auditranscribe.misc.Complex;
+import app.auditranscribe.signal.SignalProcessingPool;
 import app.auditranscribe.signal.windowing.SignalWindow;
 import app.auditranscribe.utils.ArrayUtils;
 
+import java.util.concurrent.RecursiveAction;
+
 /**
  * Class that implements the Short-Time Fourier Transform (STFT) algorithm.
  *
@@ -55,6 +58,27 @@ public final class STFT {
      * implementation</a> of the STFT.
      */
     public static Complex[][] stft(double[] x, int numFFT, int hopLength, SignalWindow windowFunction) {
+        return stft(x, numFFT, hopLength, windowFunction, false);
+    }
+
+    /**
+     * Computes the Short-Time Fourier Transform (STFT) of the input signal <code>x</code>,
+     * optionally in parallel.<br>
+     * The frames are split into blocks that fit within {@link #MAX_MEM_SIZE}. In parallel mode,
+     * the blocks are transformed on the {@link SignalProcessingPool}, with each block writing its
+     * columns straight into the output matrix.
+     *
+     * @param x              The array <code>x</code> representing the data source.
+     * @param numFFT         Number of bins to use for the Fast Fourier Transform (FFT).
+     * @param hopLength      Number of samples between successive columns.
+     * @param windowFunction Signal window function.
+     * @param parallel       Whether to transform the blocks of frames in parallel.
+     * @return Complex-valued matrix of STFT coefficients.
+     * @see #stft(double[], int, int, SignalWindow)
+     */
+    public static Complex[][] stft(
+            double[] x, int numFFT, int hopLength, SignalWindow windowFunction, boolean parallel
+    ) {
         // Get the FFT window
         double[] fftWindow = windowFunction.window.generateWindow(numFFT, false);
 
@@ -64,36 +88,23 @@ public final class STFT {
         // Pad the time series so that frames are centered
         double[] xHat = ArrayUtils.padCenter(x, x.length + numFFT);
 
-        // Window the time series
-        double[][] xFrames = ArrayUtils.frameVertical(xHat, numFFT, hopLength);
-        int innerArrayLength = xFrames[0].length;
-
-        // Now generate the windowed frames
-        Complex[][] windowedFrames = new Complex[numFFT][innerArrayLength];
-        for (int i = 0; i < numFFT; i++) {
-            for (int j = 0; j < innerArrayLength; j++) {
-                windowedFrames[i][j] = new Complex(xFrames[i][j] * fftWindow[i]);
-            }
-        }
+        // Determine the number of frames of the time series
+        int numFrames = Math.floorDiv(xHat.length - numFFT, hopLength) + 1;
 
-        // Generate the STFT matrix
-        Complex[][] stftMatrix = new Complex[1 + numFFT / 2][innerArrayLength];
-        Complex[] tempWindow = new Complex[numFFT];
-        Complex[] tempFFT;
+        // Determine how many frames to transform at once, so that each block fits within the memory limit
+        int framesPerBlock = Math.max(1, Math.min(numFrames, MAX_MEM_SIZE / (numFFT * 8)));
+        int numBlocks = (numFrames + framesPerBlock - 1) / framesPerBlock;
 
-        for (int i = 0; i < innerArrayLength; i++) {
-            // Locate the complex array to apply the FFT to
-            for (int j = 0; j < numFFT; j++) {
-                tempWindow[j] = windowedFrames[j][i];
-            }
-
-            // Apply real-valued FFT to the temp array
-            tempFFT = FFT.rfft(tempWindow);
+        // Generate the STFT matrix, one block of frames at a time
+        Complex[][] stftMatrix = new Complex[1 + numFFT / 2][numFrames];
+        FrameBlocksTask task = new FrameBlocksTask(
+                xHat, fftWindow, numFFT, hopLength, framesPerBlock, stftMatrix, 0, numBlocks
+        );
 
-            // Move values back into the matrix
-            for (int j = 0; j < 1 + numFFT / 2; j++) {
-                stftMatrix[j][i] = tempFFT[j];
-            }
+        if (parallel) {
+            SignalProcessingPool.getPool().invoke(task);
+        } else {
+            task.transformBlocks();
         }
 
         return stftMatrix;
@@ -133,22 +144,24 @@ public final class STFT {
          *      k >= (numFFT / 2) / hopLength
          */
         int startFrame = (int) Math.ceil((double) (numFFT / 2) / hopLength);
-        Complex[] tempFFT = new Complex[numFFT / 2 + 1];
-        Complex[] tempWindow;
+        double[] tempReal = new double[numFFT / 2 + 1];
+        double[] tempImag = new double[numFFT / 2 + 1];
+        double[] tempWindow = new double[numFFT];
         double[][] yTemp = new double[numFFT][startFrame];
 
         for (int i = 0; i < startFrame; i++) {
             // Obtain the values to apply the IRFFT on
             for (int j = 0; j < 1 + numFFT / 2; j++) {
-                tempFFT[j] = stftMatrix[j][i];
+                tempReal[j] = stftMatrix[j][i].re;
+                tempImag[j] = stftMatrix[j][i].im;
             }
 
-            // Apply IRFFT to the temp array
-            tempWindow = FFT.irfft(tempFFT, numFFT);
+            // Apply IRFFT to the temp arrays
+            FFT.irfft(tempReal, tempImag, tempWindow);
 
             // Move values back the temp matrix
             for (int j = 0; j < numFFT; j++) {
-                yTemp[j][i] = tempWindow[j].re * ifftWindow[j];
+                yTemp[j][i] = tempWindow[j] * ifftWindow[j];
             }
         }
 
@@ -185,15 +198,16 @@ public final class STFT {
             for (int i = blockStart; i < blockEnd; i++) {
                 // Obtain the values to apply the IRFFT on
                 for (int j = 0; j < 1 + numFFT / 2; j++) {
-                    tempFFT[j] = stftMatrix[j][i];
+                    tempReal[j] = stftMatrix[j][i].re;
+                    tempImag[j] = stftMatrix[j][i].im;
                 }
 
-                // Apply IRFFT to the temp array
-                tempWindow = FFT.irfft(tempFFT, numFFT);
+                // Apply IRFFT to the temp arrays
+                FFT.irfft(tempReal, tempImag, tempWindow);
 
                 // Move values back the temp matrix
                 for (int j = 0; j < numFFT; j++) {
-                    yTemp[j][i - blockStart] = tempWindow[j].re * ifftWindow[j];
+                    yTemp[j][i - blockStart] = tempWindow[j] * ifftWindow[j];
                 }
             }
 
@@ -227,6 +241,21 @@ public final class STFT {
         return output;
     }
 
+    // Package-private methods
+
+    /**
+     * Computes the squared window that is used to normalise the ISTFT.
+     *
+     * @param windowFunction Signal window function.
+     * @param numFFT         Number of FFT bins.
+     * @return The squared window, padded to length <code>numFFT</code>.
+     */
+    static double[] squaredWindow(SignalWindow windowFunction, int numFFT) {
+        double[] winSq = windowFunction.window.generateWindow(numFFT, false);
+        for (int i = 0; i < numFFT; i++) winSq[i] *= winSq[i];  // Square each value
+        return ArrayUtils.padCenter(winSq, numFFT);
+    }
+
     // Private methods
 
     /**
@@ -267,9 +296,7 @@ public final class STFT {
             SignalWindow windowFunction, int numFrames, int hopLength, int numFFT
     ) {
         // Compute the squared window at the desired length
-        double[] winSq = windowFunction.window.generateWindow(numFFT, false);
-        for (int i = 0; i < numFFT; i++) winSq[i] *= winSq[i];  // Square each value
-        winSq = ArrayUtils.padCenter(winSq, numFFT);
+        double[] winSq = squaredWindow(windowFunction, numFFT);
 
         // Fill the envelope
         double[] sumSquare = new double[(numFrames - 1) * hopLength + numFFT];
@@ -284,4 +311,95 @@ public final class STFT {
 
         return sumSquare;
     }
+
+    // Helper classes
+
+    /**
+     * Task that computes the STFT columns of a range of blocks of frames.<br>
+     * When run on a <code>ForkJoinPool</code>, the range is split in half until each task handles
+     * a single block.
+     */
+    private static class FrameBlocksTask extends RecursiveAction {
+        private final double[] xHat;
+        private final double[] fftWindow;
+        private final int numFFT;
+        private final int hopLength;
+        private final int framesPerBlock;
+        private final Complex[][] stftMatrix;
+        private final int startBlock;  // Inclusive
+        private final int endBlock;  // Exclusive
+
+        FrameBlocksTask(
+                double[] xHat, double[] fftWindow, int numFFT, int hopLength, int framesPerBlock,
+                Complex[][] stftMatrix, int startBlock, int endBlock
+        ) {
+            this.xHat = xHat;
+            this.fftWindow = fftWindow;
+            this.numFFT = numFFT;
+            this.hopLength = hopLength;
+            this.framesPerBlock = framesPerBlock;
+            this.stftMatrix = stftMatrix;
+            this.startBlock = startBlock;
+            this.endBlock = endBlock;
+        }
+
+        @Override
+        protected void compute() {
+            if (endBlock - startBlock <= 1) {
+                transformBlocks();
+            } else {
+                int midBlock = (startBlock + endBlock) >>> 1;
+                invokeAll(
+                        new FrameBlocksTask(
+                                xHat, fftWindow, numFFT, hopLength, framesPerBlock, stftMatrix, startBlock, midBlock
+                        ),
+                        new FrameBlocksTask(
+                                xHat, fftWindow, numFFT, hopLength, framesPerBlock, stftMatrix, midBlock, endBlock
+                        )
+                );
+            }
+        }
+
+        /**
+         * Transforms all the blocks of this task on the current thread.
+         */
+        void transformBlocks() {
+            int numFrames = stftMatrix[0].length;
+            int numElem = 1 + numFFT / 2;
+
+            double[] blockFrames = new double[framesPerBlock * numFFT];
+            double[] blockReal = new double[framesPerBlock * numElem];
+            double[] blockImag = new double[framesPerBlock * numElem];
+
+            for (int block = startBlock; block < endBlock; block++) {
+                int blockStart = block * framesPerBlock;
+                int blockSize = Math.min(framesPerBlock, numFrames - blockStart);
+                if (blockSize != framesPerBlock) {  // Last block may be smaller than the rest
+                    blockFrames = new double[blockSize * numFFT];
+                    blockReal = new double[blockSize * numElem];
+                    blockImag = new double[blockSize * numElem];
+                }
+
+                // Window the frames to apply the FFT to
+                for (int f = 0; f < blockSize; f++) {
+                    int frameStart = (blockStart + f) * hopLength;
+                    int blockOffset = f * numFFT;
+                    for (int j = 0; j < numFFT; j++) {
+                        blockFrames[blockOffset + j] = xHat[frameStart + j] * fftWindow[j];
+                    }
+                }
+
+                // Apply real-valued FFT to the windowed frames
+                FFT.rfftBatch(blockFrames, blockReal, blockImag, blockSize, numFFT);
+
+                // Move values into the matrix
+                for (int f = 0; f < blockSize; f++) {
+                    int blockOffset = f * numElem;
+                    for (int j = 0; j < numElem; j++) {
+                        stftMatrix[j][blockStart + f] = new Complex(blockReal[blockOffset + j], blockImag[blockOffset + j]);
+                    }
+                }
+            }
+        }
+    }
 }
@@ -0,0 +1,176 @@
+/*
+ * StreamingISTFT.java
+ * Description: Incremental inverse Short-Time Fourier Transform that uses bounded memory.
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public Licence as published by the Free Software Foundation, either version 3 of the
+ * Licence, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public Licence for more details.
+ *
+ * You should have received a copy of the GNU General Public Licence along with this program. If
+ * not, see <https://www.gnu.org/licenses/>
+ *
+ * Copyright © AudiTranscribe Team
+ */
+
+package app.auditranscribe.signal.representations;
+
+import app.auditranscribe.generic.exceptions.LengthException;
+import app.auditranscribe.misc.Complex;
+import app.auditranscribe.signal.windowing.SignalWindow;
+import app.auditranscribe.utils.ArrayUtils;
+
+import java.util.Arrays;
+
+/**
+ * Incremental inverse Short-Time Fourier Transform (ISTFT).<br>
+ * STFT frames are passed in one block at a time, and the samples whose overlap-add is complete
+ * are returned straight away. Only the overlap of the most recent frame is kept, so the memory used
+ * does not depend on the length of the signal.<br>
+ * Concatenating the outputs of {@link #process(Complex[][])} and {@link #finish()} gives the same
+ * signal as {@link STFT#istft(Complex[][], int, int, SignalWindow)} on the whole STFT matrix.
+ */
+public class StreamingISTFT {
+    // Attributes
+    private final int numFFT;
+    private final int hopLength;
+    private final double[] ifftWindow;
+    private final double[] winSq;
+
+    private final double[] overlapBuffer;  // Overlap-added samples, starting from `bufferPosition`
+    private final double[] windowSumBuffer;  // Sum-squared window envelope, starting from `bufferPosition`
+    private long bufferPosition = 0;  // Position of the first buffered sample in the un-trimmed signal
+    private long numFramesProcessed = 0;
+    private boolean isFinished = false;
+
+    /**
+     * Initializes a new <code>StreamingISTFT</code>.
+     *
+     * @param numFFT         Number of FFT bins that were used for the STFT.
+     * @param hopLength      Number of samples between successive columns.
+     * @param windowFunction Signal window function.
+     */
+    public StreamingISTFT(int numFFT, int hopLength, SignalWindow windowFunction) {
+        this.numFFT = numFFT;
+        this.hopLength = hopLength;
+
+        ifftWindow = ArrayUtils.padCenter(windowFunction.window.generateWindow(numFFT, false), numFFT);
+        winSq = STFT.squaredWindow(windowFunction, numFFT);
+
+        overlapBuffer = new double[numFFT];
+        windowSumBuffer = new double[numFFT];
+    }
+
+    // Public methods
+
+    /**
+     * Processes the next block of STFT frames.
+     *
+     * @param stftBlock Complex-valued matrix of STFT coefficients, with one column per frame.
+     * @return Samples of the reconstructed signal that were completed by this block. May be
+     * empty.
+     * @throws LengthException       If the number of rows of <code>stftBlock</code> is not
+     *                               <code>numFFT / 2 + 1</code>.
+     * @throws IllegalStateException If {@link #finish()} was already called.
+     */
+    public double[] process(Complex[][] stftBlock) {
+        if (isFinished) throw new IllegalStateException("The streaming ISTFT has already finished");
+
+        int numElem = numFFT / 2 + 1;
+        if (stftBlock.length != numElem) {
+            throw new LengthException("The STFT block must have " + numElem + " rows, but has " + stftBlock.length);
+        }
+
+        // Apply IRFFT to all frames of the block at once
+        int numFrames = stftBlock[0].length;
+        double[] blockReal = new double[numFrames * numElem];
+        double[] blockImag = new double[numFrames * numElem];
+        double[] blockFrames = new double[numFrames * numFFT];
+
+        for (int f = 0; f < numFrames; f++) {
+            for (int j = 0; j < numElem; j++) {
+                blockReal[f * numElem + j] = stftBlock[j][f].re;
+                blockImag[f * numElem + j] = stftBlock[j][f].im;
+            }
+        }
+        FFT.irfftBatch(blockReal, blockImag, blockFrames, numFrames, numFFT);
+
+        // Overlap-add each frame, emitting the samples that the frame no longer overlaps with
+        double[] output = new double[numFrames * hopLength];
+        int numOutput = 0;
+
+        for (int f = 0; f < numFrames; f++) {
+            // All samples before the start of this frame are complete
+            if (numFramesProcessed > 0) numOutput = emitSamples(hopLength, output, numOutput);
+
+            // Window the frame and overlap-add it
+            int frameOffset = f * numFFT;
+            for (int j = 0; j < numFFT; j++) {
+                overlapBuffer[j] += blockFrames[frameOffset + j] * ifftWindow[j];
+                windowSumBuffer[j] += winSq[j];
+            }
+            numFramesProcessed++;
+        }
+
+        return Arrays.copyOf(output, numOutput);
+    }
+
+    /**
+     * Flushes the samples that remain after the last frame.<br>
+     * No more frames can be processed after this is called.
+     *
+     * @return The remaining samples of the reconstructed signal.
+     * @throws IllegalStateException If this method was already called.
+     */
+    public double[] finish() {
+        if (isFinished) throw new IllegalStateException("The streaming ISTFT has already finished");
+        isFinished = true;
+
+        if (numFramesProcessed == 0) return new double[0];
+
+        // The last `numFFT / 2` samples of the last frame are padding
+        int numRemaining = numFFT - numFFT / 2;
+        double[] output = new double[numRemaining];
+        int numOutput = emitSamples(numRemaining, output, 0);
+
+        return Arrays.copyOf(output, numOutput);
+    }
+
+    // Private methods
+
+    /**
+     * Helper method that normalises and emits the first samples in the buffer, then shifts the
+     * buffer along.<br>
+     * Samples in the first <code>numFFT / 2</code> positions of the signal are padding, and are
+     * dropped instead of emitted.
+     *
+     * @param numSamples Number of samples to remove from the start of the buffer.
+     * @param output     Array to emit the samples into.
+     * @param numOutput  Number of samples already in <code>output</code>.
+     * @return New number of samples in <code>output</code>.
+     */
+    private int emitSamples(int numSamples, double[] output, int numOutput) {
+        // Normalise by the sum of the squared window and emit
+        long trimPosition = numFFT / 2;
+        for (int i = 0; i < numSamples; i++) {
+            if (bufferPosition + i < trimPosition) continue;
+
+            double sample = i < numFFT ? overlapBuffer[i] : 0;
+            double windowSum = i < numFFT ? windowSumBuffer[i] : 0;
+            output[numOutput++] = windowSum != 0 ? sample / windowSum : sample;
+        }
+
+        // Shift the remaining samples to the start of the buffer
+        int numKept = Math.max(0, numFFT - numSamples);
+        System.arraycopy(overlapBuffer, numFFT - numKept, overlapBuffer, 0, numKept);
+        System.arraycopy(windowSumBuffer, numFFT - numKept, windowSumBuffer, 0, numKept);
+        Arrays.fill(overlapBuffer, numKept, numFFT, 0);
+        Arrays.fill(windowSumBuffer, numKept, numFFT, 0);
+        bufferPosition += numSamples;
+
+        return numOutput;
+    }
+}
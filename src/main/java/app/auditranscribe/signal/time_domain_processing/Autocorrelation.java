@@ -20,7 +20,6 @@ package app.auditranscribe.signal.time_domain_processing;
 
 import app.auditranscribe.misc.Complex;
 import app.auditranscribe.signal.representations.FFT;
-import app.auditranscribe.utils.MatrixUtils;
 
 /**
  * Autocorrelation methods.
@@ -43,58 +42,43 @@ public final class Autocorrelation {
         // Compute the maximum size
         int maxSize = y.length;
 
-        // Pad out the signal to support full-length auto-correlation
-        // (Note that this padding is *right* padding)
+        // Copy the columns into one contiguous batch of frames
+        // (Note that each column is *right* padded to `fullLength` to support full-length auto-correlation)
         int fullLength = 2 * y.length + 1;
-        Complex[][] yPadded = new Complex[fullLength][y[0].length];  // We also need to convert to complex
-        for (int i = 0; i < y.length; i++) {
-            System.arraycopy(y[i], 0, yPadded[i], 0, y[0].length);
-        }
-        for (int i = y.length; i < fullLength; i++) {
-            for (int j = 0; j < y[0].length; j++) {
-                yPadded[i][j] = Complex.ZERO;
-            }
-        }
+        int numCols = y[0].length;
 
-        // Transpose the padded matrix
-        Complex[][] yTransposed = MatrixUtils.transpose(yPadded);
+        double[] batchReal = new double[numCols * fullLength];
+        double[] batchImag = new double[numCols * fullLength];
 
-        // Compute the transposed autocorrelation matrix
-        Complex[][] rawAutocorrelationTransposed = new Complex[y[0].length][fullLength];
+        for (int i = 0; i < numCols; i++) {
+            int frameStart = i * fullLength;
+            for (int j = 0; j < maxSize; j++) {
+                batchReal[frameStart + j] = y[j][i].re;
+                batchImag[frameStart + j] = y[j][i].im;
+            }
+        }
 
-        for (int i = 0; i < y[0].length; i++) {
-            // Compute raw spectrogram
-            Complex[] rawSpec = FFT.fft(yTransposed[i]);
+        // Compute raw spectrogram of all the columns
+        FFT.fftBatch(batchReal, batchImag, numCols, fullLength);
 
-            // Now convert to power
-            Complex[] powerSpec = new Complex[fullLength];
+        // Now convert to power
+        for (int j = 0; j < batchReal.length; j++) {
+            batchReal[j] = batchReal[j] * batchReal[j] + batchImag[j] * batchImag[j];
+            batchImag[j] = 0;
+        }
 
-            for (int j = 0; j < fullLength; j++) {
-                // Get magnitude only
-                double magnitude = rawSpec[j].abs();
+        // Convert back to time domain and slice each column down to `maxSize`
+        FFT.ifftBatch(batchReal, batchImag, numCols, fullLength);
 
-                // Convert to power
-                powerSpec[j] = new Complex(magnitude * magnitude);
+        Complex[][] autocorrelated = new Complex[maxSize][numCols];
+        for (int i = 0; i < numCols; i++) {
+            int frameStart = i * fullLength;
+            for (int j = 0; j < maxSize; j++) {
+                autocorrelated[j][i] = new Complex(batchReal[frameStart + j], batchImag[frameStart + j]);
             }
-
-            // Convert back to time domain and add to autocorrelation matrix
-            rawAutocorrelationTransposed[i] = FFT.ifft(powerSpec);
-        }
-
-        // Slice down to `maxSize`
-        Complex[][] autocorrelationTransposed = new Complex[y[0].length][maxSize];
-        for (int i = 0; i < y[0].length; i++) {
-            System.arraycopy(
-                    rawAutocorrelationTransposed[i],
-                    0,
-                    autocorrelationTransposed[i],
-                    0,
-                    maxSize
-            );
         }
 
-        // Now transpose back and return
-        return MatrixUtils.transpose(autocorrelationTransposed);
+        return autocorrelated;
     }
 
     /**
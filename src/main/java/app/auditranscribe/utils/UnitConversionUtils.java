@@ -317,6 +317,56 @@ public final class UnitConversionUtils {
         return powerToDecibel(amplitude * amplitude, refVal * refVal);
     }
 
+    /**
+     * Convert a matrix of amplitudes to dB-scaled values in place, thresholding the output at
+     * <code>topDB</code> below the peak.<br>
+     * This gives the same values as <code>powerToDecibel(S, refVal * refVal, topDB)</code> on the
+     * squared amplitudes, but does so in a single pass over the matrix without allocating a new
+     * one. The peak decibel value is found from <code>maxAmplitude</code>, which the caller
+     * usually keeps track of while computing the amplitudes.
+     *
+     * @param amplitudes   Matrix of input amplitudes. Will be overwritten with the decibel values.
+     * @param maxAmplitude The maximum amplitude in <code>amplitudes</code>.
+     * @param refVal       Value such that the amplitude is scaled relative to <code>refVal</code>
+     *                     using the formula <code>20 * log10(amplitude / refVal)</code>.
+     * @param topDB        Threshold the output at <code>topDB</code> below the peak.
+     * @return The <code>amplitudes</code> matrix, now containing decibel values.
+     * @throws ValueException If the value of <code>topDB</code> is negative.
+     */
+    public static float[][] amplitudeToDecibel(float[][] amplitudes, double maxAmplitude, double refVal, double topDB) {
+        for (float[] row : amplitudes) amplitudeToDecibel(row, maxAmplitude, refVal, topDB);
+        return amplitudes;
+    }
+
+    /**
+     * Convert an array of amplitudes to dB-scaled values in place, thresholding the output at
+     * <code>topDB</code> below the peak.<br>
+     * See {@link #amplitudeToDecibel(float[][], double, double, double)}; the rows of a matrix can
+     * be converted separately (e.g., in parallel) using this method.
+     *
+     * @param amplitudes   Array of input amplitudes. Will be overwritten with the decibel values.
+     * @param maxAmplitude The maximum amplitude of the whole matrix that <code>amplitudes</code>
+     *                     belongs to.
+     * @param refVal       Value such that the amplitude is scaled relative to <code>refVal</code>
+     *                     using the formula <code>20 * log10(amplitude / refVal)</code>.
+     * @param topDB        Threshold the output at <code>topDB</code> below the peak.
+     * @return The <code>amplitudes</code> array, now containing decibel values.
+     * @throws ValueException If the value of <code>topDB</code> is negative.
+     */
+    public static float[] amplitudeToDecibel(float[] amplitudes, double maxAmplitude, double refVal, double topDB) {
+        // Check that `topDB` is non-negative
+        if (topDB < 0) throw new ValueException("The threshold decibel (`topDB`) must be non-negative.");
+
+        // Precompute the reference and threshold decibel values
+        double refPower = refVal * refVal;
+        double refDB = 10 * Math.log10(Math.max(POWER_TO_DB_MIN_AMPLITUDE, refPower));
+        double thresholdDB = amplitudeToDecibel(maxAmplitude, refVal) - topDB;
+
+        // Convert the values, clamping at the threshold
+        amplitudeRowToDecibel(amplitudes, refDB, thresholdDB);
+        return amplitudes;
+    }
+
     /**
      * Method that converts a frequency in Hertz (Hz) into mel frequency (mels).
      *
@@ -479,4 +529,21 @@ public final class UnitConversionUtils {
         // Return the final string
         return minuteStr + ":" + secondsStr;
     }
+
+    // Private methods
+
+    /**
+     * Helper method that converts a row of amplitudes to clamped decibel values in place.
+     *
+     * @param row         Row of amplitudes.
+     * @param refDB       Decibel value of the reference power.
+     * @param thresholdDB Minimum decibel value to output.
+     */
+    private static void amplitudeRowToDecibel(float[] row, double refDB, double thresholdDB) {
+        for (int j = 0; j < row.length; j++) {
+            double power = (double) row[j] * row[j];
+            double dbVal = 10 * Math.log10(Math.max(POWER_TO_DB_MIN_AMPLITUDE, power)) - refDB;
+            row[j] = (float) Math.max(dbVal, thresholdDB);
+        }
+    }
 }
@@ -0,0 +1,75 @@
+package app.auditranscribe.audio;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sound.sampled.AudioFormat;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AudioHelpersTest {
+    @Test
+    void unpackBytes() {
+        // Define the formats
+        AudioFormat signed16LE = new AudioFormat(AudioFormat.Encoding.PCM_SIGNED, 44100, 16, 1, 2, 44100, false);
+        AudioFormat unsigned8 = new AudioFormat(AudioFormat.Encoding.PCM_UNSIGNED, 44100, 8, 1, 1, 44100, false);
+        AudioFormat signed24BE = new AudioFormat(AudioFormat.Encoding.PCM_SIGNED, 44100, 24, 1, 3, 44100, true);
+
+        // Unpack the samples
+        assertArrayEquals(
+                new float[]{0.5f, -1f, -1f / 32768},
+                AudioHelpers.unpackBytes(
+                        new byte[]{0x00, 0x40, 0x00, (byte) 0x80, (byte) 0xff, (byte) 0xff}, 6, 16, signed16LE
+                )
+        );
+        assertArrayEquals(
+                new float[]{0f, -1f, 127f / 128},
+                AudioHelpers.unpackBytes(new byte[]{(byte) 0x80, 0x00, (byte) 0xff}, 3, 8, unsigned8)
+        );
+        assertArrayEquals(
+                new float[]{-0.5f, 1f / 8388608},
+                AudioHelpers.unpackBytes(new byte[]{(byte) 0xc0, 0x00, 0x00, 0x00, 0x00, 0x01}, 6, 24, signed24BE)
+        );
+    }
+
+    @Test
+    void unpackBytesOfOneChannel() {
+        // Define the interleaved stereo bytes (left channel is 1, 2, 3; right channel is -1, -2, -3)
+        AudioFormat format = new AudioFormat(AudioFormat.Encoding.PCM_SIGNED, 44100, 16, 2, 4, 44100, true);
+        byte[] bytes = {0, 1, -1, -1, 0, 2, -1, -2, 0, 3, -1, -3};
+
+        // Unpack the right channel only
+        float[] samples = new float[4];
+        AudioHelpers.unpackBytes(bytes, 2, 4, samples, 1, 3, 16, format);
+
+        assertArrayEquals(new float[]{0, -1f / 32768, -2f / 32768, -3f / 32768}, samples);
+    }
+
+    @Test
+    void packBytes() {
+        // Samples should survive being packed then unpacked
+        float[] samples = {0f, 0.25f, -0.75f, -1f, 0.5f};
+        for (int bitsPerSample : new int[]{8, 16, 24, 32}) {
+            for (AudioFormat.Encoding encoding : new AudioFormat.Encoding[]{
+                    AudioFormat.Encoding.PCM_SIGNED, AudioFormat.Encoding.PCM_UNSIGNED
+            }) {
+                for (boolean isBigEndian : new boolean[]{true, false}) {
+                    AudioFormat format = new AudioFormat(
+                            encoding, 44100, bitsPerSample, 1, bitsPerSample / 8, 44100, isBigEndian
+                    );
+                    byte[] bytes = AudioHelpers.packBytes(samples, bitsPerSample, format);
+                    assertArrayEquals(
+                            samples, AudioHelpers.unpackBytes(bytes, bytes.length, bitsPerSample, format),
+                            format.toString()
+                    );
+                }
+            }
+        }
+
+        // Samples outside [-1, 1] should be clipped
+        AudioFormat format = new AudioFormat(AudioFormat.Encoding.PCM_SIGNED, 44100, 16, 1, 2, 44100, false);
+        assertArrayEquals(
+                new byte[]{(byte) 0xff, 0x7f, 0x00, (byte) 0x80},
+                AudioHelpers.packBytes(new float[]{1.5f, -2f}, 16, format)
+        );
+    }
+}
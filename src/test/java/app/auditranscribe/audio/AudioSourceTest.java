@@ -0,0 +1,83 @@
+package app.auditranscribe.audio;
+
+import app.auditranscribe.io.IOMethods;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AudioSourceTest {
+    static File file;
+    static AudioSource source;
+    static byte[] streamBytes;
+
+    @BeforeAll
+    static void beforeAll() throws UnsupportedAudioFileException, IOException {
+        file = new File(IOMethods.getAbsoluteFilePath("test-files/general/audio/Choice.wav"));
+        source = new AudioSource(file, 4);
+
+        // Get the frames' bytes using the audio input stream, for comparison
+        try (AudioInputStream stream = AudioSystem.getAudioInputStream(
+                new BufferedInputStream(new FileInputStream(file))
+        )) {
+            streamBytes = stream.readAllBytes();
+        }
+    }
+
+    @Test
+    void getNumFrames() {
+        assertEquals(220500, source.getNumFrames());  // 5 seconds at 44100 Hz
+        assertEquals(4, source.getFrameSize());
+    }
+
+    @Test
+    void readFrames() {
+        // Read frames from the middle of the audio
+        byte[] bytes = new byte[400];
+        assertEquals(100, source.readFrames(12345, bytes, 0, 100));
+        assertArrayEquals(Arrays.copyOfRange(streamBytes, 12345 * 4, 12445 * 4), bytes);
+
+        // Only the remaining frames are read at the end of the audio
+        assertEquals(20, source.readFrames(220480, bytes, 0, 100));
+        assertEquals(0, source.readFrames(220500, bytes, 0, 100));
+
+        // Negative frame indices are rejected
+        assertThrowsExactly(IndexOutOfBoundsException.class, () -> source.readFrames(-1, bytes, 0, 1));
+    }
+
+    @Test
+    void read() throws UnsupportedAudioFileException, IOException {
+        // Use a separate source, so that the frame position is not shared with other tests
+        AudioSource audioSource = new AudioSource(file, 4);
+        byte[] bytes = new byte[1000];
+
+        // Sequential reads advance the frame position
+        assertEquals(1000, audioSource.read(bytes));
+        assertEquals(250, audioSource.getFramePosition());
+        assertArrayEquals(Arrays.copyOfRange(streamBytes, 0, 1000), bytes);
+
+        // Seek backwards and forwards
+        audioSource.setFramePosition(100);
+        assertEquals(1000, audioSource.read(bytes));
+        assertArrayEquals(Arrays.copyOfRange(streamBytes, 400, 1400), bytes);
+
+        audioSource.setFramePosition(220490);
+        assertEquals(40, audioSource.read(bytes));
+        assertEquals(-1, audioSource.read(bytes));
+
+        // Frame positions are clamped
+        audioSource.setFramePosition(-5);
+        assertEquals(0, audioSource.getFramePosition());
+        audioSource.setFramePosition(1_000_000);
+        assertEquals(220500, audioSource.getFramePosition());
+    }
+}
@@ -263,4 +263,93 @@ class InterpolationTests {
         assertArrayEquals(interpHCorrect, interpH);
         assertArrayEquals(interpICorrect, interpI);
     }
-}
\ No newline at end of file
+
+    @Test
+    void floatInterpolation() {
+        // Define arrays
+        double[][] doubleArray = new double[][]{
+                {1, 2, 3},
+                {4, 5, 6}
+        };
+        float[][] floatArray = new float[][]{
+                {1, 2, 3},
+                {4, 5, 6}
+        };
+
+        // Test exceptions
+        assertThrowsExactly(LengthException.class, () -> {
+            // New X length too short
+            Interpolation.BILINEAR.interpolation.interpolate(floatArray, 1, 4);
+        });
+
+        // Check that the single precision results match the double precision ones
+        for (Interpolation interpolation : Interpolation.values()) {
+            double[][] interpDouble = interpolation.interpolation.interpolate(doubleArray, 5, 7);
+            float[][] interpFloat = interpolation.interpolation.interpolate(floatArray, 5, 7);
+
+            assertEquals(interpDouble.length, interpFloat.length);
+            for (int i = 0; i < interpDouble.length; i++) {
+                assertEquals(interpDouble[i].length, interpFloat[i].length);
+                for (int j = 0; j < interpDouble[i].length; j++) {
+                    assertEquals(interpDouble[i][j], interpFloat[i][j], 1e-5);
+                }
+            }
+        }
+    }
+
+    @Test
+    void interpolationAtCoordinates() {
+        // Define array
+        float[][] array = new float[][]{
+                {1, 2, 3, 4},
+                {5, 6, 7, 8},
+                {9, 10, 11, 12}
+        };
+
+        // Check that a region interpolated at its coordinates matches the whole interpolated array
+        for (Interpolation interpolation : Interpolation.values()) {
+            float[][] whole = interpolation.interpolation.interpolate(array, 5, 10);
+
+            double[] XNew = new double[5];
+            for (int i = 0; i < 5; i++) XNew[i] = i * 2. / 4;
+
+            double[] YNew = new double[4];
+            for (int j = 0; j < 4; j++) YNew[j] = (j + 3) * 3. / 9;
+
+            float[][] region = interpolation.interpolation.interpolate(array, XNew, YNew);
+            for (int i = 0; i < 5; i++) {
+                for (int j = 0; j < 4; j++) {
+                    assertEquals(whole[i][j + 3], region[i][j], 1e-5);
+                }
+            }
+        }
+    }
+
+    @Test
+    void interpolationToRowConsumer() {
+        // Define array and coordinates
+        float[][] array = new float[40][30];
+        for (int i = 0; i < 40; i++) {
+            for (int j = 0; j < 30; j++) array[i][j] = (float) Math.sin(i * 0.3 + j * 0.7);
+        }
+
+        double[] XNew = new double[100];
+        for (int i = 0; i < 100; i++) XNew[i] = i * 39. / 99;
+
+        double[] YNew = new double[50];
+        for (int j = 0; j < 50; j++) YNew[j] = 3 + j * 20. / 49;
+
+        // Check that the rows passed to the consumer match the interpolated array
+        for (Interpolation interpolation : Interpolation.values()) {
+            float[][] correct = interpolation.interpolation.interpolate(array, XNew, YNew);
+
+            for (boolean parallel : new boolean[]{false, true}) {
+                float[][] rows = new float[100][];
+                interpolation.interpolation.interpolate(
+                        array, XNew, YNew, (row, i) -> rows[i] = row.clone(), parallel
+                );
+                assertArrayEquals(correct, rows);
+            }
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package app.auditranscribe.fxml.plotting;
+
+import app.auditranscribe.generic.exceptions.ValueException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MagnitudePyramidTest {
+    // Test data
+    static final float[][] MAGNITUDES = {
+            {1, 5, 2, 0, -3},
+            {4, -1, 7, 3, 2},
+            {0, 2, -2, 8, 1}
+    };
+
+    @Test
+    void levels() {
+        // Define the pyramid, allowing rows to be halved
+        MagnitudePyramid pyramid = new MagnitudePyramid(MAGNITUDES, 1);
+
+        // Check the levels
+        assertEquals(4, pyramid.getNumLevels());
+        assertSame(MAGNITUDES, pyramid.getLevel(0));
+        assertArrayEquals(new float[][]{{5, 7, 2}, {2, 8, 1}}, pyramid.getLevel(1));
+        assertArrayEquals(new float[][]{{8, 2}}, pyramid.getLevel(2));
+        assertArrayEquals(new float[][]{{8}}, pyramid.getLevel(3));
+
+        // Check the reduction factors
+        assertEquals(1, pyramid.getRowReductionFactor(0));
+        assertEquals(2, pyramid.getRowReductionFactor(1));
+        assertEquals(4, pyramid.getRowReductionFactor(2));
+        assertEquals(4, pyramid.getRowReductionFactor(3));
+        assertEquals(8, pyramid.getColReductionFactor(3));
+    }
+
+    @Test
+    void levelsWithMinNumRows() {
+        // Rows should never be halved below 3 rows
+        MagnitudePyramid pyramid = new MagnitudePyramid(MAGNITUDES, 3);
+
+        assertEquals(4, pyramid.getNumLevels());
+        assertArrayEquals(new float[][]{{5, 2, -3}, {4, 7, 2}, {2, 8, 1}}, pyramid.getLevel(1));
+        assertArrayEquals(new float[][]{{5}, {7}, {8}}, pyramid.getLevel(3));
+        assertEquals(1, pyramid.getRowReductionFactor(3));
+
+        assertThrowsExactly(ValueException.class, () -> new MagnitudePyramid(MAGNITUDES, 0));
+    }
+
+    @Test
+    void selectLevel() {
+        MagnitudePyramid pyramid = new MagnitudePyramid(MAGNITUDES, 1);
+
+        assertEquals(0, pyramid.selectLevel(0.5));
+        assertEquals(0, pyramid.selectLevel(1.9));
+        assertEquals(1, pyramid.selectLevel(2));
+        assertEquals(2, pyramid.selectLevel(7.5));
+        assertEquals(3, pyramid.selectLevel(100));
+    }
+
+    @Test
+    void toLevelCoordinates() {
+        assertArrayEquals(
+                new double[]{0, 0.5, 1.5, 1.75},
+                MagnitudePyramid.toLevelCoordinates(new double[]{0, 1.5, 3.5, 4}, 2, 3), 1e-10
+        );
+        assertArrayEquals(
+                new double[]{0, 2.25},
+                MagnitudePyramid.toLevelCoordinates(new double[]{0, 2.25}, 1, 5), 1e-10
+        );
+    }
+}
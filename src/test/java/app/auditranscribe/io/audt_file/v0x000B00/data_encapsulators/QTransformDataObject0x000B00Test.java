@@ -145,4 +145,36 @@ class QTransformDataObject0x000B00Test {
             }
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    void floatMagnitudesRoundTrip() {
+        // Define sample Q-transform magnitudes
+        float[][] magnitudes = {
+                {0.1f, -0.2f, 0.3f},
+                {4, -5, 6},
+                {7, -8, 9}
+        };
+
+        // Set and then obtain the magnitudes
+        QTransformDataObject dataObject = new QTransformDataObject0x000B00();
+        dataObject.setDataUsingMagnitudes(magnitudes, null);
+        float[][] obtained = dataObject.obtainMagnitudesFromDataAsFloats();
+
+        // Tests
+        assertEquals(-8, dataObject.minMagnitude, 1e-5);
+        assertEquals(9, dataObject.maxMagnitude, 1e-5);
+
+        assertEquals(magnitudes.length, obtained.length);
+        for (int i = 0; i < magnitudes.length; i++) {
+            assertArrayEquals(magnitudes[i], obtained[i], 1e-5f);
+        }
+
+        // Check that the magnitudes match those obtained in double precision
+        double[][] obtainedDoubles = dataObject.obtainMagnitudesFromData();
+        for (int i = 0; i < magnitudes.length; i++) {
+            for (int j = 0; j < magnitudes[i].length; j++) {
+                assertEquals(obtainedDoubles[i][j], obtained[i][j], 1e-5);
+            }
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package app.auditranscribe.misc;
+
+import app.auditranscribe.generic.exceptions.ValueException;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LRUCacheTest {
+    @Test
+    void evictsLeastRecentlyUsed() {
+        // Define the cache
+        LRUCache<Integer, String> cache = new LRUCache<>(2);
+        cache.put(1, "one");
+        cache.put(2, "two");
+
+        // Access the first entry so that the second one becomes the least recently used
+        assertEquals("one", cache.get(1));
+
+        // Add a third entry, which should evict the second one
+        cache.put(3, "three");
+
+        assertEquals(2, cache.size());
+        assertTrue(cache.containsKey(1));
+        assertFalse(cache.containsKey(2));
+        assertTrue(cache.containsKey(3));
+    }
+
+    @Test
+    void evictsByWeight() {
+        // Define a cache whose values weigh their lengths
+        LRUCache<Integer, String> cache = new LRUCache<>(10, String::length);
+        cache.put(1, "four");
+        cache.put(2, "four");
+        assertEquals(8, cache.getTotalWeight());
+
+        // Adding a heavy value evicts as many least recently used entries as needed
+        cache.get(1);
+        cache.put(3, "sixsix");
+        assertTrue(cache.containsKey(1));
+        assertFalse(cache.containsKey(2));
+        assertEquals(10, cache.getTotalWeight());
+
+        // Replacing and removing values updates the total weight
+        cache.put(1, "a");
+        assertEquals(7, cache.getTotalWeight());
+        cache.remove(3);
+        assertEquals(1, cache.getTotalWeight());
+
+        // A value heavier than the maximum weight is not kept
+        assertEquals("elevenchars", cache.computeIfAbsent(4, key -> "elevenchars"));
+        assertFalse(cache.containsKey(4));
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getTotalWeight());
+    }
+
+    @Test
+    void computeIfAbsent() {
+        // Define the cache
+        LRUCache<Integer, String> cache = new LRUCache<>(4);
+
+        // Compute a value, then check that it is not recomputed
+        assertEquals("1", cache.computeIfAbsent(1, String::valueOf));
+        assertEquals("1", cache.computeIfAbsent(1, key -> "recomputed"));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void nullValues() {
+        // Define the cache
+        LRUCache<Integer, String> cache = new LRUCache<>(4);
+
+        // Null values are not cached
+        assertThrowsExactly(ValueException.class, () -> cache.put(1, null));
+        assertNull(cache.computeIfAbsent(1, key -> null));
+        assertFalse(cache.containsKey(1));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void values() {
+        // Define the cache
+        LRUCache<Integer, String> cache = new LRUCache<>(4);
+        cache.put(1, "one");
+        cache.put(2, "two");
+        cache.get(1);
+
+        // Values are ordered from the least to the most recently used
+        List<String> values = cache.values();
+        assertEquals(List.of("two", "one"), values);
+
+        // The values are a snapshot of the cache
+        cache.clear();
+        assertEquals(List.of("two", "one"), values);
+    }
+
+    @Test
+    void invalidMaxSize() {
+        assertThrowsExactly(ValueException.class, () -> new LRUCache<Integer, String>(0));
+        assertThrowsExactly(ValueException.class, () -> new LRUCache<Integer, String>(-1));
+        assertThrowsExactly(ValueException.class, () -> new LRUCache<Integer, String>(0L, String::length));
+    }
+}
@@ -0,0 +1,82 @@
+package app.auditranscribe.misc;
+
+import app.auditranscribe.generic.exceptions.ValueException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RingBufferTest {
+    @Test
+    void writeAndReadWrappingAround() {
+        // Define the buffer
+        FloatRingBuffer buffer = new FloatRingBuffer(5);
+        float[] out = new float[5];
+
+        // Fill most of the buffer, then read part of it
+        assertEquals(4, buffer.write(new float[]{1, 2, 3, 4}, 0, 4));
+        assertEquals(3, buffer.read(out, 0, 3));
+        assertArrayEquals(new float[]{1, 2, 3, 0, 0}, out);
+
+        // Write past the end of the backing array; only the free space is written
+        assertEquals(4, buffer.write(new float[]{0, 5, 6, 7, 8, 9}, 1, 5));
+        assertEquals(5, buffer.size());
+        assertEquals(0, buffer.remainingCapacity());
+        assertEquals(0, buffer.write(new float[]{10}, 0, 1));
+
+        // Read everything back, in order
+        assertEquals(5, buffer.read(out, 0, 5));
+        assertArrayEquals(new float[]{4, 5, 6, 7, 8}, out);
+        assertEquals(0, buffer.read(out, 0, 5));
+    }
+
+    @Test
+    void clear() {
+        // Define the buffer
+        ByteRingBuffer buffer = new ByteRingBuffer(4);
+        buffer.write(new byte[]{1, 2, 3}, 0, 3);
+
+        // Clear the buffer
+        buffer.clear();
+        assertEquals(0, buffer.size());
+        assertEquals(4, buffer.remainingCapacity());
+
+        // Check that new data is read after clearing
+        byte[] out = new byte[4];
+        assertEquals(4, buffer.write(new byte[]{4, 5, 6, 7}, 0, 4));
+        assertEquals(4, buffer.read(out, 0, 4));
+        assertArrayEquals(new byte[]{4, 5, 6, 7}, out);
+    }
+
+    @Test
+    void singleProducerSingleConsumer() throws InterruptedException {
+        // Define the buffer and the data to send through it
+        ByteRingBuffer buffer = new ByteRingBuffer(64);
+        byte[] data = new byte[100_000];
+        for (int i = 0; i < data.length; i++) data[i] = (byte) (i * 31);
+
+        // Write the data in odd-sized blocks from another thread
+        Thread producer = new Thread(() -> {
+            int numSent = 0;
+            while (numSent < data.length) {
+                numSent += buffer.write(data, numSent, Math.min(37, data.length - numSent));
+            }
+        });
+        producer.start();
+
+        // Read the data back on this thread
+        byte[] received = new byte[data.length];
+        int numReceived = 0;
+        while (numReceived < data.length) {
+            numReceived += buffer.read(received, numReceived, Math.min(50, data.length - numReceived));
+        }
+        producer.join();
+
+        assertArrayEquals(data, received);
+    }
+
+    @Test
+    void invalidCapacity() {
+        assertThrowsExactly(ValueException.class, () -> new FloatRingBuffer(0));
+        assertThrowsExactly(ValueException.class, () -> new ByteRingBuffer(-1));
+    }
+}
@@ -0,0 +1,63 @@
+package app.auditranscribe.misc;
+
+import app.auditranscribe.generic.exceptions.LengthException;
+import app.auditranscribe.generic.exceptions.ValueException;
+import app.auditranscribe.utils.MatrixUtils;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SparseComplexMatrixTest {
+    // Define the matrices
+    static Complex[][] matrix1 = {
+            {new Complex(10, 0), new Complex(0.01, 0), new Complex(0, 5), new Complex(0)},
+            {new Complex(0), new Complex(0), new Complex(0), new Complex(0)},
+            {new Complex(1, 1), new Complex(2, -2), new Complex(-3, 3), new Complex(0.001, 0)}
+    };
+    static Complex[][] matrix2 = {
+            {new Complex(1, 2), new Complex(-1, 0.5)},
+            {new Complex(3, -1), new Complex(0, 2)},
+            {new Complex(-2, 0), new Complex(4, 4)},
+            {new Complex(0.5, 0.5), new Complex(1, -3)}
+    };
+
+    @Test
+    void fromDense() {
+        // Check that only the smallest values of each row are dropped
+        SparseComplexMatrix sparse = SparseComplexMatrix.fromDense(matrix1, 0.01);
+        assertEquals(3, sparse.numRows);
+        assertEquals(4, sparse.numCols);
+        assertEquals(5, sparse.getNumStoredValues());
+
+        Complex[][] dense = sparse.toDense();
+        assertEquals(new Complex(10, 0), dense[0][0]);
+        assertEquals(new Complex(0), dense[0][1]);
+        assertEquals(new Complex(0, 5), dense[0][2]);
+        assertEquals(new Complex(0), dense[1][2]);
+        assertEquals(new Complex(-3, 3), dense[2][2]);
+        assertEquals(new Complex(0), dense[2][3]);
+
+        // Check that invalid quantiles are rejected
+        assertThrowsExactly(ValueException.class, () -> SparseComplexMatrix.fromDense(matrix1, -0.1));
+        assertThrowsExactly(ValueException.class, () -> SparseComplexMatrix.fromDense(matrix1, 1));
+    }
+
+    @Test
+    void matmul() {
+        // Check against the dense matrix multiplication of the sparsified matrix
+        SparseComplexMatrix sparse = SparseComplexMatrix.fromDense(matrix1, 0.01);
+        Complex[][] correct = MatrixUtils.matmul(sparse.toDense(), matrix2);
+        Complex[][] product = sparse.matmul(matrix2);
+
+        assertEquals(correct.length, product.length);
+        for (int i = 0; i < correct.length; i++) {
+            for (int j = 0; j < correct[0].length; j++) {
+                assertEquals(correct[i][j].re, product[i][j].re, 1e-10);
+                assertEquals(correct[i][j].im, product[i][j].im, 1e-10);
+            }
+        }
+
+        // Check that incompatible matrices are rejected
+        assertThrowsExactly(LengthException.class, () -> sparse.matmul(new Complex[3][2]));
+    }
+}
@@ -0,0 +1,32 @@
+package app.auditranscribe.signal;
+
+import app.auditranscribe.generic.exceptions.ValueException;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SignalProcessingPoolTest {
+    @Test
+    void setParallelism() {
+        int originalParallelism = SignalProcessingPool.getParallelism();
+
+        // Check that the pool is recreated with the new parallelism
+        SignalProcessingPool.setParallelism(2);
+        ForkJoinPool pool = SignalProcessingPool.getPool();
+        assertEquals(2, pool.getParallelism());
+        assertSame(pool, SignalProcessingPool.getPool());
+
+        SignalProcessingPool.setParallelism(3);
+        assertEquals(3, SignalProcessingPool.getParallelism());
+        assertEquals(3, SignalProcessingPool.getPool().getParallelism());
+        assertTrue(pool.isShutdown());
+
+        // Check that invalid parallelism levels are rejected
+        assertThrowsExactly(ValueException.class, () -> SignalProcessingPool.setParallelism(0));
+        assertThrowsExactly(ValueException.class, () -> SignalProcessingPool.setParallelism(-1));
+
+        SignalProcessingPool.setParallelism(originalParallelism);
+    }
+}
@@ -0,0 +1,149 @@
+package app.auditranscribe.signal.representations;
+
+import app.auditranscribe.generic.exceptions.LengthException;
+import app.auditranscribe.generic.exceptions.ValueException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FFTPlanTest {
+    @Test
+    void getPlan() {
+        // Plans of the same length should be shared
+        FFTPlan plan1 = FFTPlan.getPlan(64);
+        FFTPlan plan2 = FFTPlan.getPlan(64);
+        FFTPlan plan3 = FFTPlan.getPlan(128);
+
+        assertSame(plan1, plan2);
+        assertNotSame(plan1, plan3);
+        assertEquals(64, plan1.length);
+        assertEquals(128, plan3.length);
+
+        // Plans can only be created for positive lengths
+        assertThrowsExactly(ValueException.class, () -> FFTPlan.getPlan(0));
+        assertThrowsExactly(ValueException.class, () -> FFTPlan.getPlan(-4));
+    }
+
+    @Test
+    void transform() {
+        // Lengths covering the radix-2/4, mixed-radix and Bluestein algorithms
+        int[] lengths = {1, 2, 4, 8, 32, 64, 3, 5, 6, 12, 15, 45, 60, 100, 7, 14, 97, 201};
+
+        for (int length : lengths) {
+            // Define the signal
+            double[] realParts = new double[length];
+            double[] imagParts = new double[length];
+            for (int i = 0; i < length; i++) {
+                realParts[i] = Math.sin(0.3 * i) + 0.5 * Math.cos(1.7 * i);
+                imagParts[i] = 0.25 * i - 2;
+            }
+
+            // Compute the DFT naively
+            double[] correctReal = new double[length];
+            double[] correctImag = new double[length];
+            for (int k = 0; k < length; k++) {
+                for (int n = 0; n < length; n++) {
+                    double arg = -2 * Math.PI * ((long) k * n % length) / length;
+                    correctReal[k] += realParts[n] * Math.cos(arg) - imagParts[n] * Math.sin(arg);
+                    correctImag[k] += realParts[n] * Math.sin(arg) + imagParts[n] * Math.cos(arg);
+                }
+            }
+
+            // Compute the FFT using the plan
+            FFTPlan.getPlan(length).transform(realParts, imagParts);
+
+            // Check the output
+            assertArrayEquals(correctReal, realParts, 1e-8, "Length " + length);
+            assertArrayEquals(correctImag, imagParts, 1e-8, "Length " + length);
+        }
+
+        // Check that mismatched lengths are rejected
+        assertThrowsExactly(
+                LengthException.class, () -> FFTPlan.getPlan(32).transform(new double[16], new double[16])
+        );
+    }
+
+    @Test
+    void inverseTransform() {
+        // Lengths covering the radix-2/4, mixed-radix and Bluestein algorithms
+        int[] lengths = {1, 8, 64, 15, 60, 97};
+
+        for (int length : lengths) {
+            // Define the signal
+            double[] realParts = new double[length];
+            double[] imagParts = new double[length];
+            for (int i = 0; i < length; i++) {
+                realParts[i] = Math.sin(0.3 * i) + 0.5 * Math.cos(1.7 * i);
+                imagParts[i] = 0.25 * i - 2;
+            }
+            double[] originalReal = realParts.clone();
+            double[] originalImag = imagParts.clone();
+
+            // Transform the signal and back, reusing the same scratch space
+            FFTPlan plan = FFTPlan.getPlan(length);
+            double[] scratchReal = new double[plan.getScratchLength()];
+            double[] scratchImag = new double[plan.getScratchLength()];
+
+            plan.transform(realParts, imagParts, scratchReal, scratchImag);
+            plan.inverseTransform(realParts, imagParts, scratchReal, scratchImag);
+
+            // Check that the original signal is recovered
+            assertArrayEquals(originalReal, realParts, 1e-10, "Length " + length);
+            assertArrayEquals(originalImag, imagParts, 1e-10, "Length " + length);
+        }
+
+        // Check that short scratch arrays are rejected
+        assertThrowsExactly(
+                LengthException.class,
+                () -> FFTPlan.getPlan(60).inverseTransform(new double[60], new double[60], null, null)
+        );
+    }
+
+    @Test
+    void transformBluestein() {
+        // Define a plan for a prime length, which uses Bluestein's algorithm
+        int length = 97;
+        FFTPlan plan = FFTPlan.getPlan(length);
+        double[] scratchReal = new double[plan.getScratchLength()];
+        double[] scratchImag = new double[plan.getScratchLength()];
+
+        for (int shift : new int[]{0, 1, 42}) {
+            // Leave garbage in the scratch space, which must not affect the result
+            Arrays.fill(scratchReal, 1e9);
+            Arrays.fill(scratchImag, -1e9);
+
+            // The FFT of an impulse at `shift` is `exp(-2 * pi * i * k * shift / length)`
+            double[] realParts = new double[length];
+            double[] imagParts = new double[length];
+            realParts[shift] = 1;
+
+            plan.transform(realParts, imagParts, scratchReal, scratchImag);
+
+            for (int k = 0; k < length; k++) {
+                double arg = -2 * Math.PI * ((long) k * shift % length) / length;
+                assertEquals(Math.cos(arg), realParts[k], 1e-10, "Shift " + shift + ", index " + k);
+                assertEquals(Math.sin(arg), imagParts[k], 1e-10, "Shift " + shift + ", index " + k);
+            }
+        }
+
+        // Check that scratch arrays that are too short are rejected
+        assertThrowsExactly(LengthException.class, () -> plan.transform(
+                new double[length], new double[length], new double[length], new double[length]
+        ));
+    }
+
+    @Test
+    void getScratchLength() {
+        assertEquals(0, FFTPlan.getPlan(1024).getScratchLength());  // Radix-2/4, in-place
+        assertEquals(60, FFTPlan.getPlan(60).getScratchLength());  // Mixed-radix
+        assertEquals(256, FFTPlan.getPlan(97).getScratchLength());  // Bluestein
+    }
+
+    @Test
+    void isVectorBackendEnabled() {
+        // The vector backend is used exactly when it was requested (i.e., in the `vector-fft` profile)
+        assertEquals(Boolean.getBoolean(FFTPlan.VECTOR_BACKEND_PROPERTY), FFTPlan.isVectorBackendEnabled());
+    }
+}
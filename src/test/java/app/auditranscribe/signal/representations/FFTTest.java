@@ -4,8 +4,7 @@ import app.auditranscribe.generic.exceptions.LengthException;
 import app.auditranscribe.misc.Complex;
 import org.junit.jupiter.api.Test;
 
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
+import java.util.Arrays;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -73,6 +72,69 @@ class FFTTest {
         assertEquals(new Complex(1, -1).round(5), fftArray4[0].round(5));
     }
 
+    @Test
+    void fftInPlace() {
+        // Define the arrays
+        double[] realParts1 = {1, 0, -3, 0, 5, 0, -7, 0};
+        double[] imagParts1 = {0, 2, 0, -4, 0, 6, 0, -8};
+        double[] realParts2 = {1, 0, -3, 0, 5, 0};
+        double[] imagParts2 = {0, 2, 0, -4, 0, 6};
+
+        // Generate the FFT outputs in-place
+        FFT.fft(realParts1, imagParts1);
+        FFT.fft(realParts2, imagParts2);
+
+        // Check the FFT outputs
+        double[] correctReal1 = {-4, -4, 36, -4, -4, -4, -4, -4};
+        double[] correctImag1 = {-4, -9.65685425, 0, 9.65685425, 4, 1.65685425, 0, -1.65685425};
+        double[] correctReal2 = {3, -3.46410162, -3.46410162, 3, 3.46410162, 3.46410162};
+        double[] correctImag2 = {4, 14.92820323, -14.92820323, -4, -1.07179677, 1.07179677};
+
+        assertArrayEquals(correctReal1, realParts1, 1e-5);
+        assertArrayEquals(correctImag1, imagParts1, 1e-5);
+        assertArrayEquals(correctReal2, realParts2, 1e-5);
+        assertArrayEquals(correctImag2, imagParts2, 1e-5);
+
+        // Check that mismatched lengths are rejected
+        assertThrowsExactly(LengthException.class, () -> FFT.fft(new double[4], new double[3]));
+    }
+
+    @Test
+    void fftBatch() {
+        // Define a batch of 3 frames of length 12
+        int numFrames = 3;
+        int frameLength = 12;
+        double[] realParts = new double[numFrames * frameLength];
+        double[] imagParts = new double[numFrames * frameLength];
+        for (int i = 0; i < realParts.length; i++) {
+            realParts[i] = Math.sin(0.7 * i) + 0.2 * i;
+            imagParts[i] = Math.cos(1.3 * i);
+        }
+
+        // Compute the FFT of each frame separately
+        double[][] correctReal = new double[numFrames][];
+        double[][] correctImag = new double[numFrames][];
+        for (int f = 0; f < numFrames; f++) {
+            correctReal[f] = Arrays.copyOfRange(realParts, f * frameLength, (f + 1) * frameLength);
+            correctImag[f] = Arrays.copyOfRange(imagParts, f * frameLength, (f + 1) * frameLength);
+            FFT.fft(correctReal[f], correctImag[f]);
+        }
+
+        // Check the batched FFT against the separate FFTs
+        FFT.fftBatch(realParts, imagParts, numFrames, frameLength);
+        for (int f = 0; f < numFrames; f++) {
+            for (int i = 0; i < frameLength; i++) {
+                assertEquals(correctReal[f][i], realParts[f * frameLength + i], 1e-9);
+                assertEquals(correctImag[f][i], imagParts[f * frameLength + i], 1e-9);
+            }
+        }
+
+        // Check that wrongly sized arrays are rejected
+        assertThrowsExactly(
+                LengthException.class, () -> FFT.fftBatch(new double[36], new double[35], 3, 12)
+        );
+    }
+
     @Test
     void rfft() {
         // Define arrays to run RFFT on
@@ -112,6 +174,73 @@ class FFTTest {
         assertEquals(new Complex(-191.0354334), rfftArray2[8].round(7));
     }
 
+    @Test
+    void rfftRealSignal() {
+        // Define arrays to run RFFT on
+        double[] array1 = {1, 2, -3, -4, 5, 6, -7};
+        double[] array2 = {1, 2, -3, -4, 5, 6};
+        double[] array3 = new double[32];
+        for (int i = 0; i < array3.length; i++) {
+            array3[i] = Math.sin(0.4 * i) - 0.3 * Math.cos(2.1 * i) + 0.1 * i;
+        }
+
+        // Check the RFFT outputs against the full complex FFT
+        for (double[] array : new double[][]{array1, array2, array3}) {
+            int numElem = array.length / 2 + 1;
+            double[] realParts = new double[numElem];
+            double[] imagParts = new double[numElem];
+            FFT.rfft(array, realParts, imagParts);
+
+            Complex[] correct = FFT.fft(realArrToComplex(array));
+            for (int i = 0; i < numElem; i++) {
+                assertEquals(correct[i].re, realParts[i], 1e-9);
+                assertEquals(correct[i].im, imagParts[i], 1e-9);
+            }
+        }
+
+        // Check that wrongly sized output arrays are rejected
+        assertThrowsExactly(
+                LengthException.class, () -> FFT.rfft(array2, new double[3], new double[4])
+        );
+    }
+
+    @Test
+    void rfftBatch() {
+        // Check both even and odd frame lengths
+        for (int frameLength : new int[]{16, 9}) {
+            // Define a batch of 4 frames
+            int numFrames = 4;
+            int numElem = frameLength / 2 + 1;
+            double[] signals = new double[numFrames * frameLength];
+            for (int i = 0; i < signals.length; i++) {
+                signals[i] = Math.sin(0.3 * i) - 0.5 * Math.cos(2.2 * i);
+            }
+
+            // Check the batched RFFT against the RFFT of each frame
+            double[] realParts = new double[numFrames * numElem];
+            double[] imagParts = new double[numFrames * numElem];
+            FFT.rfftBatch(signals, realParts, imagParts, numFrames, frameLength);
+
+            for (int f = 0; f < numFrames; f++) {
+                double[] correctReal = new double[numElem];
+                double[] correctImag = new double[numElem];
+                FFT.rfft(
+                        Arrays.copyOfRange(signals, f * frameLength, (f + 1) * frameLength), correctReal, correctImag
+                );
+
+                for (int i = 0; i < numElem; i++) {
+                    assertEquals(correctReal[i], realParts[f * numElem + i], 1e-9);
+                    assertEquals(correctImag[i], imagParts[f * numElem + i], 1e-9);
+                }
+            }
+        }
+
+        // Check that wrongly sized arrays are rejected
+        assertThrowsExactly(
+                LengthException.class, () -> FFT.rfftBatch(new double[32], new double[18], new double[17], 2, 16)
+        );
+    }
+
     @Test
     void ifft() {
         // Define the FFT outputs
@@ -152,6 +281,45 @@ class FFTTest {
         assertEquals(new Complex(0, 6).round(5), complexNumberArray2[5].round(5));
     }
 
+    @Test
+    void ifftInPlace() {
+        // Define the FFT outputs
+        double[] realParts1 = {-4, -4, 36, -4, -4, -4, -4, -4};
+        double[] imagParts1 = {-4, -9.65685425, 0, 9.65685425, 4, 1.65685425, 0, -1.65685425};
+        double[] realParts2 = {3, -3.46410162, -3.46410162, 3, 3.46410162, 3.46410162};
+        double[] imagParts2 = {4, 14.92820323, -14.92820323, -4, -1.07179677, 1.07179677};
+
+        // Generate the IFFT outputs in-place
+        FFT.ifft(realParts1, imagParts1);
+        FFT.ifft(realParts2, imagParts2);
+
+        // Check the IFFT outputs
+        assertArrayEquals(new double[]{1, 0, -3, 0, 5, 0, -7, 0}, realParts1, 1e-5);
+        assertArrayEquals(new double[]{0, 2, 0, -4, 0, 6, 0, -8}, imagParts1, 1e-5);
+        assertArrayEquals(new double[]{1, 0, -3, 0, 5, 0}, realParts2, 1e-5);
+        assertArrayEquals(new double[]{0, 2, 0, -4, 0, 6}, imagParts2, 1e-5);
+    }
+
+    @Test
+    void ifftBatch() {
+        // Define a batch of 2 frames of length 10
+        double[] realParts = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, -1, 0, 1, 0, -1, 0, 1, 0, -1, 0};
+        double[] imagParts = {0, 1, 0, -1, 0, 1, 0, -1, 0, 1, 2, 2, 2, 2, 2, -2, -2, -2, -2, -2};
+        double[] originalReal = realParts.clone();
+        double[] originalImag = imagParts.clone();
+
+        // Check that the IFFT of the batched FFT recovers the original frames
+        FFT.fftBatch(realParts, imagParts, 2, 10);
+        FFT.ifftBatch(realParts, imagParts, 2, 10);
+        assertArrayEquals(originalReal, realParts, 1e-9);
+        assertArrayEquals(originalImag, imagParts, 1e-9);
+
+        // Check that wrongly sized arrays are rejected
+        assertThrowsExactly(
+                LengthException.class, () -> FFT.ifftBatch(new double[20], new double[20], 3, 10)
+        );
+    }
+
     @Test
     void irfft() {
         // Define arrays to run IRFFT on
@@ -202,58 +370,59 @@ class FFTTest {
     }
 
     @Test
-    void circularConvolution() throws NoSuchMethodException, InvocationTargetException, IllegalAccessException {
-        // Make the method accessible to this test
-        Method circularConvMtd = FFT.class.getDeclaredMethod(
-                "circularConvolution", Complex[].class, Complex[].class
-        );
-        circularConvMtd.setAccessible(true);
+    void irfftRealSignal() {
+        // Define signals whose RFFT is to be inverted
+        double[] array1 = {1, 2, -3, -4, 5, 6, -7};
+        double[] array2 = {1, 2, -3, -4, 5, 6};
+        double[] array3 = new double[32];
+        for (int i = 0; i < array3.length; i++) {
+            array3[i] = Math.sin(0.4 * i) - 0.3 * Math.cos(2.1 * i) + 0.1 * i;
+        }
 
-        // Define vectors to test the circular convolution method
-        Complex[] vectorA = {Complex.ZERO, Complex.ONE, Complex.IMAG_UNIT, Complex.ONE, Complex.ZERO};
-        Complex[] vectorB = {
-                new Complex(10), new Complex(11), new Complex(0, 11), new Complex(11),
-                new Complex(10)
-        };
-        Complex[] vectorC = {new Complex(-1, -2), new Complex(-3, -4)};
-        Complex[] vectorD = {new Complex(10), new Complex(0, 13)};
+        // Check that the IRFFT recovers the original signals
+        for (double[] array : new double[][]{array1, array2, array3}) {
+            int numElem = array.length / 2 + 1;
+            double[] realParts = new double[numElem];
+            double[] imagParts = new double[numElem];
+            FFT.rfft(array, realParts, imagParts);
 
-        // Define correct output vectors
-        Complex[] correctConvAB = {
-                new Complex(10, 22), new Complex(21, 10), new Complex(21, 10),
-                new Complex(10, 22), new Complex(11)
-        };
-        Complex[] correctConvCD = {new Complex(42, -59), new Complex(-4, -53)};
+            double[] signal = new double[array.length];
+            FFT.irfft(realParts, imagParts, signal);
+            assertArrayEquals(array, signal, 1e-9);
+        }
+
+        // Check that wrongly sized input arrays are rejected
+        assertThrowsExactly(
+                LengthException.class, () -> FFT.irfft(new double[4], new double[4], new double[8])
+        );
+    }
 
-        // Generate the circular convolution outputs
-        Complex[] convAB = (Complex[]) circularConvMtd.invoke(null, vectorA, vectorB);
-        Complex[] convCD = (Complex[]) circularConvMtd.invoke(null, vectorC, vectorD);
+    @Test
+    void irfftBatch() {
+        // Check both even and odd frame lengths
+        for (int frameLength : new int[]{20, 15}) {
+            // Define a batch of 3 frames
+            int numFrames = 3;
+            int numElem = frameLength / 2 + 1;
+            double[] signals = new double[numFrames * frameLength];
+            for (int i = 0; i < signals.length; i++) {
+                signals[i] = 0.5 * Math.sin(1.1 * i) + Math.cos(0.2 * i);
+            }
 
-        // Check the circular convolution outputs
-        assertEquals(correctConvAB.length, convAB.length);
-        assertEquals(correctConvCD.length, convCD.length);
+            // Check that the batched IRFFT recovers the original frames
+            double[] realParts = new double[numFrames * numElem];
+            double[] imagParts = new double[numFrames * numElem];
+            FFT.rfftBatch(signals, realParts, imagParts, numFrames, frameLength);
 
-        for (int i = 0; i < correctConvAB.length; i++) {
-            assertEquals(correctConvAB[i].round(5), convAB[i].round(5));
-        }
-        for (int i = 0; i < correctConvCD.length; i++) {
-            assertEquals(correctConvCD[i].round(5), convCD[i].round(5));
+            double[] recovered = new double[numFrames * frameLength];
+            FFT.irfftBatch(realParts, imagParts, recovered, numFrames, frameLength);
+            assertArrayEquals(signals, recovered, 1e-9);
         }
 
-        assertThrowsExactly(LengthException.class, () -> {
-            try {
-                circularConvMtd.invoke(null, vectorA, vectorC);
-            } catch (InvocationTargetException e) {
-                throw e.getTargetException();
-            }
-        });
-        assertThrowsExactly(LengthException.class, () -> {
-            try {
-                circularConvMtd.invoke(null, vectorD, vectorB);
-            } catch (InvocationTargetException e) {
-                throw e.getTargetException();
-            }
-        });
+        // Check that wrongly sized arrays are rejected
+        assertThrowsExactly(
+                LengthException.class, () -> FFT.irfftBatch(new double[11], new double[11], new double[40], 2, 20)
+        );
     }
 
     // Helper methods
@@ -0,0 +1,154 @@
+package app.auditranscribe.signal.representations;
+
+import app.auditranscribe.generic.tuples.Pair;
+import app.auditranscribe.generic.tuples.Triple;
+import app.auditranscribe.io.IOMethods;
+import app.auditranscribe.misc.Complex;
+import app.auditranscribe.misc.SparseComplexMatrix;
+import app.auditranscribe.signal.windowing.SignalWindow;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FilterBasisCacheTest {
+    // Test data
+    static final double[] FREQS = {32.70319566, 34.64782887, 36.70809599};
+
+    @AfterEach
+    void tearDown() {
+        FilterBasisCache.setPersistenceFolder(null);
+        FilterBasisCache.clear();
+    }
+
+    @Test
+    void getBasis() {
+        AtomicInteger numComputations = new AtomicInteger();
+
+        // Check that the basis is computed once and then reused
+        Triple<Complex[][], Integer, double[]> basis1 = FilterBasisCache.getBasis(
+                22050, FREQS, SignalWindow.HANN_WINDOW, true, 0, 0.0594,
+                () -> fakeBasis(numComputations)
+        );
+        Triple<Complex[][], Integer, double[]> basis2 = FilterBasisCache.getBasis(
+                22050, FREQS, SignalWindow.HANN_WINDOW, true, 0, 0.0594,
+                () -> fakeBasis(numComputations)
+        );
+        assertSame(basis1, basis2);
+        assertEquals(1, numComputations.get());
+
+        // Check that different parameters give a different basis
+        FilterBasisCache.getBasis(
+                11025, FREQS, SignalWindow.HANN_WINDOW, true, 0, 0.0594,
+                () -> fakeBasis(numComputations)
+        );
+        FilterBasisCache.getBasis(
+                22050, FREQS, SignalWindow.HAMMING_WINDOW, true, 0, 0.0594,
+                () -> fakeBasis(numComputations)
+        );
+        assertEquals(3, numComputations.get());
+    }
+
+    @Test
+    void getSparseBasis() {
+        AtomicInteger numComputations = new AtomicInteger();
+
+        // Check that the sparse basis is computed once and then reused
+        Pair<SparseComplexMatrix, Integer> sparseBasis1 = FilterBasisCache.getSparseBasis(
+                22050, FREQS, SignalWindow.HANN_WINDOW, true, 0, 0.0594, 0.01,
+                () -> fakeBasis(numComputations)
+        );
+        Pair<SparseComplexMatrix, Integer> sparseBasis2 = FilterBasisCache.getSparseBasis(
+                22050, FREQS, SignalWindow.HANN_WINDOW, true, 0, 0.0594, 0.01,
+                () -> fakeBasis(numComputations)
+        );
+        assertSame(sparseBasis1, sparseBasis2);
+        assertEquals(1, numComputations.get());
+        assertEquals(4, sparseBasis1.value0().getNumStoredValues());
+        assertEquals(2, (int) sparseBasis1.value1());
+
+        // Check that the dense basis was not kept in memory
+        Triple<Complex[][], Integer, double[]> basis = FilterBasisCache.getBasis(
+                22050, FREQS, SignalWindow.HANN_WINDOW, true, 0, 0.0594,
+                () -> fakeBasis(numComputations)
+        );
+        assertEquals(2, numComputations.get());
+
+        // Check that a different sparsity reuses a cached dense basis, but gives a different sparse basis
+        Pair<SparseComplexMatrix, Integer> sparseBasis3 = FilterBasisCache.getSparseBasis(
+                22050, FREQS, SignalWindow.HANN_WINDOW, true, 0, 0.0594, 0.5,
+                () -> fakeBasis(numComputations)
+        );
+        assertNotSame(sparseBasis1, sparseBasis3);
+        assertEquals(2, numComputations.get());
+        assertEquals(2, sparseBasis3.value0().getNumStoredValues());
+        assertEquals(basis.value1(), sparseBasis3.value1());
+    }
+
+    @Test
+    void getBasisPersisted(@TempDir File tempDir) {
+        AtomicInteger numComputations = new AtomicInteger();
+        String folder = IOMethods.joinPaths(tempDir.getAbsolutePath(), "filter_bases");
+        FilterBasisCache.setPersistenceFolder(folder);
+
+        // Compute the basis, which should save it to disk
+        Triple<Complex[][], Integer, double[]> basis1 = FilterBasisCache.getBasis(
+                22050, FREQS, SignalWindow.HANN_WINDOW, false, 1.5, 0.0594,
+                () -> fakeBasis(numComputations)
+        );
+        assertEquals(1, IOMethods.numThingsInDir(folder));
+
+        // Check that the basis is loaded from disk once it is no longer in memory
+        FilterBasisCache.clear();
+        Triple<Complex[][], Integer, double[]> basis2 = FilterBasisCache.getBasis(
+                22050, FREQS, SignalWindow.HANN_WINDOW, false, 1.5, 0.0594,
+                () -> fakeBasis(numComputations)
+        );
+        assertEquals(1, numComputations.get());
+
+        assertEquals(basis1.value1(), basis2.value1());
+        assertArrayEquals(basis1.value2(), basis2.value2());
+        assertArrayEquals(basis1.value0(), basis2.value0());
+    }
+
+    @Test
+    void pruneSavedBases(@TempDir File tempDir) throws IOException {
+        // Save three bases of the same size, used at different times
+        String folder = tempDir.getAbsolutePath();
+        File[] files = new File[3];
+        for (int i = 0; i < 3; i++) {
+            files[i] = new File(folder, i + ".basis");
+            Files.write(files[i].toPath(), new byte[100]);
+            assertTrue(files[i].setLastModified(1_000_000L * (i + 1)));
+        }
+
+        // Check that only the most recently used bases that fit are kept
+        FilterBasisCache.pruneSavedBases(folder, 250);
+        assertFalse(files[0].exists());
+        assertTrue(files[1].exists());
+        assertTrue(files[2].exists());
+
+        FilterBasisCache.pruneSavedBases(folder, 100);
+        assertFalse(files[1].exists());
+        assertTrue(files[2].exists());
+    }
+
+    // Helper methods
+    static Triple<Complex[][], Integer, double[]> fakeBasis(AtomicInteger numComputations) {
+        numComputations.incrementAndGet();
+        return new Triple<>(
+                new Complex[][]{
+                        {new Complex(1, 2), new Complex(-0.5, 0.25)},
+                        {new Complex(3), new Complex(0, -1.75)}
+                },
+                2,
+                new double[]{1234.5, 1165.25}
+        );
+    }
+}
@@ -39,7 +39,8 @@ class QTransformTest {
         // Allow access to the alternate Q-Transform call
         vqtHelperMtd = QTransform.class.getDeclaredMethod(
                 "vqtHelper", double[].class, double.class, int.class, double.class, int.class, int.class,
-                double.class, double.class, SignalWindow.class, CustomTask.class, boolean.class
+                double.class, double.class, SignalWindow.class, CustomTask.class, boolean.class, boolean.class,
+                double.class
         );
         vqtHelperMtd.setAccessible(true);
     }
@@ -114,7 +115,7 @@ class QTransformTest {
         // Process QTransform on those samples
         Complex[][] vqtMatrix = (Complex[][]) vqtHelperMtd.invoke(null,
                 samples, audio.getSampleRate(), 512, UnitConversionUtils.noteToFreq("C1"), 168,
-                24, 0, 0, SignalWindow.HANN_WINDOW, null, false
+                24, 0, 0, SignalWindow.HANN_WINDOW, null, false, false, 0.01
         );
 
         // Check specific values in this resultant QTransform matrix
@@ -166,6 +167,111 @@ class QTransformTest {
         assertEquals(0.001, MathUtils.round(vqtMatrix[8][345].im, 3), 0.005);
     }
 
+    @Test
+    @Order(2)
+    void vqt_parallel() {
+        // Check that computing the octaves in parallel gives the same result, for both filter types
+        double[] sampleRates = {audio.getSampleRate(), audio.getSampleRate() / 1.75};  // Kaiser Fast, Kaiser Best
+        int[] numBins = {28, 9};
+        int[] binsPerOctave = {4, 1};
+
+        for (int i = 0; i < 2; i++) {
+            Complex[][] sequential = QTransform.vqt(
+                    samples, sampleRates[i], 512, UnitConversionUtils.noteToFreq("C1"), numBins[i],
+                    binsPerOctave[i], 0, 12, SignalWindow.HANN_WINDOW, null
+            );
+            Complex[][] parallel = QTransform.vqt(
+                    samples, sampleRates[i], 512, UnitConversionUtils.noteToFreq("C1"), numBins[i],
+                    binsPerOctave[i], 0, 12, SignalWindow.HANN_WINDOW, null, true
+            );
+
+            assertEquals(sequential.length, parallel.length);
+            for (int j = 0; j < sequential.length; j++) {
+                assertArrayEquals(sequential[j], parallel[j]);
+            }
+        }
+    }
+
+    @Test
+    @Order(2)
+    void vqt_chunked() {
+        // Check that the chunked magnitudes match those of the whole signal, for both filter types
+        double[] sampleRates = {audio.getSampleRate(), audio.getSampleRate() / 1.75};  // Kaiser Fast, Kaiser Best
+        int[] numBins = {28, 9};
+        int[] binsPerOctave = {4, 1};
+
+        for (int i = 0; i < 2; i++) {
+            Complex[][] whole = QTransform.vqt(
+                    samples, sampleRates[i], 512, UnitConversionUtils.noteToFreq("C1"), numBins[i],
+                    binsPerOctave[i], 0, 12, SignalWindow.HANN_WINDOW, null
+            );
+
+            double[][] chunked = new double[numBins[i]][whole[0].length];
+            int numFrames = QTransform.vqtChunked(
+                    samples, sampleRates[i], 512, UnitConversionUtils.noteToFreq("C1"), numBins[i],
+                    binsPerOctave[i], 0, 12, SignalWindow.HANN_WINDOW, 100,
+                    (magnitudes, startFrame) -> {
+                        for (int j = 0; j < magnitudes.length; j++) {
+                            System.arraycopy(magnitudes[j], 0, chunked[j], startFrame, magnitudes[j].length);
+                        }
+                    },
+                    null, true
+            );
+
+            assertEquals(whole[0].length, numFrames);
+            for (int j = 0; j < numBins[i]; j++) {
+                for (int k = 0; k < numFrames; k++) {
+                    assertEquals(whole[j][k].abs(), chunked[j][k], 1e-5);
+                }
+            }
+        }
+
+        // Check that an invalid chunk size is rejected
+        assertThrowsExactly(ValueException.class, () -> QTransform.vqtChunked(
+                samples, audio.getSampleRate(), 512, UnitConversionUtils.noteToFreq("C1"), 28,
+                4, 0, 12, SignalWindow.HANN_WINDOW, 0, (magnitudes, startFrame) -> {
+                }, null, false
+        ));
+    }
+
+    @Test
+    @Order(2)
+    void vqt_sparsity() {
+        // Check that the sparse filter basis gives nearly the same result as the dense filter basis
+        Complex[][] dense = QTransform.vqt(
+                samples, audio.getSampleRate(), 512, UnitConversionUtils.noteToFreq("C1"), 28,
+                4, 0, 12, SignalWindow.HANN_WINDOW, null, false, 0
+        );
+        Complex[][] sparse = QTransform.vqt(
+                samples, audio.getSampleRate(), 512, UnitConversionUtils.noteToFreq("C1"), 28,
+                4, 0, 12, SignalWindow.HANN_WINDOW, null, false, 0.01
+        );
+
+        double maxMagnitude = 0;
+        for (Complex[] row : dense) {
+            for (Complex value : row) {
+                maxMagnitude = Math.max(maxMagnitude, value.abs());
+            }
+        }
+
+        assertEquals(dense.length, sparse.length);
+        for (int i = 0; i < dense.length; i++) {
+            for (int j = 0; j < dense[i].length; j++) {
+                assertEquals(dense[i][j].abs(), sparse[i][j].abs(), 0.01 * maxMagnitude);
+            }
+        }
+
+        // Check that invalid sparsities are rejected
+        assertThrowsExactly(ValueException.class, () -> QTransform.vqt(
+                samples, audio.getSampleRate(), 512, UnitConversionUtils.noteToFreq("C1"), 28,
+                4, 0, 12, SignalWindow.HANN_WINDOW, null, false, 1
+        ));
+        assertThrowsExactly(ValueException.class, () -> QTransform.vqt(
+                samples, audio.getSampleRate(), 512, UnitConversionUtils.noteToFreq("C1"), 28,
+                4, 0, 12, SignalWindow.HANN_WINDOW, null, false, -0.5
+        ));
+    }
+
     @Test
     @Order(2)
     void vqt_nonMultipleOf2HopLength() {
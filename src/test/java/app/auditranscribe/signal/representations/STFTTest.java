@@ -69,6 +69,24 @@ class STFTTest {
         assertEquals(new Complex(45.3863248), stftArray2Hann[4][1].round(7));
     }
 
+    @Test
+    void stftParallel() {
+        // Generate a signal long enough to be split into several blocks of frames
+        double[] signal = new double[20000];
+        for (int i = 0; i < signal.length; i++) {
+            signal[i] = Math.sin(0.05 * i) + 0.3 * Math.sin(0.71 * i);
+        }
+
+        // Check that the parallel STFT gives the same output as the sequential STFT
+        Complex[][] sequential = STFT.stft(signal, 512, 128, SignalWindow.HANN_WINDOW);
+        Complex[][] parallel = STFT.stft(signal, 512, 128, SignalWindow.HANN_WINDOW, true);
+
+        assertEquals(sequential.length, parallel.length);
+        for (int i = 0; i < sequential.length; i++) {
+            assertArrayEquals(sequential[i], parallel[i]);
+        }
+    }
+
     @Test
     void istft() {
         // Define expected outputs
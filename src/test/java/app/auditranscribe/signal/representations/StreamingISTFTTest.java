@@ -0,0 +1,65 @@
+package app.auditranscribe.signal.representations;
+
+import app.auditranscribe.generic.exceptions.LengthException;
+import app.auditranscribe.misc.Complex;
+import app.auditranscribe.signal.windowing.SignalWindow;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamingISTFTTest {
+    @Test
+    void process() {
+        // Generate a test signal
+        double[] signal = new double[3000];
+        for (int i = 0; i < signal.length; i++) {
+            signal[i] = Math.sin(0.03 * i) + 0.5 * Math.cos(0.4 * i);
+        }
+
+        // Check against the ISTFT of the whole STFT matrix, for different hop lengths and block sizes
+        for (int hopLength : new int[]{64, 100, 256}) {
+            Complex[][] stftMatrix = STFT.stft(signal, 256, hopLength, SignalWindow.HANN_WINDOW);
+            double[] correct = STFT.istft(stftMatrix, 256, hopLength, SignalWindow.HANN_WINDOW);
+
+            for (int blockSize : new int[]{1, 5, stftMatrix[0].length}) {
+                StreamingISTFT streamingISTFT = new StreamingISTFT(256, hopLength, SignalWindow.HANN_WINDOW);
+                double[] output = new double[0];
+
+                for (int blockStart = 0; blockStart < stftMatrix[0].length; blockStart += blockSize) {
+                    int blockEnd = Math.min(blockStart + blockSize, stftMatrix[0].length);
+                    Complex[][] block = new Complex[stftMatrix.length][];
+                    for (int j = 0; j < stftMatrix.length; j++) {
+                        block[j] = Arrays.copyOfRange(stftMatrix[j], blockStart, blockEnd);
+                    }
+
+                    output = concatenate(output, streamingISTFT.process(block));
+                }
+                output = concatenate(output, streamingISTFT.finish());
+
+                assertArrayEquals(correct, output, 1e-9);
+            }
+        }
+    }
+
+    @Test
+    void processInvalid() {
+        StreamingISTFT streamingISTFT = new StreamingISTFT(8, 2, SignalWindow.HANN_WINDOW);
+
+        // Check that wrongly sized blocks are rejected
+        assertThrowsExactly(LengthException.class, () -> streamingISTFT.process(new Complex[4][1]));
+
+        // Check that no frames can be processed after finishing
+        assertArrayEquals(new double[0], streamingISTFT.finish());
+        assertThrowsExactly(IllegalStateException.class, () -> streamingISTFT.process(new Complex[5][1]));
+        assertThrowsExactly(IllegalStateException.class, streamingISTFT::finish);
+    }
+
+    // Helper methods
+    static double[] concatenate(double[] a, double[] b) {
+        double[] result = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, result, a.length, b.length);
+        return result;
+    }
+}
@@ -290,6 +290,37 @@ class UnitConversionUtilsTest {
         assertEquals(5.194, UnitConversionUtils.amplitudeToDecibel(12.345, 6.789), 0.001);
     }
 
+    @Test
+    void amplitudeToDecibelInPlace() {
+        // Define amplitudes and the expected decibel values
+        double[][] powers = {{0, 1e-3, 1}, {10, 100, 0.5}, {100, 10, 1e-9}};
+        double[][] correctDecibels = UnitConversionUtils.powerToDecibel(powers, 4, 80);
+
+        float[][] amplitudes = new float[powers.length][powers[0].length];
+        for (int i = 0; i < powers.length; i++) {
+            for (int j = 0; j < powers[0].length; j++) {
+                amplitudes[i][j] = (float) Math.sqrt(powers[i][j]);
+            }
+        }
+        float[] lastRow = amplitudes[2].clone();
+
+        // Convert and check the values
+        float[][] decibels = UnitConversionUtils.amplitudeToDecibel(amplitudes, 10, 2, 80);
+        assertSame(amplitudes, decibels);
+        for (int i = 0; i < powers.length; i++) {
+            for (int j = 0; j < powers[0].length; j++) {
+                assertEquals(correctDecibels[i][j], decibels[i][j], 1e-4);
+            }
+        }
+
+        // Converting a single row gives the same values, as long as the matrix's peak is used
+        assertArrayEquals(decibels[2], UnitConversionUtils.amplitudeToDecibel(lastRow, 10, 2, 80));
+
+        assertThrowsExactly(ValueException.class, () -> UnitConversionUtils.amplitudeToDecibel(
+                new float[][]{{0, 1}, {10, 100}}, 100, 1, -1
+        ));
+    }
+
     @Test
     void hzToMel() {
         assertEquals(0.9, UnitConversionUtils.hzToMel(60), 1e-5);
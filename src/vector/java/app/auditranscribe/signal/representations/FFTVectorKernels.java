@@ -0,0 +1,96 @@
+/*
+ * FFTVectorKernels.java
+ * Description: SIMD kernels for the FFT that use the incubating Java Vector API.
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public Licence as published by the Free Software Foundation, either version 3 of the
+ * Licence, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public Licence for more details.
+ *
+ * You should have received a copy of the GNU General Public Licence along with this program. If
+ * not, see <https://www.gnu.org/licenses/>
+ *
+ * Copyright © AudiTranscribe Team
+ */
+
+package app.auditranscribe.signal.representations;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD kernels for the FFT that use the incubating Java Vector API.<br>
+ * This class is only compiled in the <code>vector-fft</code> build profile, and must only be loaded
+ * when the <code>jdk.incubator.vector</code> module is present; see {@link FFTPlan} for how the
+ * vector backend is selected.
+ */
+final class FFTVectorKernels implements FFTVectorBackend {
+    // Constants
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    // Public methods
+
+    @Override
+    public int getLaneCount() {
+        return SPECIES.length();
+    }
+
+    @Override
+    public void radix4Stage(
+            double[] realParts, double[] imagParts, int offset, int length, int size, double[] twiddles
+    ) {
+        for (int start = offset; start < offset + length; start += size * 4) {
+            for (int k = 0; k < size; k += SPECIES.length()) {
+                int i0 = start + k;
+                int i1 = i0 + size;
+                int i2 = i1 + size;
+                int i3 = i2 + size;
+
+                // Get the twiddle factors `W^k`, `W^2k` and `W^3k`
+                DoubleVector c1 = DoubleVector.fromArray(SPECIES, twiddles, k);
+                DoubleVector s1 = DoubleVector.fromArray(SPECIES, twiddles, size + k);
+                DoubleVector c2 = DoubleVector.fromArray(SPECIES, twiddles, 2 * size + k);
+                DoubleVector s2 = DoubleVector.fromArray(SPECIES, twiddles, 3 * size + k);
+                DoubleVector c3 = DoubleVector.fromArray(SPECIES, twiddles, 4 * size + k);
+                DoubleVector s3 = DoubleVector.fromArray(SPECIES, twiddles, 5 * size + k);
+
+                // Apply the twiddle factors to the sub-transforms of residues 1, 2 and 3
+                DoubleVector aReal = DoubleVector.fromArray(SPECIES, realParts, i0);
+                DoubleVector aImag = DoubleVector.fromArray(SPECIES, imagParts, i0);
+
+                DoubleVector xReal = DoubleVector.fromArray(SPECIES, realParts, i2);  // Residue 1
+                DoubleVector xImag = DoubleVector.fromArray(SPECIES, imagParts, i2);
+                DoubleVector bReal = xReal.fma(c1, xImag.mul(s1));
+                DoubleVector bImag = xImag.fma(c1, xReal.mul(s1).neg());
+
+                xReal = DoubleVector.fromArray(SPECIES, realParts, i1);  // Residue 2
+                xImag = DoubleVector.fromArray(SPECIES, imagParts, i1);
+                DoubleVector cReal = xReal.fma(c2, xImag.mul(s2));
+                DoubleVector cImag = xImag.fma(c2, xReal.mul(s2).neg());
+
+                xReal = DoubleVector.fromArray(SPECIES, realParts, i3);  // Residue 3
+                xImag = DoubleVector.fromArray(SPECIES, imagParts, i3);
+                DoubleVector dReal = xReal.fma(c3, xImag.mul(s3));
+                DoubleVector dImag = xImag.fma(c3, xReal.mul(s3).neg());
+
+                // Compute the 4-point DFTs
+                DoubleVector sumACReal = aReal.add(cReal), sumACImag = aImag.add(cImag);
+                DoubleVector diffACReal = aReal.sub(cReal), diffACImag = aImag.sub(cImag);
+                DoubleVector sumBDReal = bReal.add(dReal), sumBDImag = bImag.add(dImag);
+                DoubleVector diffBDReal = bReal.sub(dReal), diffBDImag = bImag.sub(dImag);
+
+                sumACReal.add(sumBDReal).intoArray(realParts, i0);
+                sumACImag.add(sumBDImag).intoArray(imagParts, i0);
+                diffACReal.add(diffBDImag).intoArray(realParts, i1);  // diffAC - i * diffBD
+                diffACImag.sub(diffBDReal).intoArray(imagParts, i1);
+                sumACReal.sub(sumBDReal).intoArray(realParts, i2);
+                sumACImag.sub(sumBDImag).intoArray(imagParts, i2);
+                diffACReal.sub(diffBDImag).intoArray(realParts, i3);  // diffAC + i * diffBD
+                diffACImag.add(diffBDReal).intoArray(imagParts, i3);
+            }
+        }
+    }
+}